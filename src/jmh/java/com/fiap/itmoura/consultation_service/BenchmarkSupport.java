@@ -0,0 +1,97 @@
+package com.fiap.itmoura.consultation_service;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sobe a aplicação com o profile de teste (H2 em memória) e popula a base
+ * diretamente pelo EntityManager, sem passar pelo aspecto de save.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ConsultationServiceApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN"
+                );
+    }
+
+    public static List<Users> seedUsers(ConfigurableApplicationContext context, TypeUserEnum type, int count) {
+        var entityManager = entityManager(context);
+        var transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        return transactionTemplate.execute(status -> {
+            List<Users> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                var user = Users.builder()
+                        .name(type.name() + " " + i)
+                        .email(type.name().toLowerCase() + i + "@benchmark.com")
+                        .password("benchmark")
+                        .typeUserRole(type)
+                        .isActive(true)
+                        .build();
+                entityManager.persist(user);
+                users.add(user);
+            }
+            return users;
+        });
+    }
+
+    /**
+     * Cria {@code perMedic} consultas de 30 minutos por médico, uma a cada hora
+     * entre 08:00 e 18:00, a partir de {@code firstDay}.
+     */
+    public static void seedSchedule(ConfigurableApplicationContext context, List<Users> medics, Users patient,
+                                    LocalDateTime firstDay, int perMedic) {
+        seedSchedule(context, medics, List.of(patient), firstDay, perMedic);
+    }
+
+    /** Igual ao anterior, alternando os pacientes informados entre as consultas. */
+    public static void seedSchedule(ConfigurableApplicationContext context, List<Users> medics, List<Users> patients,
+                                    LocalDateTime firstDay, int perMedic) {
+        var entityManager = entityManager(context);
+        var transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        var created = 0;
+        for (var medic : medics) {
+            var offset = created;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < perMedic; i++) {
+                    var startDate = slotStart(firstDay, i);
+                    var patient = patients.get((offset + i) % patients.size());
+                    entityManager.persist(Consultation.create(medic, patient, startDate, startDate.plusMinutes(30), "Benchmark"));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            created += perMedic;
+        }
+    }
+
+    public static EntityManager entityManager(ConfigurableApplicationContext context) {
+        return SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+    }
+
+    public static LocalDateTime slotStart(LocalDateTime firstDay, int index) {
+        return firstDay.toLocalDate().plusDays(index / 10).atTime(8 + index % 10, 0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de horários livres de um médico com a agenda cheia: {@code bookingsPerDay}
+ * consultas de 4 minutos, uma a cada 5 minutos, entre 08:00 e 18:00.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MedicAvailabilityBenchmark {
+
+    private static final int DAYS = 7;
+
+    @Param({"120"})
+    public int bookingsPerDay;
+
+    private MedicScheduleIndex medicScheduleIndex;
+    private UUID medicId;
+    private LocalDate firstDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // O índice é alimentado diretamente, sem subir a aplicação
+        medicScheduleIndex = new MedicScheduleIndex(null);
+        var medic = user(TypeUserEnum.MEDIC);
+        var patient = user(TypeUserEnum.PATIENT);
+        medicId = medic.getId();
+        firstDay = LocalDate.now().plusDays(1);
+
+        for (int day = 0; day < DAYS; day++) {
+            var opening = firstDay.plusDays(day).atTime(8, 0);
+            for (int i = 0; i < bookingsPerDay; i++) {
+                var start = opening.plusMinutes(5L * i);
+                var consultation = Consultation.create(medic, patient, start, start.plusMinutes(4), "Benchmark");
+                consultation.setId(UUID.randomUUID());
+                medicScheduleIndex.onConsultationSaved(consultation);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<FreeSlot> singleDay() {
+        return medicScheduleIndex.findFreeSlots(medicId, firstDay.atTime(8, 0), firstDay.atTime(18, 0), Duration.ofMinutes(1));
+    }
+
+    @Benchmark
+    public int week() {
+        var total = 0;
+        for (int day = 0; day < DAYS; day++) {
+            var date = firstDay.plusDays(day);
+            total += medicScheduleIndex.findFreeSlots(medicId, date.atTime(8, 0), date.atTime(18, 0), Duration.ofMinutes(1)).size();
+        }
+        return total;
+    }
+
+    private static Users user(TypeUserEnum type) {
+        return Users.builder()
+                .id(UUID.randomUUID())
+                .name(type.name())
+                .email(UUID.randomUUID() + "@example.com")
+                .typeUserRole(type)
+                .isActive(true)
+                .build();
+    }
+}
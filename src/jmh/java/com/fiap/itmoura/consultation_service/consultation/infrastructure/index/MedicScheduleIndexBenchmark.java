@@ -0,0 +1,94 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import com.fiap.itmoura.consultation_service.BenchmarkSupport;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a verificação de conflito em memória com a query JPQL
+ * {@code findConflictingConsultation} sobre a mesma massa de dados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MedicScheduleIndexBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"50"})
+    public int medics;
+
+    @Param({"200"})
+    public int consultationsPerMedic;
+
+    private ConfigurableApplicationContext context;
+    private ConsultationRepository consultationRepository;
+    private MedicScheduleIndex medicScheduleIndex;
+
+    private UUID[] probeMedics;
+    private LocalDateTime[] probeStarts;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        consultationRepository = context.getBean(ConsultationRepository.class);
+        medicScheduleIndex = context.getBean(MedicScheduleIndex.class);
+
+        var firstDay = LocalDateTime.now().plusDays(1);
+        var medicUsers = BenchmarkSupport.seedUsers(context, TypeUserEnum.MEDIC, medics);
+        var patient = BenchmarkSupport.seedUsers(context, TypeUserEnum.PATIENT, 1).getFirst();
+        BenchmarkSupport.seedSchedule(context, medicUsers, patient, firstDay, consultationsPerMedic);
+        medicScheduleIndex.rebuild();
+
+        // Janelas de 20 minutos em múltiplos de 10 minutos: acertam no máximo uma consulta
+        var random = new SplittableRandom(42);
+        probeMedics = new UUID[PROBES];
+        probeStarts = new LocalDateTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeMedics[i] = medicUsers.get(random.nextInt(medics)).getId();
+            probeStarts[i] = BenchmarkSupport.slotStart(firstDay, random.nextInt(consultationsPerMedic))
+                    .plusMinutes(10L * random.nextInt(6));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Consultation> jpqlQuery() {
+        var i = next();
+        return consultationRepository.findConflictingConsultation(probeMedics[i], probeStarts[i], probeStarts[i].plusMinutes(20));
+    }
+
+    @Benchmark
+    public Optional<ScheduledSlot> inMemoryIndex() {
+        var i = next();
+        return medicScheduleIndex.findConflict(probeMedics[i], probeStarts[i], probeStarts[i].plusMinutes(20), null);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return cursor;
+    }
+}
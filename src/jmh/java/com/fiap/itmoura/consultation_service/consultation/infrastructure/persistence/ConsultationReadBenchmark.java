@@ -0,0 +1,88 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.BenchmarkSupport;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura das consultas de um dia ({@code /api/consultations/today}): entidades com
+ * entity graph convertidas em resposta versus a projeção {@link ConsultationView}.
+ * Rodar com {@code -prof gc} para comparar a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConsultationReadBenchmark {
+
+    @Param({"20"})
+    public int medics;
+
+    private ConfigurableApplicationContext context;
+    private ConsultationRepository consultationRepository;
+    private EntityManager entityManager;
+    private LocalDateTime startDate;
+    private LocalDateTime finalDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        consultationRepository = context.getBean(ConsultationRepository.class);
+        entityManager = BenchmarkSupport.entityManager(context);
+
+        // Dez consultas por médico no mesmo dia, cada uma com um paciente diferente
+        var day = LocalDateTime.now().plusDays(1);
+        var medicUsers = BenchmarkSupport.seedUsers(context, TypeUserEnum.MEDIC, medics);
+        var patients = BenchmarkSupport.seedUsers(context, TypeUserEnum.PATIENT, medics * 10);
+        BenchmarkSupport.seedSchedule(context, medicUsers, patients, day, 10);
+
+        startDate = day.toLocalDate().atStartOfDay();
+        finalDate = day.toLocalDate().atTime(LocalTime.MAX);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ConsultationResponse> entities() {
+        return entityManager.createQuery("""
+                    SELECT c FROM Consultation c
+                    WHERE c.startDate BETWEEN :startDate AND :finalDate
+                    ORDER BY c.startDate, c.id
+                """, Consultation.class)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(Consultation.WITH_PARTICIPANTS))
+                .setParameter("startDate", startDate)
+                .setParameter("finalDate", finalDate)
+                .getResultList()
+                .stream()
+                .map(ConsultationResponse::fromEntity)
+                .toList();
+    }
+
+    @Benchmark
+    public List<ConsultationResponse> projection() {
+        return consultationRepository.findAllByDate(startDate, finalDate)
+                .stream()
+                .map(ConsultationResponse::fromView)
+                .toList();
+    }
+}
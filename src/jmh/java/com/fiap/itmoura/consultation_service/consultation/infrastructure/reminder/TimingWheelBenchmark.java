@@ -0,0 +1,65 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.reminder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roda de lembretes com {@code pending} timers espalhados pelos próximos 90 dias:
+ * carga completa (como na subida) e um par agendar/cancelar com a roda cheia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class TimingWheelBenchmark {
+
+    private static final long TICK = 60_000;
+    private static final long START = 1_900_000_000_000L;
+    private static final long SPREAD = TimeUnit.DAYS.toMillis(90);
+
+    @Param({"300000"})
+    public int pending;
+
+    private long[] deadlines;
+    private HierarchicalTimingWheel<Integer> fullWheel;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        deadlines = new long[pending];
+        for (int i = 0; i < pending; i++) {
+            deadlines[i] = START + TICK + (long) (random.nextDouble() * SPREAD);
+        }
+        fullWheel = load();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HierarchicalTimingWheel<Integer> rebuild() {
+        return load();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean scheduleAndCancel() {
+        var timer = fullWheel.schedule(deadlines[next++ % pending], next);
+        return fullWheel.cancel(timer);
+    }
+
+    private HierarchicalTimingWheel<Integer> load() {
+        var wheel = new HierarchicalTimingWheel<Integer>(TICK, START);
+        for (int i = 0; i < pending; i++) {
+            wheel.schedule(deadlines[i], i);
+        }
+        return wheel;
+    }
+}
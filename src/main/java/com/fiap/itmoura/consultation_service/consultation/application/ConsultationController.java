@@ -3,17 +3,39 @@ package com.fiap.itmoura.consultation_service.consultation.application;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSeriesRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationUpdateRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ArchivedConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.AvailabilityResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationBatchItemResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationPageResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.interfaces.ConsultationInterface;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationArchiveService;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationAvailabilityService;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationExportService;
 import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationService;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersions;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveFilter;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationExportFilter;
+import com.fiap.itmoura.consultation_service.shared.application.ETags;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,29 +44,98 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ConsultationController implements ConsultationInterface {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ConsultationService consultationService;
+    private final ConsultationAvailabilityService consultationAvailabilityService;
+    private final ConsultationExportService consultationExportService;
+    private final ConsultationArchiveService consultationArchiveService;
+    private final ConsultationVersions consultationVersions;
 
+    // Versão lida antes da consulta: se algo mudar no meio, o próximo poll ainda busca de novo
     @Override
-    public List<ConsultationResponse> findAll() {
-        return consultationService.findAll();
+    public ConsultationPageResponse findAll(String cursor, Integer size, WebRequest webRequest) {
+        if (webRequest.checkNotModified(ETags.of(cursor, size, consultationVersions.current()))) {
+            return null;
+        }
+        return consultationService.findAll(cursor, size);
     }
 
     @Override
     public List<ConsultationResponse> findAllByDate(
             @Parameter(description = "Data da consulta (opcional)")
             @RequestParam(required = false)
-            @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date
+            @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date,
+            WebRequest webRequest
     ) {
-        return consultationService.findAllByDate(date);
+        var day = date == null ? LocalDate.now() : date;
+        // Uma leitura da versão por requisição: serve à ETag e à agenda materializada
+        var version = consultationVersions.current(day);
+        if (webRequest.checkNotModified(ETags.of(day, version))) {
+            return null;
+        }
+        return consultationService.findAllByDate(day, version);
+    }
+
+    @Override
+    public Page<ConsultationResponse> search(ConsultationSearchRequest searchRequest, Pageable pageable) {
+        return consultationService.search(searchRequest, pageable);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> export(LocalDate startDate, LocalDate endDate, ConsultationStatusEnum status) {
+        // Valida antes de abrir o stream para que erros de filtro ainda virem 400
+        var filter = ConsultationExportFilter.of(startDate, endDate, status);
+
+        StreamingResponseBody body = outputStream -> consultationExportService.export(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"consultations.ndjson\"")
+                .body(body);
+    }
+
+    @Override
+    public AvailabilityResponse findAvailability(UUID medicId, LocalDate date, LocalTime duration) {
+        return consultationAvailabilityService.findAvailability(medicId, date, duration);
+    }
+
+    @Override
+    public List<AvailabilityResponse> findAvailability(List<UUID> medicIds, LocalDate startDate, LocalDate endDate, LocalTime duration) {
+        return consultationAvailabilityService.findAvailability(medicIds, startDate, endDate, duration);
+    }
+
+    @Override
+    public List<ArchivedConsultationResponse> findArchived(LocalDate startDate, LocalDate endDate, UUID medicId, UUID patientId, Pageable pageable) {
+        return consultationArchiveService.findArchived(ConsultationArchiveFilter.of(startDate, endDate, medicId, patientId), pageable);
+    }
+
+    @Override
+    public ConsultationResponse findById(UUID id) {
+        return consultationService.findById(id);
+    }
+
+    @Override
+    public ConsultationResponse create(ConsultationRequest consultationRequest, String idempotencyKey) {
+        return consultationService.create(consultationRequest, idempotencyKey);
+    }
+
+    @Override
+    public List<ConsultationBatchItemResponse> createBatch(List<ConsultationRequest> consultationRequests) {
+        return consultationService.createBatch(consultationRequests);
+    }
+
+    @Override
+    public List<ConsultationBatchItemResponse> createSeries(ConsultationSeriesRequest consultationSeriesRequest) {
+        return consultationService.createSeries(consultationSeriesRequest);
     }
 
     @Override
-    public ConsultationResponse create(ConsultationRequest consultationRequest) {
-        return consultationService.create(consultationRequest);
+    public ConsultationResponse replace(UUID id, ConsultationRequest consultationRequest) {
+        return consultationService.replace(id, consultationRequest);
     }
 
     @Override
-    public ConsultationResponse update(UUID id, ConsultationRequest consultationRequest) {
+    public ConsultationResponse update(UUID id, ConsultationUpdateRequest consultationRequest) {
         return consultationService.update(id, consultationRequest);
     }
 
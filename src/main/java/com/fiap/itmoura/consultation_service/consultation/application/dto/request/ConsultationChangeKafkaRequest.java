@@ -0,0 +1,44 @@
+package com.fiap.itmoura.consultation_service.consultation.application.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento de alteração de uma consulta: além do id e da versão, leva apenas os campos
+ * que mudaram. Campos ausentes no JSON não foram alterados.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ConsultationChangeKafkaRequest(
+
+    UUID id,
+
+    Long version,
+
+    UUID medicId,
+
+    UUID patientId,
+
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm")
+    LocalDateTime startDate,
+
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm")
+    LocalDateTime finalDate,
+
+    String description
+) {
+
+    public ConsultationChangeKafkaRequest withVersion(Long version) {
+        return new ConsultationChangeKafkaRequest(id, version, medicId, patientId, startDate, finalDate, description);
+    }
+}
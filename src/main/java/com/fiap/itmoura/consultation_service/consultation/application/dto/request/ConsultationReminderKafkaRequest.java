@@ -0,0 +1,56 @@
+package com.fiap.itmoura.consultation_service.consultation.application.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationReminderTypeEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView;
+import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ConsultationReminderKafkaRequest(
+
+    UUID id,
+
+    ConsultationReminderTypeEnum type,
+
+    UserDTO medicId,
+
+    UserDTO patientId,
+
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm")
+    LocalDateTime startDate,
+
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm")
+    LocalDateTime finalDate,
+
+    String description
+) {
+
+    // Um lembrete de cada tipo por consulta: a chave deixa o consumidor descartar repetidos
+    public String key() {
+        return id + ":" + type;
+    }
+
+    public static ConsultationReminderKafkaRequest of(ConsultationView view, ConsultationReminderTypeEnum type) {
+        return new ConsultationReminderKafkaRequest(
+                view.id(),
+                type,
+                new UserDTO(view.medicId(), view.medicName(), view.medicEmail(), null,
+                        view.medicRole(), view.medicLastUpdate(), view.medicCreatedAt()),
+                new UserDTO(view.patientId(), view.patientName(), view.patientEmail(), null,
+                        view.patientRole(), view.patientLastUpdate(), view.patientCreatedAt()),
+                view.startDate(),
+                view.finalDate(),
+                view.description()
+        );
+    }
+}
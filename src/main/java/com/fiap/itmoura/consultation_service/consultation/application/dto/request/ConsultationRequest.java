@@ -1,12 +1,14 @@
 package com.fiap.itmoura.consultation_service.consultation.application.dto.request;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalTimeSerializer;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDateTime;
@@ -35,4 +37,11 @@ public record ConsultationRequest(
 
     String description
 ) {
+
+    // Data final é inicio + duração: só passa depois do inicio com duração maior que zero
+    @JsonIgnore
+    @AssertTrue(message = "Time duration must end after startDate")
+    public boolean isFinalDateAfterStartDate() {
+        return timeDuration == null || timeDuration.isAfter(LocalTime.MIDNIGHT);
+    }
 }
\ No newline at end of file
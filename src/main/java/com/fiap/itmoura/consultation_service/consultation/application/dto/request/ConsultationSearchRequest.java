@@ -2,6 +2,7 @@ package com.fiap.itmoura.consultation_service.consultation.application.dto.reque
 
 import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -14,7 +15,8 @@ public record ConsultationSearchRequest(
         @Schema(description = "ID do paciente", example = "c72cad86-2a08-46a6-8576-6277a0998db9")
         UUID patientId,
 
-        @Schema(description = "Data da consulta", example = "2023-10-10")
+        @Schema(description = "Data da consulta", example = "10/10/2023")
+        @DateTimeFormat(pattern = "dd/MM/yyyy")
         LocalDate date,
 
         @Schema(description = "Status da consulta", example = "PENDING")
@@ -0,0 +1,57 @@
+package com.fiap.itmoura.consultation_service.consultation.application.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalTimeSerializer;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationRecurrenceEnum;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Série de consultas no estilo RRULE: a partir de {@code startDate}, repete na
+ * frequência informada até completar {@code count} ocorrências ou até a data
+ * {@code until} (inclusive). Exatamente um dos dois deve ser informado.
+ */
+public record ConsultationSeriesRequest(
+
+    @NotNull(message = "Medic ID is required")
+    UUID medicId,
+
+    @NotNull(message = "Patient ID is required")
+    UUID patientId,
+
+    @NotNull(message = "startDate is required")
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonFormat(pattern = "dd/MM/yyyy HH:mm")
+    LocalDateTime startDate,
+
+    @NotNull(message = "Time duration is required")
+    @JsonFormat(pattern = "HH:mm")
+    @JsonDeserialize(using = LocalTimeDeserializer.class)
+    @JsonSerialize(using = LocalTimeSerializer.class)
+    LocalTime timeDuration,
+
+    String description,
+
+    @NotNull(message = "Frequency is required")
+    ConsultationRecurrenceEnum frequency,
+
+    Integer count,
+
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    LocalDate until
+) {
+}
@@ -0,0 +1,41 @@
+package com.fiap.itmoura.consultation_service.consultation.application.dto.response;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ArchivedConsultationView;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ArchivedConsultationResponse(
+
+        @Schema(description = "ID da consulta", example = "5f0c1d2e-3a4b-4c5d-8e9f-0a1b2c3d4e5f")
+        UUID id,
+
+        @Schema(description = "ID do médico", example = "5f0c1d2e-3a4b-4c5d-8e9f-0a1b2c3d4e5f")
+        UUID medicId,
+
+        @Schema(description = "ID do paciente", example = "5f0c1d2e-3a4b-4c5d-8e9f-0a1b2c3d4e5f")
+        UUID patientId,
+
+        @Schema(description = "Data da consulta", example = "2023-10-10T10:00:00")
+        LocalDateTime startDate,
+
+        @Schema(description = "Data final da consulta", example = "2023-10-10T10:30:00")
+        LocalDateTime finalDate,
+
+        @Schema(description = "Status da consulta ao ser arquivada", example = "COMPLETED")
+        ConsultationStatusEnum status,
+
+        @Schema(description = "Descrição da consulta", example = "Consulta de rotina")
+        String description,
+
+        @Schema(description = "Momento em que a consulta foi movida para o arquivo", example = "2024-04-10T02:30:00")
+        LocalDateTime archivedAt
+) {
+
+    public static ArchivedConsultationResponse fromView(ArchivedConsultationView view) {
+        return new ArchivedConsultationResponse(view.id(), view.medicId(), view.patientId(), view.startDate(),
+                view.finalDate(), view.status(), view.description(), view.archivedAt());
+    }
+}
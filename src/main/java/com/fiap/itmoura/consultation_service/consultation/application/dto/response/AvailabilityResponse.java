@@ -0,0 +1,38 @@
+package com.fiap.itmoura.consultation_service.consultation.application.dto.response;
+
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.FreeSlot;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record AvailabilityResponse(
+
+        @Schema(description = "ID do médico", example = "c72cad86-2a08-46a6-8576-6277a0998db9")
+        UUID medicId,
+
+        @Schema(description = "Data consultada", example = "2023-10-10")
+        LocalDate date,
+
+        @Schema(description = "Intervalos livres que comportam a duração solicitada")
+        List<FreeSlotResponse> freeSlots
+) {
+
+    public record FreeSlotResponse(
+
+            @Schema(description = "Início do intervalo livre", example = "2023-10-10T10:00:00")
+            LocalDateTime startDate,
+
+            @Schema(description = "Fim do intervalo livre", example = "2023-10-10T11:30:00")
+            LocalDateTime finalDate
+    ) {
+    }
+
+    public static AvailabilityResponse of(UUID medicId, LocalDate date, List<FreeSlot> freeSlots) {
+        return new AvailabilityResponse(medicId, date, freeSlots.stream()
+                .map(slot -> new FreeSlotResponse(slot.startDate(), slot.finalDate()))
+                .toList());
+    }
+}
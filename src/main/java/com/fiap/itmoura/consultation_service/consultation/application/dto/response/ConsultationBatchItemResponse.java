@@ -0,0 +1,37 @@
+package com.fiap.itmoura.consultation_service.consultation.application.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ConsultationBatchItemResponse(
+
+        @Schema(description = "Posição do item na requisição", example = "0")
+        int index,
+
+        @Schema(description = "Resultado do item", example = "CREATED")
+        Status status,
+
+        @Schema(description = "Consulta criada, quando o item foi aceito")
+        ConsultationResponse consultation,
+
+        @Schema(description = "Motivo da rejeição, quando o item não foi aceito", example = "Esse médico possui uma consulta nessa data e horario")
+        String error
+) {
+
+    public enum Status {
+        CREATED,
+        CONFLICT,
+        INVALID
+    }
+
+    public static ConsultationBatchItemResponse created(int index, ConsultationResponse consultation) {
+        return new ConsultationBatchItemResponse(index, Status.CREATED, consultation, null);
+    }
+
+    public static ConsultationBatchItemResponse conflict(int index, String error) {
+        return new ConsultationBatchItemResponse(index, Status.CONFLICT, null, error);
+    }
+
+    public static ConsultationBatchItemResponse invalid(int index, String error) {
+        return new ConsultationBatchItemResponse(index, Status.INVALID, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.fiap.itmoura.consultation_service.consultation.application.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record ConsultationPageResponse(
+
+        @Schema(description = "Consultas da página, ordenadas pela data de início")
+        List<ConsultationResponse> content,
+
+        @Schema(description = "Token para buscar a próxima página; nulo quando não há mais consultas", example = "MjAyMy0xMC0xMFQxMDowMHxjNzJjYWQ4Ni0yYTA4LTQ2YTYtODU3Ni02Mjc3YTA5OThkYjk")
+        String nextCursor
+) {
+}
@@ -2,6 +2,7 @@ package com.fiap.itmoura.consultation_service.consultation.application.dto.respo
 
 import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
 import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView;
 import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -51,4 +52,18 @@ public class ConsultationResponse {
                 .description(consultation.getDescription())
                 .build();
     }
+
+    public static ConsultationResponse fromView(ConsultationView view) {
+        return ConsultationResponse.builder()
+                .id(view.id())
+                .medic(new UserDTO(view.medicId(), view.medicName(), view.medicEmail(), null,
+                        view.medicRole(), view.medicLastUpdate(), view.medicCreatedAt()))
+                .patient(new UserDTO(view.patientId(), view.patientName(), view.patientEmail(), null,
+                        view.patientRole(), view.patientLastUpdate(), view.patientCreatedAt()))
+                .startDate(view.startDate())
+                .finalDate(view.finalDate())
+                .status(view.status())
+                .description(view.description())
+                .build();
+    }
 }
\ No newline at end of file
@@ -3,13 +3,26 @@ package com.fiap.itmoura.consultation_service.consultation.application.interface
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSeriesRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationUpdateRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ArchivedConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.AvailabilityResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationBatchItemResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationPageResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -17,10 +30,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,40 +47,157 @@ public interface ConsultationInterface {
 
     @GetMapping
     @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
-    @Operation(summary = "Listar todas as consultas", description = "Retorna uma lista com todas as consultas")
+    @Operation(summary = "Listar consultas paginadas", description = "Retorna as consultas ordenadas pela data de início, paginadas por cursor")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de consultas retornada com sucesso")
+        @ApiResponse(responseCode = "200", description = "Página de consultas retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Página inalterada desde o ETag informado em If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido")
     })
-    List<ConsultationResponse> findAll();
+    ConsultationPageResponse findAll(
+            @Parameter(description = "Token nextCursor da página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de consultas por página (padrão 20, máximo 100)") @RequestParam(required = false) Integer size,
+            WebRequest webRequest
+    );
 
     @GetMapping("/today")
     @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
     @Operation(summary = "Listar todas as consultas do dia", description = "Retorna uma lista com todas as consultas do dia")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de consultas do dia retornada com sucesso")
+        @ApiResponse(responseCode = "200", description = "Lista de consultas do dia retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Agenda inalterada desde o ETag informado em If-None-Match")
     })
     List<ConsultationResponse> findAllByDate(
             @Parameter(description = "Data da consulta (opcional)")
             @RequestParam(required = false)
-            @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date
+            @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date,
+            WebRequest webRequest
     );
     
 
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Buscar consultas", description = "Busca paginada por médico, paciente, data e status; apenas os critérios informados são aplicados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de consultas retornada com sucesso")
+    })
+    Page<ConsultationResponse> search(@ParameterObject ConsultationSearchRequest searchRequest,
+                                      @ParameterObject @PageableDefault(size = 20) Pageable pageable);
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Exportar consultas", description = "Exporta as consultas em NDJSON (uma por linha), em streaming, ordenadas pela data de início")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportação iniciada"),
+        @ApiResponse(responseCode = "400", description = "Período inválido")
+    })
+    ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "Data inicial (opcional)") @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate startDate,
+            @Parameter(description = "Data final, inclusiva (opcional)") @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate endDate,
+            @Parameter(description = "Status da consulta (opcional)") @RequestParam(required = false) ConsultationStatusEnum status
+    );
+
+    @GetMapping("/availability")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Consultar horários livres do médico", description = "Retorna os intervalos livres do médico na data que comportam a duração informada")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Horários livres retornados com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Médico não encontrado ou parâmetros inválidos")
+    })
+    AvailabilityResponse findAvailability(
+            @Parameter(description = "ID do médico") @RequestParam UUID medicId,
+            @Parameter(description = "Data desejada") @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date,
+            @Parameter(description = "Duração da consulta (HH:mm)") @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime duration
+    );
+
+    @GetMapping("/availability/medics")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Consultar horários livres de vários médicos", description = "Retorna os intervalos livres de cada médico, dia a dia, no período informado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Horários livres retornados com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Médico não encontrado ou parâmetros inválidos")
+    })
+    List<AvailabilityResponse> findAvailability(
+            @Parameter(description = "IDs dos médicos") @RequestParam List<UUID> medicIds,
+            @Parameter(description = "Data inicial") @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate startDate,
+            @Parameter(description = "Data final") @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate endDate,
+            @Parameter(description = "Duração da consulta (HH:mm)") @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime duration
+    );
+
+    @GetMapping("/archive")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Buscar consultas arquivadas", description = "Busca no arquivo as consultas encerradas que saíram da tabela principal, ordenadas pela data de início")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Consultas arquivadas retornadas com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Intervalo de datas ou tamanho de página inválido")
+    })
+    List<ArchivedConsultationResponse> findArchived(
+            @Parameter(description = "Data inicial") @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate startDate,
+            @Parameter(description = "Data final (máximo de 366 dias após a inicial)") @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate endDate,
+            @Parameter(description = "ID do médico (opcional)") @RequestParam(required = false) UUID medicId,
+            @Parameter(description = "ID do paciente (opcional)") @RequestParam(required = false) UUID patientId,
+            @ParameterObject @PageableDefault(size = 50) Pageable pageable
+    );
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Buscar consulta por ID", description = "Retorna uma consulta específica pelo ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Consulta encontrada"),
+        @ApiResponse(responseCode = "400", description = "Consulta não encontrada")
+    })
+    ConsultationResponse findById(@Parameter(description = "ID da consulta") @PathVariable UUID id);
+
     @PostMapping
     @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
     @Operation(summary = "Criar uma nova consulta", description = "Cria uma nova consulta")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "201", description = "Consulta criada com sucesso")
+        @ApiResponse(responseCode = "201", description = "Consulta criada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Chave de idempotência reutilizada com outra requisição"),
+        @ApiResponse(responseCode = "409", description = "Conflito de agenda ou requisição com a mesma chave ainda em andamento")
+    })
+    ConsultationResponse create(@RequestBody ConsultationRequest consultationRequest,
+                                @Parameter(description = "Chave que torna a criação idempotente: repetições com a mesma chave recebem a resposta original")
+                                @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey);
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Criar consultas em lote", description = "Cria várias consultas de uma vez e retorna o resultado de cada item")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; cada item indica se foi criado ou rejeitado"),
+        @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do tamanho máximo")
+    })
+    List<ConsultationBatchItemResponse> createBatch(@RequestBody List<ConsultationRequest> consultationRequests);
+
+    @PostMapping("/series")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Criar uma série recorrente de consultas",
+            description = "Gera as ocorrências semanais ou quinzenais da série e retorna o resultado de cada uma; ocorrências em conflito com a agenda do médico não impedem as demais")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Série processada; cada item indica se a ocorrência foi criada ou conflitou"),
+        @ApiResponse(responseCode = "400", description = "Recorrência inválida ou acima do número máximo de ocorrências")
     })
-    ConsultationResponse create(@RequestBody ConsultationRequest consultationRequest);
+    List<ConsultationBatchItemResponse> createSeries(@RequestBody ConsultationSeriesRequest consultationSeriesRequest);
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
-    @Operation(summary = "Atualizar uma consulta", description = "Atualiza uma consulta")
+    @Operation(summary = "Substituir uma consulta", description = "Substitui a consulta pela representação enviada: médico, paciente, "
+            + "data de inicio e duração são obrigatórios, e uma descrição ausente é apagada")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Consulta substituída com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Campo obrigatório ausente ou data final que não é posterior à de inicio"),
+        @ApiResponse(responseCode = "409", description = "O novo horário conflita com a agenda do médico ou a consulta foi alterada em paralelo")
+    })
+    ConsultationResponse replace(@Parameter(description = "ID da consulta") @PathVariable UUID id, @Valid @RequestBody ConsultationRequest consultationRequest);
+
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasRole('MEDIC') or hasRole('NURSE')")
+    @Operation(summary = "Atualizar uma consulta", description = "Atualiza apenas os campos informados: "
+            + "campos ausentes ou nulos mantêm o valor atual e não são apagados")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Consulta atualizada com sucesso")
+        @ApiResponse(responseCode = "200", description = "Consulta atualizada com sucesso"),
+        @ApiResponse(responseCode = "409", description = "O novo horário conflita com a agenda do médico ou a consulta foi alterada em paralelo")
     })
-    ConsultationResponse update(@Parameter(description = "ID da consulta") @PathVariable UUID id, @RequestBody ConsultationRequest consultationRequest);
+    ConsultationResponse update(@Parameter(description = "ID da consulta") @PathVariable UUID id, @RequestBody ConsultationUpdateRequest consultationRequest);
 
     @PatchMapping("/{id}/confirm")
     @Operation(summary = "Confirmar uma consulta", description = "Confirma uma consulta")
@@ -0,0 +1,14 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ArchivedConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveFilter;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface ConsultationArchiveService {
+
+    int archive();
+
+    List<ArchivedConsultationResponse> findArchived(ConsultationArchiveFilter filter, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.AvailabilityResponse;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ConsultationAvailabilityService {
+
+    AvailabilityResponse findAvailability(UUID medicId, LocalDate date, LocalTime duration);
+    List<AvailabilityResponse> findAvailability(List<UUID> medicIds, LocalDate startDate, LocalDate endDate, LocalTime duration);
+}
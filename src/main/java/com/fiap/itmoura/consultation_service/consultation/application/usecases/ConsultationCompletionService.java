@@ -0,0 +1,6 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases;
+
+public interface ConsultationCompletionService {
+
+    int completeFinished();
+}
@@ -0,0 +1,11 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases;
+
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationExportFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ConsultationExportService {
+
+    long export(ConsultationExportFilter filter, OutputStream outputStream) throws IOException;
+}
@@ -1,7 +1,15 @@
 package com.fiap.itmoura.consultation_service.consultation.application.usecases;
 
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSeriesRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationUpdateRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationBatchItemResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationPageResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -9,10 +17,16 @@ import java.util.UUID;
 
 public interface ConsultationService {
 
-    List<ConsultationResponse> findAll();
-    List<ConsultationResponse> findAllByDate(LocalDate date);
+    ConsultationPageResponse findAll(String cursor, Integer size);
+    List<ConsultationResponse> findAllByDate(LocalDate date, ConsultationVersion version);
+    ConsultationResponse findById(UUID id);
+    Page<ConsultationResponse> search(ConsultationSearchRequest searchRequest, Pageable pageable);
     ConsultationResponse create(ConsultationRequest consultationRequest);
-    ConsultationResponse update(UUID id, ConsultationRequest consultationRequest);
+    ConsultationResponse create(ConsultationRequest consultationRequest, String idempotencyKey);
+    List<ConsultationBatchItemResponse> createBatch(List<ConsultationRequest> consultationRequests);
+    List<ConsultationBatchItemResponse> createSeries(ConsultationSeriesRequest consultationSeriesRequest);
+    ConsultationResponse replace(UUID id, ConsultationRequest consultationRequest);
+    ConsultationResponse update(UUID id, ConsultationUpdateRequest consultationRequest);
     ConsultationResponse confirm(UUID id);
     void cancel(UUID id);
 }
@@ -0,0 +1,128 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationChangeKafkaRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationKafkaRequest;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersions;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.producer.ConsultationKafkaProducer;
+import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Propaga consultas gravadas para as estruturas em memória e para o Kafka. Usado pelo
+ * aspecto do repositório e pelos jobs que alteram consultas com UPDATE em massa, que
+ * não passam pelo {@code save}.
+ * <p>
+ * Dentro de uma transação, ouvintes e Kafka só rodam depois do commit: uma tentativa
+ * desfeita por conflito de versão não anuncia nada nem altera índices e caches. O evento
+ * é montado na hora da gravação, enquanto a sessão ainda está aberta. As versões das
+ * listagens ({@link ConsultationVersions}) sobem na hora, dentro da mesma transação.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConsultationEventPublisher {
+
+    private final ConsultationKafkaProducer producer;
+    private final List<ConsultationSaveListener> listeners;
+    private final ConsultationVersions consultationVersions;
+
+    // Compatibilidade temporária com consumidores do tópico scheduling que ainda não leem o tópico change
+    @Value("${kafka.producer.full-update-events:true}")
+    private boolean fullUpdateEvents;
+
+    public void publish(Consultation consultation) throws JsonProcessingException {
+        var request = toKafkaRequest(consultation);
+        var revisions = consultationVersions.touch(List.of(consultation.getStartDate().toLocalDate()));
+        afterCommit(List.of(consultation), revisions, () -> producer.sendKafkaMessage(request));
+    }
+
+    /**
+     * Alteração feita por dirty checking, sem {@code save}: as estruturas em memória
+     * recebem a consulta inteira e o Kafka só o evento versionado com os campos alterados,
+     * no tópico de alterações. O evento completo no tópico de agendamento continua saindo
+     * enquanto {@code kafka.producer.full-update-events} estiver ligado, o padrão durante a
+     * migração dos consumidores.
+     * A data anterior também muda de versão quando a consulta é remarcada para outro dia.
+     */
+    public void publishChanges(Consultation consultation, LocalDate previousDate, ConsultationChangeKafkaRequest change) throws JsonProcessingException {
+        var request = fullUpdateEvents ? toKafkaRequest(consultation) : null;
+        var revisions = consultationVersions.touch(List.of(previousDate, consultation.getStartDate().toLocalDate()));
+        afterCommit(List.of(consultation), revisions, () -> {
+            if (request != null) {
+                producer.sendKafkaMessage(request);
+            }
+            producer.sendChangeMessage(change);
+        });
+    }
+
+    public void publishAll(Collection<Consultation> consultations) throws JsonProcessingException {
+        List<ConsultationKafkaRequest> requests = new ArrayList<>(consultations.size());
+        for (Consultation consultation : consultations) {
+            requests.add(toKafkaRequest(consultation));
+        }
+        var revisions = consultationVersions.touch(consultations.stream()
+                .map(consultation -> consultation.getStartDate().toLocalDate())
+                .collect(Collectors.toSet()));
+        afterCommit(List.copyOf(consultations), revisions, () -> producer.sendKafkaMessages(requests));
+    }
+
+    private void afterCommit(List<Consultation> consultations, Map<LocalDate, Long> revisions, KafkaSend send) throws JsonProcessingException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(consultations, revisions, send);
+            return;
+        }
+
+        // afterCompletion roda com a sincronização já encerrada: os ouvintes aplicam a mudança na hora
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    dispatch(consultations, revisions, send);
+                } catch (JsonProcessingException ex) {
+                    log.error("Erro ao publicar {} consultas após o commit", consultations.size(), ex);
+                }
+            }
+        });
+    }
+
+    private void dispatch(List<Consultation> consultations, Map<LocalDate, Long> revisions, KafkaSend send) throws JsonProcessingException {
+        for (Consultation consultation : consultations) {
+            listeners.forEach(listener -> listener.onConsultationSaved(consultation, revisions));
+        }
+        send.run();
+    }
+
+    private ConsultationKafkaRequest toKafkaRequest(Consultation consultation) {
+        return new ConsultationKafkaRequest(
+                consultation.getId(),
+                UserDTO.fromEntity(consultation.getMedic()),
+                UserDTO.fromEntity(consultation.getPatient()),
+                consultation.getStartDate(),
+                consultation.getFinalDate(),
+                consultation.getDescription(),
+                consultation.getStatus()
+        );
+    }
+
+    @FunctionalInterface
+    private interface KafkaSend {
+        void run() throws JsonProcessingException;
+    }
+}
@@ -1,38 +1,39 @@
 package com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationKafkaRequest;
-import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
 import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
-import com.fiap.itmoura.consultation_service.consultation.infrastructure.producer.ConsultationKafkaProducer;
-import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Aspect
 @Component
 @RequiredArgsConstructor
 public class ConsultationSaveAspect {
 
-    private final ConsultationKafkaProducer producer;
+    private final ConsultationEventPublisher publisher;
 
     @AfterReturning(pointcut = "execution(* com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository.save(..))",
             returning = "result")
     public void afterConsultationSave(Object result) throws JsonProcessingException {
         if (result != null) {
-            Consultation consultation = (Consultation) result;
-            ConsultationKafkaRequest consultationKafkaRequest = new ConsultationKafkaRequest(
-                    consultation.getId(),
-                    UserDTO.fromEntity(consultation.getMedic()),
-                    UserDTO.fromEntity(consultation.getPatient()),
-                    consultation.getStartDate(),
-                    consultation.getFinalDate(),
-                    consultation.getDescription(),
-                    consultation.getStatus()
-            );
-            producer.sendKafkaMessage(consultationKafkaRequest);
+            publisher.publish((Consultation) result);
+        }
+    }
+
+    @AfterReturning(pointcut = "execution(* com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository.saveAll(..))",
+            returning = "result")
+    public void afterConsultationSaveAll(Object result) throws JsonProcessingException {
+        if (result instanceof Iterable<?> saved) {
+            List<Consultation> consultations = new ArrayList<>();
+            for (Object item : saved) {
+                consultations.add((Consultation) item);
+            }
+            publisher.publishAll(consultations);
         }
     }
 
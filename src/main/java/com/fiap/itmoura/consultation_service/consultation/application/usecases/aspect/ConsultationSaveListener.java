@@ -0,0 +1,25 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Recebe cada consulta persistida por {@code ConsultationRepository.save}, depois do
+ * commit da transação que a gravou, permitindo que estruturas em memória acompanhem
+ * o estado do banco.
+ */
+public interface ConsultationSaveListener {
+
+    void onConsultationSaved(Consultation consultation);
+
+    /**
+     * Igual a {@link #onConsultationSaved(Consultation)}, com a revisão que cada data tocada
+     * pela transação passou a ter no commit; quem guarda a versão junto do dado a usa para
+     * saber se ficou em dia sem consultar o banco.
+     */
+    default void onConsultationSaved(Consultation consultation, Map<LocalDate, Long> revisions) {
+        onConsultationSaved(consultation);
+    }
+}
@@ -0,0 +1,133 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ArchivedConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationArchiveService;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationSnapshotCache;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersions;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.JobCheckpointLock;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveFilter;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveRepository.ArchiveCandidate;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Move consultas encerradas há mais que o horizonte configurado para a tabela de arquivo,
+ * em lotes de {@code chunkSize}. Cada lote é uma transação curta, então o job pode ser
+ * interrompido a qualquer momento sem deixar linhas duplicadas ou perdidas.
+ * <p>
+ * Cada lote trava a linha do job em {@code job_checkpoint} antes de ler os candidatos:
+ * com vários nós, o segundo espera o lote do primeiro e lê os candidatos que sobraram,
+ * em vez de tentar mover as mesmas linhas e esbarrar na PK do arquivo.
+ */
+@Slf4j
+@Service
+public class ConsultationArchiveServiceImpl implements ConsultationArchiveService {
+
+    static final String JOB_NAME = "consultation-archive";
+
+    private static final Set<ConsultationStatusEnum> ARCHIVABLE_STATUSES = EnumSet.of(
+            ConsultationStatusEnum.COMPLETED, ConsultationStatusEnum.CANCELLED);
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ConsultationArchiveRepository consultationArchiveRepository;
+    private final ConsultationSnapshotCache consultationSnapshotCache;
+    private final ConsultationVersions consultationVersions;
+    private final JobCheckpointLock jobCheckpointLock;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    private final Duration horizon;
+    private final int chunkSize;
+
+    public ConsultationArchiveServiceImpl(ConsultationArchiveRepository consultationArchiveRepository,
+                                          ConsultationSnapshotCache consultationSnapshotCache,
+                                          ConsultationVersions consultationVersions,
+                                          JobCheckpointLock jobCheckpointLock,
+                                          PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${consultation.archive.horizon:180d}") Duration horizon,
+                                          @Value("${consultation.archive.chunk-size:500}") int chunkSize) {
+        this.consultationArchiveRepository = consultationArchiveRepository;
+        this.consultationSnapshotCache = consultationSnapshotCache;
+        this.consultationVersions = consultationVersions;
+        this.jobCheckpointLock = jobCheckpointLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("consultation.archive.moved")
+                .description("Consultas movidas para a tabela de arquivo")
+                .register(meterRegistry);
+        this.horizon = horizon;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    @Scheduled(cron = "${consultation.archive.cron:0 30 2 * * *}")
+    public int archive() {
+        var cutoff = LocalDateTime.now().minus(horizon);
+        log.info("Arquivando consultas encerradas antes de {}", cutoff);
+        jobCheckpointLock.seed(JOB_NAME);
+
+        int archived = 0;
+        List<ArchiveCandidate> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> moveChunk(cutoff));
+            afterChunk(chunk);
+            archived += chunk.size();
+        } while (chunk.size() == chunkSize);
+
+        log.info("{} consultas arquivadas", archived);
+        return archived;
+    }
+
+    @Override
+    public List<ArchivedConsultationResponse> findArchived(ConsultationArchiveFilter filter, Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new BadRequestException("O tamanho da página deve ser no máximo " + MAX_PAGE_SIZE);
+        }
+
+        log.info("Buscando consultas arquivadas - filtros: {}", filter);
+        return consultationArchiveRepository.find(filter, (int) pageable.getOffset(), pageable.getPageSize())
+                .stream()
+                .map(ArchivedConsultationResponse::fromView)
+                .toList();
+    }
+
+    private List<ArchiveCandidate> moveChunk(LocalDateTime cutoff) {
+        var checkpoint = jobCheckpointLock.lock(JOB_NAME);
+        var candidates = consultationArchiveRepository.findArchivable(cutoff, ARCHIVABLE_STATUSES, chunkSize);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        consultationArchiveRepository.moveToArchive(candidates, LocalDateTime.now());
+        // As consultas saem das listagens: as datas afetadas mudam de versão no mesmo commit
+        consultationVersions.touch(candidates.stream()
+                .map(candidate -> candidate.startDate().toLocalDate())
+                .collect(Collectors.toSet()));
+        // Só registra o progresso: quem decide o próximo lote é a própria tabela quente
+        var last = candidates.getLast();
+        checkpoint.advance(last.startDate(), last.id());
+        return candidates;
+    }
+
+    // Já commitado: as consultas saíram da tabela quente, então o cache por id precisa acompanhar
+    private void afterChunk(List<ArchiveCandidate> chunk) {
+        chunk.forEach(candidate -> consultationSnapshotCache.invalidate(candidate.id()));
+        archivedCounter.increment(chunk.size());
+    }
+}
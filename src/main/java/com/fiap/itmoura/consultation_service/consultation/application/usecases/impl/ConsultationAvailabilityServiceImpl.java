@@ -0,0 +1,120 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.AvailabilityResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationAvailabilityService;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicSlotCalendar;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.application.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Calcula a disponibilidade dos médicos a partir do {@link MedicSlotCalendar},
+ * sem consultar o banco; os horários livres ficam alinhados aos slots de 5 minutos.
+ */
+@Slf4j
+@Service
+public class ConsultationAvailabilityServiceImpl implements ConsultationAvailabilityService {
+
+    private static final int MAX_MEDICS = 50;
+    private static final int MAX_RANGE_DAYS = 31;
+
+    private final MedicSlotCalendar medicSlotCalendar;
+    private final UserService userService;
+    private final LocalTime openingTime;
+    private final LocalTime closingTime;
+
+    public ConsultationAvailabilityServiceImpl(MedicSlotCalendar medicSlotCalendar,
+                                               UserService userService,
+                                               @Value("${consultation.availability.opening-time:08:00}") LocalTime openingTime,
+                                               @Value("${consultation.availability.closing-time:18:00}") LocalTime closingTime) {
+        this.medicSlotCalendar = medicSlotCalendar;
+        this.userService = userService;
+        this.openingTime = openingTime;
+        this.closingTime = closingTime;
+    }
+
+    @Override
+    public AvailabilityResponse findAvailability(UUID medicId, LocalDate date, LocalTime duration) {
+        log.info("Buscando disponibilidade do médico {} em {}", medicId, date);
+        if (medicId == null || date == null) {
+            throw new BadRequestException("Médico e data são obrigatórios");
+        }
+        var minimum = toDuration(duration);
+        validateMedics(List.of(medicId));
+
+        return freeSlotsOf(medicId, date, minimum);
+    }
+
+    @Override
+    public List<AvailabilityResponse> findAvailability(List<UUID> medicIds, LocalDate startDate, LocalDate endDate, LocalTime duration) {
+        log.info("Buscando disponibilidade de {} médicos entre {} e {}", medicIds == null ? 0 : medicIds.size(), startDate, endDate);
+        if (medicIds == null || medicIds.isEmpty() || startDate == null || endDate == null) {
+            throw new BadRequestException("Médicos, data inicial e data final são obrigatórios");
+        }
+        if (medicIds.size() > MAX_MEDICS) {
+            throw new BadRequestException("Informe no máximo " + MAX_MEDICS + " médicos");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("A data final deve ser igual ou posterior à data inicial");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("O período deve ter no máximo " + MAX_RANGE_DAYS + " dias");
+        }
+        var minimum = toDuration(duration);
+        var distinctMedicIds = medicIds.stream().distinct().toList();
+        validateMedics(distinctMedicIds);
+
+        // Sequencial, na ordem da requisição: cada dia é uma busca curta no calendário em memória
+        return distinctMedicIds.stream()
+                .flatMap(medicId -> startDate.datesUntil(endDate.plusDays(1))
+                        .map(date -> freeSlotsOf(medicId, date, minimum)))
+                .toList();
+    }
+
+    private AvailabilityResponse freeSlotsOf(UUID medicId, LocalDate date, Duration minimum) {
+        var from = date.atTime(openingTime);
+        var to = date.atTime(closingTime);
+
+        // Horários que já passaram não estão disponíveis
+        var now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        if (from.isBefore(now)) {
+            from = now;
+        }
+        if (!from.isBefore(to)) {
+            return AvailabilityResponse.of(medicId, date, List.of());
+        }
+
+        return AvailabilityResponse.of(medicId, date, medicSlotCalendar.findFreeSlots(medicId, from, to, minimum));
+    }
+
+    private void validateMedics(List<UUID> medicIds) {
+        var users = userService.findActiveUsersByIds(medicIds);
+        for (var medicId : medicIds) {
+            var medic = users.get(medicId);
+            if (medic == null) {
+                throw new BadRequestException("Médico não encontrado: " + medicId);
+            }
+            if (medic.getTypeUserRole() != TypeUserEnum.MEDIC) {
+                throw new BadRequestException("O usuário deve ser um médico");
+            }
+        }
+    }
+
+    private Duration toDuration(LocalTime duration) {
+        if (duration == null || duration.equals(LocalTime.MIDNIGHT)) {
+            throw new BadRequestException("A duração da consulta deve ser maior que zero");
+        }
+        return Duration.ofSeconds(duration.toSecondOfDay());
+    }
+}
@@ -0,0 +1,142 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationCompletionService;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationEventPublisher;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.JobCheckpointLock;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.JobCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Marca como COMPLETED as consultas ativas cuja data final já passou. Trabalha em lotes
+ * ordenados por (finalDate, id): cada lote é um UPDATE por ids e a gravação do checkpoint,
+ * na mesma transação curta. Só as linhas que o UPDATE de fato alterou são publicadas: uma
+ * consulta cancelada ou remarcada entre a leitura e o UPDATE fica de fora. A publicação é
+ * feita dentro da transação, para que as versões das listagens subam junto com o UPDATE;
+ * os eventos do lote vão ao Kafka depois do commit, de uma vez.
+ * <p>
+ * Cada lote trava a linha do job em {@code job_checkpoint}: com vários nós, o segundo
+ * espera o lote do primeiro e continua do checkpoint que ele gravou, sem reler nem
+ * republicar as mesmas consultas.
+ */
+@Slf4j
+@Service
+public class ConsultationCompletionServiceImpl implements ConsultationCompletionService {
+
+    static final String JOB_NAME = "consultation-completion";
+
+    private final ConsultationRepository consultationRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final ConsultationEventPublisher consultationEventPublisher;
+    private final EntityManager entityManager;
+    private final JobCheckpointLock jobCheckpointLock;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter completedCounter;
+    private final int chunkSize;
+
+    public ConsultationCompletionServiceImpl(ConsultationRepository consultationRepository,
+                                             JobCheckpointRepository jobCheckpointRepository,
+                                             ConsultationEventPublisher consultationEventPublisher,
+                                             EntityManager entityManager,
+                                             JobCheckpointLock jobCheckpointLock,
+                                             PlatformTransactionManager transactionManager,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${consultation.completion.chunk-size:500}") int chunkSize) {
+        this.consultationRepository = consultationRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.consultationEventPublisher = consultationEventPublisher;
+        this.entityManager = entityManager;
+        this.jobCheckpointLock = jobCheckpointLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completedCounter = Counter.builder("consultation.completion.completed")
+                .description("Consultas marcadas como concluídas pelo job")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    @Scheduled(cron = "${consultation.completion.cron:0 */5 * * * *}")
+    public int completeFinished() {
+        var until = LocalDateTime.now();
+        jobCheckpointLock.seed(JOB_NAME);
+        int completed = 0;
+        Chunk chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> completeChunk(until));
+            completedCounter.increment(chunk.completed().size());
+            completed += chunk.completed().size();
+        } while (chunk.read() == chunkSize);
+
+        if (completed > 0) {
+            log.info("{} consultas marcadas como concluídas", completed);
+        }
+        return completed;
+    }
+
+    private Chunk completeChunk(LocalDateTime until) {
+        var checkpoint = jobCheckpointLock.lock(JOB_NAME);
+        var chunk = consultationRepository.findFinishedAfter(until, checkpoint.getPosition(), checkpoint.getLastId(), Limit.of(chunkSize));
+        if (chunk.isEmpty()) {
+            return new Chunk(0, List.of());
+        }
+
+        // Na precisão da coluna, para a releitura por updatedAt encontrar exatamente o que foi gravado
+        var now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        var ids = chunk.stream().map(Consultation::getId).toList();
+        var updated = consultationRepository.updateActiveStatus(ids, ConsultationStatusEnum.COMPLETED, now);
+        var updatedIds = updated == ids.size()
+                ? Set.copyOf(ids)
+                : consultationRepository.findIdsUpdatedTo(ids, ConsultationStatusEnum.COMPLETED, now);
+
+        // O UPDATE em massa não passa pelo contexto; as cópias desanexadas viram o estado publicado
+        chunk.forEach(entityManager::detach);
+        var completed = chunk.stream()
+                .filter(consultation -> updatedIds.contains(consultation.getId()))
+                .toList();
+        completed.forEach(consultation -> {
+            consultation.setStatus(ConsultationStatusEnum.COMPLETED);
+            consultation.setUpdatedAt(now);
+        });
+        if (completed.size() < chunk.size()) {
+            log.info("{} consultas do lote mudaram antes da conclusão e foram ignoradas", chunk.size() - completed.size());
+        }
+
+        var last = chunk.getLast();
+        checkpoint.advance(last.getFinalDate(), last.getId());
+        jobCheckpointRepository.save(checkpoint);
+        publish(completed);
+        return new Chunk(chunk.size(), completed);
+    }
+
+    private void publish(List<Consultation> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            consultationEventPublisher.publishAll(chunk);
+        } catch (JsonProcessingException ex) {
+            log.error("Erro ao publicar a conclusão de {} consultas", chunk.size(), ex);
+        }
+    }
+
+    private record Chunk(int read, List<Consultation> completed) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationExportService;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationExportFilter;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationExportQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exporta as consultas em NDJSON (um objeto JSON por linha), escrevendo cada linha
+ * assim que ela sai do cursor do banco. Nenhuma lista é montada em memória.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConsultationExportServiceImpl implements ConsultationExportService {
+
+    private static final int NEW_LINE = '\n';
+
+    private final ConsultationExportQuery consultationExportQuery;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(ConsultationExportFilter filter, OutputStream outputStream) throws IOException {
+        log.info("Exportando consultas - filtros: {}", filter);
+        var output = new BufferedOutputStream(outputStream);
+        long exported = 0;
+
+        try (var consultations = consultationExportQuery.stream(filter)) {
+            var iterator = consultations.iterator();
+            while (iterator.hasNext()) {
+                var consultation = iterator.next();
+                output.write(objectMapper.writeValueAsBytes(ConsultationResponse.fromEntity(consultation)));
+                output.write(NEW_LINE);
+                // Libera a entidade do contexto de persistência para o heap não crescer com a exportação
+                consultationExportQuery.detach(consultation);
+                exported++;
+            }
+        }
+
+        output.flush();
+        log.info("Exportação concluída com {} consultas", exported);
+        return exported;
+    }
+}
@@ -1,57 +1,164 @@
 package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationChangeKafkaRequest;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSeriesRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationUpdateRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationBatchItemResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationPageResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationService;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationEventPublisher;
 import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
 import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationSnapshotCache;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersion;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.DailyAgendaCache;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.idempotency.IdempotencyStore;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicScheduleIndex;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicSlotCalendar;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.ScheduledSlot;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.MedicBookingLocks;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.OptimisticLockRetry;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationCursor;
 import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationScheduleConstraint;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationSpecifications;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView;
 import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
 import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestException;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.application.service.UserService;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class ConsultationServiceImpl implements ConsultationService {
 
+    private static final int BATCH_MAX_SIZE = 500;
+    private static final int SERIES_MAX_OCCURRENCES = 104;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final Sort SEARCH_DEFAULT_SORT = Sort.by("startDate", "id");
+    private static final String SCHEDULE_CONFLICT_MESSAGE = "Esse médico possui uma consulta nessa data e horario";
+
     private final ConsultationRepository consultationRepository;
     private final UserService userService;
+    private final MedicScheduleIndex medicScheduleIndex;
+    private final MedicSlotCalendar medicSlotCalendar;
+    private final MedicBookingLocks medicBookingLocks;
+    private final ConsultationSnapshotCache consultationSnapshotCache;
+    private final DailyAgendaCache dailyAgendaCache;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final ConsultationEventPublisher consultationEventPublisher;
+    private final IdempotencyStore idempotencyStore;
 
     @Override
-    public List<ConsultationResponse> findAll() {
-        return consultationRepository
-                .findAll()
-                .stream()
-                .sorted((consultation1, consultation2) -> consultation1.getStartDate().compareTo(consultation2.getStartDate()))
-                .map(ConsultationResponse::fromEntity)
-                .toList();
-    }
+    public ConsultationPageResponse findAll(String cursor, Integer size) {
+        var pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("O tamanho da página deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
 
-    @Override
-    public List<ConsultationResponse> findAllByDate(LocalDate date) {
-        if (date == null) {
-            date = LocalDate.now();
+        // Busca um item a mais para saber se existe próxima página sem precisar de count
+        var limit = Limit.of(pageSize + 1);
+        List<ConsultationView> consultations;
+        if (cursor == null || cursor.isBlank()) {
+            consultations = consultationRepository.findFirstPage(limit);
+        } else {
+            var position = ConsultationCursor.decode(cursor);
+            consultations = consultationRepository.findPageAfter(position.startDate(), position.id(), limit);
         }
 
+        var hasNext = consultations.size() > pageSize;
+        var page = hasNext ? consultations.subList(0, pageSize) : consultations;
+        var nextCursor = hasNext ? ConsultationCursor.after(page.getLast()).encode() : null;
+
+        return new ConsultationPageResponse(page.stream().map(ConsultationResponse::fromView).toList(), nextCursor);
+    }
+
+    // A versão é a mesma já lida para a ETag: a agenda materializada não consulta o banco de novo
+    @Override
+    public List<ConsultationResponse> findAllByDate(LocalDate date, ConsultationVersion version) {
         var startDate = date.atStartOfDay();
         var finalDate = date.atTime(LocalTime.MAX);
 
-        return consultationRepository.findAllByDate(startDate, finalDate)
+        // Hoje e amanhã vêm da agenda materializada; outras datas vão ao banco
+        return dailyAgendaCache.find(date, version).orElseGet(() -> consultationRepository.findAllByDate(startDate, finalDate)
                 .stream()
-                .map(ConsultationResponse::fromEntity)
-                .toList();
+                .map(ConsultationResponse::fromView)
+                .toList());
+    }
+
+    @Override
+    public ConsultationResponse findById(UUID id) {
+        return consultationSnapshotCache.get(id, key -> consultationRepository.findViewById(key)
+                .map(ConsultationResponse::fromView)
+                .orElseThrow(() -> new BadRequestException("Consulta não encontrada")));
+    }
+
+    @Override
+    public Page<ConsultationResponse> search(ConsultationSearchRequest searchRequest, Pageable pageable) {
+        var search = searchRequest == null ? new ConsultationSearchRequest(null, null, null, null) : searchRequest;
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new BadRequestException("O tamanho da página deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
+
+        // Sem ordenação explícita, segue a mesma ordem dos índices (start_date)
+        var page = pageable.getSort().isSorted()
+                ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), SEARCH_DEFAULT_SORT);
+
+        return consultationRepository.findAll(ConsultationSpecifications.matching(search), page)
+                .map(ConsultationResponse::fromEntity);
+    }
+
+    // Repetições com a mesma chave devolvem a resposta gravada sem verificar conflito nem gravar de novo
+    @Override
+    public ConsultationResponse create(ConsultationRequest consultationRequest, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return create(consultationRequest);
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException("A chave de idempotência deve ter no máximo " + MAX_IDEMPOTENCY_KEY_LENGTH + " caracteres");
+        }
+
+        var user = SecurityContextHolder.getContext().getAuthentication().getName();
+        return idempotencyStore.execute(user, idempotencyKey, consultationRequest, ConsultationResponse.class,
+                () -> create(consultationRequest));
     }
 
     @Override
@@ -60,27 +167,20 @@ public class ConsultationServiceImpl implements ConsultationService {
             throw new BadRequestException("A data de inicio da consulta deve ser futura");
         }
 
-        var finalDate = consultationRequest.startDate().plusHours(consultationRequest.timeDuration().getHour())
-                .plusMinutes(consultationRequest.timeDuration().getMinute());
+        var finalDate = finalDateOf(consultationRequest);
 
-        var patient = userService.findByIdUsers(consultationRequest.patientId());
-        var medic = userService.findByIdUsers(consultationRequest.medicId());
-        if (!medic.getTypeUserRole().name().equals("MEDIC")) {
+        // Médico e paciente vêm na mesma consulta ao banco
+        var users = userService.findRequiredActiveUsers(
+                Stream.of(consultationRequest.medicId(), consultationRequest.patientId()).collect(Collectors.toSet()));
+        var patient = users.get(consultationRequest.patientId());
+        var medic = users.get(consultationRequest.medicId());
+        if (medic.getTypeUserRole() != TypeUserEnum.MEDIC) {
             throw new BadRequestException("O usuário deve ser um médico");
         }
         if (medic.getId().equals(patient.getId())) {
             throw new BadRequestException("O médico não pode ser o mesmo que o paciente");
         }
 
-        // Verifica conflito de datas
-        if(consultationRepository.findConflictingConsultation(
-                medic.getId(),
-                consultationRequest.startDate(),
-                finalDate
-        ).isPresent()) {
-            throw new ConflictRequestException("Esse médico possui uma consulta nessa data e horario");
-        }
-
         var consultation = Consultation.create(
                 medic,
                 patient,
@@ -89,68 +189,203 @@ public class ConsultationServiceImpl implements ConsultationService {
                 consultationRequest.description()
         );
 
-        return ConsultationResponse.fromEntity(consultationRepository.save(consultation));
+        return ConsultationResponse.fromEntity(scheduleWithoutConflict(consultation));
     }
 
     @Override
-    public ConsultationResponse update(UUID id, ConsultationRequest consultationRequest) {
-        var consultation = consultationRepository.findById(id);
-        if (consultation.isEmpty()) {
-            throw new BadRequestException("Consulta não encontrada");
+    public List<ConsultationBatchItemResponse> createBatch(List<ConsultationRequest> consultationRequests) {
+        if (consultationRequests == null || consultationRequests.isEmpty()) {
+            throw new BadRequestException("Informe ao menos uma consulta");
         }
-        if (consultation.get().getStatus() == ConsultationStatusEnum.CANCELLED || consultation.get().getStatus() == ConsultationStatusEnum.CONFIRMED) {
-            throw new BadRequestException("Não é possível alterar uma consulta que já foi confirmada ou cancelada");
+        if (consultationRequests.size() > BATCH_MAX_SIZE) {
+            throw new BadRequestException("O lote deve ter no máximo " + BATCH_MAX_SIZE + " consultas");
         }
 
-        verifyChanges(consultation.get(), consultationRequest);
+        // Uma única consulta para todos os médicos e pacientes do lote
+        var users = userService.findActiveUsersByIds(consultationRequests.stream()
+                .filter(Objects::nonNull)
+                .flatMap(request -> Stream.of(request.medicId(), request.patientId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
 
-        var patient = userService.findByIdUsers(consultationRequest.patientId());
-        var medic = userService.findByIdUsers(consultationRequest.medicId());
-        if (!medic.getTypeUserRole().name().equals("MEDIC")) {
-            throw new BadRequestException("O usuário deve ser um médico");
+        var results = new ConsultationBatchItemResponse[consultationRequests.size()];
+        var candidates = new ArrayList<BatchCandidate>();
+        for (int i = 0; i < consultationRequests.size(); i++) {
+            try {
+                candidates.add(new BatchCandidate(i, prepareBatchItem(consultationRequests.get(i), users)));
+            } catch (BadRequestException ex) {
+                results[i] = ConsultationBatchItemResponse.invalid(i, ex.getMessage());
+            }
         }
-        if (medic.getId().equals(patient.getId())) {
-            throw new BadRequestException("O médico não pode ser o mesmo que o paciente");
+
+        // Janela do lote por médico: uma busca por intervalo cobre todos os itens dele
+        var windows = new HashMap<UUID, BatchWindow>();
+        for (var candidate : candidates) {
+            var consultation = candidate.consultation();
+            windows.merge(consultation.getMedic().getId(),
+                    new BatchWindow(consultation.getStartDate(), consultation.getFinalDate()), BatchWindow::span);
         }
 
-        // Verifica conflito de datas
-        var conflict = consultationRepository.findConflictingConsultation(
-                medic.getId(),
-                consultationRequest.startDate(),
-                consultation.get().getFinalDate()
-        );
-        if(conflict.isPresent() && !conflict.get().getId().equals(id)) {
-            throw new ConflictRequestException("Esse médico possui uma consulta nessa data e horario");
+        var accepted = medicBookingLocks.withLocks(windows.keySet(), () -> {
+            var bookedByMedic = new HashMap<UUID, List<ScheduledSlot>>();
+            windows.forEach((medicId, window) -> bookedByMedic.put(medicId,
+                    consultationRepository.findActiveSlotsOfMedicBetween(medicId, window.from(), window.to())));
+
+            var acceptedCandidates = new ArrayList<BatchCandidate>();
+            var acceptedByMedic = new HashMap<UUID, List<Consultation>>();
+
+            for (var candidate : candidates) {
+                var consultation = candidate.consultation();
+                var medicId = consultation.getMedic().getId();
+                var sameBatch = acceptedByMedic.computeIfAbsent(medicId, id -> new ArrayList<>());
+
+                // Verifica conflito com a agenda gravada no banco e com os itens já aceitos do próprio lote
+                if (bookedByMedic.get(medicId).stream().anyMatch(slot -> slot.overlaps(consultation.getStartDate(), consultation.getFinalDate()))
+                        || sameBatch.stream().anyMatch(consultation::overlaps)) {
+                    results[candidate.index()] = ConsultationBatchItemResponse.conflict(candidate.index(), SCHEDULE_CONFLICT_MESSAGE);
+                    continue;
+                }
+
+                sameBatch.add(consultation);
+                acceptedCandidates.add(candidate);
+            }
+
+            // Itens recusados pela constraint foram gravados por outro nó no meio: viram conflito do próprio item
+            var rejected = saveAllReportingConflicts(acceptedCandidates.stream().map(BatchCandidate::consultation).toList());
+            for (var position : rejected) {
+                var index = acceptedCandidates.get(position).index();
+                results[index] = ConsultationBatchItemResponse.conflict(index, SCHEDULE_CONFLICT_MESSAGE);
+            }
+            return IntStream.range(0, acceptedCandidates.size())
+                    .filter(position -> !rejected.contains(position))
+                    .mapToObj(acceptedCandidates::get)
+                    .toList();
+        });
+
+        for (var candidate : accepted) {
+            results[candidate.index()] = ConsultationBatchItemResponse.created(
+                    candidate.index(), ConsultationResponse.fromEntity(candidate.consultation()));
         }
 
-        var consultationSave = Consultation.create(
-                consultation.get().getMedic(),
-                consultation.get().getPatient(),
-                consultation.get().getStartDate(),
-                consultation.get().getFinalDate(),
-                consultation.get().getDescription()
-        );
+        return List.of(results);
+    }
 
-        return ConsultationResponse.fromEntity(consultationRepository.save(consultationSave));
+    // Substituição completa: todos os campos já vêm validados, e a descrição ausente é apagada
+    @Override
+    public ConsultationResponse replace(UUID id, ConsultationRequest consultationRequest) {
+        return update(id, new ConsultationUpdateRequest(consultationRequest.medicId(), consultationRequest.patientId(),
+                consultationRequest.startDate(), consultationRequest.timeDuration(), consultationRequest.description()), true);
     }
 
     @Override
-    public ConsultationResponse confirm(UUID id) {
-        var user = SecurityContextHolder.getContext().getAuthentication().getName();
-        Users users = userService.findByEmailUsers(user);
+    public ConsultationResponse update(UUID id, ConsultationUpdateRequest consultationRequest) {
+        return update(id, consultationRequest, false);
+    }
+
+    /**
+     * Expande a série em memória, compara todas as ocorrências com a agenda do médico
+     * obtida em uma única busca por intervalo no banco e grava as aceitas em um único
+     * saveAll. A busca roda sob o lock do médico; entre nós, a constraint de exclusão
+     * continua sendo a garantia final, e a ocorrência que ela recusar volta como conflito
+     * sem derrubar as demais.
+     */
+    @Override
+    public List<ConsultationBatchItemResponse> createSeries(ConsultationSeriesRequest request) {
+        var startDates = expandSeries(request);
+        var users = userService.findActiveUsersByIds(Stream.of(request.medicId(), request.patientId()).collect(Collectors.toSet()));
+        var first = prepareBatchItem(new ConsultationRequest(
+                request.medicId(), request.patientId(), request.startDate(), request.timeDuration(), request.description()), users);
+        var duration = Duration.between(first.getStartDate(), first.getFinalDate());
+
+        var occurrences = startDates.stream()
+                .map(startDate -> Consultation.create(first.getMedic(), first.getPatient(),
+                        startDate, startDate.plus(duration), request.description()))
+                .toList();
+
+        var medicId = first.getMedic().getId();
+        var results = new ConsultationBatchItemResponse[occurrences.size()];
+        var accepted = medicBookingLocks.withLock(medicId, () -> {
+            var booked = consultationRepository.findActiveSlotsOfMedicBetween(medicId,
+                    occurrences.getFirst().getStartDate(), occurrences.getLast().getFinalDate());
+
+            // Varredura única nas duas listas ordenadas: o que termina antes de uma
+            // ocorrência começar também não alcança as seguintes
+            var acceptedIndexes = new ArrayList<Integer>();
+            var next = 0;
+            for (int i = 0; i < occurrences.size(); i++) {
+                var occurrence = occurrences.get(i);
+                while (next < booked.size() && !booked.get(next).finalDate().isAfter(occurrence.getStartDate())) {
+                    next++;
+                }
+                if (next < booked.size() && booked.get(next).startDate().isBefore(occurrence.getFinalDate())) {
+                    results[i] = ConsultationBatchItemResponse.conflict(i, SCHEDULE_CONFLICT_MESSAGE);
+                    continue;
+                }
+                acceptedIndexes.add(i);
+            }
+
+            var rejected = saveAllReportingConflicts(acceptedIndexes.stream().map(occurrences::get).toList());
+            for (var position : rejected) {
+                var index = acceptedIndexes.get(position);
+                results[index] = ConsultationBatchItemResponse.conflict(index, SCHEDULE_CONFLICT_MESSAGE);
+            }
+            return IntStream.range(0, acceptedIndexes.size())
+                    .filter(position -> !rejected.contains(position))
+                    .mapToObj(acceptedIndexes::get)
+                    .toList();
+        });
 
-        var consultation = consultationRepository.findById(id);
-        if (consultation.isEmpty()) {
-            throw new BadRequestException("Consulta não encontrada");
+        for (var index : accepted) {
+            results[index] = ConsultationBatchItemResponse.created(index, ConsultationResponse.fromEntity(occurrences.get(index)));
         }
-        if (!users.getId().equals(consultation.get().getPatient().getId())) {
-            throw new BadRequestException("Apenas o paciente pode confirmar uma consulta");
+
+        return List.of(results);
+    }
+
+    /**
+     * Altera a linha existente por dirty checking: o UPDATE leva só as colunas alteradas.
+     * O lock é do médico pedido ou, sem troca de médico, do que o índice conhece, sem ler a
+     * consulta antes; depois da leitura, já sob o lock, confere que é o médico certo.
+     */
+    private ConsultationResponse update(UUID id, ConsultationUpdateRequest consultationRequest, boolean replace) {
+        var medicId = consultationRequest.medicId() != null
+                ? consultationRequest.medicId()
+                : medicScheduleIndex.findMedicOf(id).orElse(null);
+
+        var attempt = updateLocked(id, consultationRequest, medicId, replace);
+        if (attempt.consultation() == null) {
+            // O médico mudou entre a escolha do lock e a leitura: refaz uma vez com o médico lido
+            attempt = updateLocked(id, consultationRequest, attempt.medicId(), replace);
         }
-        if (consultation.get().getStatus() == ConsultationStatusEnum.CANCELLED) {
-            throw new BadRequestException("Não é possível confirmar uma consulta cancelada");
+        if (attempt.consultation() == null) {
+            throw new ConflictRequestException("A consulta foi alterada por outra requisição, tente novamente");
         }
-        consultation.get().setStatus(ConsultationStatusEnum.CONFIRMED);
-        return ConsultationResponse.fromEntity(consultationRepository.save(consultation.get()));
+        return ConsultationResponse.fromEntity(attempt.consultation());
+    }
+
+    // Cada tentativa relê a consulta em transação própria; conflitos de versão são refeitos
+    @Override
+    public ConsultationResponse confirm(UUID id) {
+        var user = SecurityContextHolder.getContext().getAuthentication().getName();
+        Users users = userService.findByEmailUsers(user);
+
+        return optimisticLockRetry.inTransaction("confirm", () -> {
+            var consultation = consultationRepository.findById(id);
+            if (consultation.isEmpty()) {
+                throw new BadRequestException("Consulta não encontrada");
+            }
+            if (!users.getId().equals(consultation.get().getPatient().getId())) {
+                throw new BadRequestException("Apenas o paciente pode confirmar uma consulta");
+            }
+            if (consultation.get().getStatus() == ConsultationStatusEnum.CANCELLED) {
+                throw new BadRequestException("Não é possível confirmar uma consulta cancelada");
+            }
+            if (consultation.get().getStatus() == ConsultationStatusEnum.COMPLETED) {
+                throw new BadRequestException("Não é possível confirmar uma consulta concluída");
+            }
+            consultation.get().setStatus(ConsultationStatusEnum.CONFIRMED);
+            return ConsultationResponse.fromEntity(consultationRepository.save(consultation.get()));
+        });
     }
 
     @Override
@@ -158,34 +393,289 @@ public class ConsultationServiceImpl implements ConsultationService {
         var user = SecurityContextHolder.getContext().getAuthentication().getName();
         Users users = userService.findByEmailUsers(user);
 
-        var consultation = consultationRepository.findById(id);
-        if (consultation.isEmpty()) {
-            throw new BadRequestException("Consulta não encontrada");
+        optimisticLockRetry.inTransaction("cancel", () -> {
+            var consultation = consultationRepository.findById(id);
+            if (consultation.isEmpty()) {
+                throw new BadRequestException("Consulta não encontrada");
+            }
+            if (!users.getId().equals(consultation.get().getPatient().getId())) {
+                throw new BadRequestException("Apenas o paciente pode cancelar uma consulta");
+            }
+            if (consultation.get().getStatus() == ConsultationStatusEnum.COMPLETED) {
+                throw new BadRequestException("Não é possível cancelar uma consulta concluída");
+            }
+            consultation.get().setStatus(ConsultationStatusEnum.CANCELLED);
+            return consultationRepository.save(consultation.get());
+        });
+    }
+
+    // Verificação de conflito e gravação acontecem sob o lock do médico
+    private Consultation scheduleWithoutConflict(Consultation consultation) {
+        var medicId = consultation.getMedic().getId();
+        return medicBookingLocks.withLock(medicId, () -> {
+            if (hasConflict(medicId, consultation.getStartDate(), consultation.getFinalDate())) {
+                throw new ConflictRequestException(SCHEDULE_CONFLICT_MESSAGE);
+            }
+            return saveScheduled(consultation);
+        });
+    }
+
+    // Slots livres no calendário dispensam o índice; só os ocupados precisam da comparação exata
+    private boolean hasConflict(UUID medicId, LocalDateTime startDate, LocalDateTime finalDate) {
+        return !medicSlotCalendar.isFree(medicId, startDate, finalDate)
+                && medicScheduleIndex.findConflict(medicId, startDate, finalDate, null).isPresent();
+    }
+
+    /**
+     * O índice em memória evita a maioria dos conflitos; a constraint do banco é a garantia final.
+     * A gravação roda em transação para que a versão da listagem suba junto com o INSERT;
+     * o flush antecipa a violação da constraint para dentro do try.
+     */
+    private Consultation saveScheduled(Consultation consultation) {
+        try {
+            return transactionTemplate.execute(status -> {
+                var saved = consultationRepository.save(consultation);
+                consultationRepository.flush();
+                return saved;
+            });
+        } catch (DataAccessException ex) {
+            if (ConsultationScheduleConstraint.isViolatedBy(ex)) {
+                throw new ConflictRequestException(SCHEDULE_CONFLICT_MESSAGE, ex);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Grava as consultas em um único saveAll. Se a constraint do banco recusar o lote, outro
+     * nó gravou no meio: refaz item a item, cada um em transação própria, para que só os
+     * itens em conflito fiquem de fora. Devolve a posição, na lista, de cada item recusado.
+     */
+    private Set<Integer> saveAllReportingConflicts(List<Consultation> consultations) {
+        if (consultations.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                consultationRepository.saveAll(consultations);
+                consultationRepository.flush();
+            });
+            return Set.of();
+        } catch (DataAccessException ex) {
+            if (!ConsultationScheduleConstraint.isViolatedBy(ex)) {
+                throw ex;
+            }
+            log.warn("Lote de {} consultas recusado pela constraint de agenda, gravando item a item", consultations.size());
+        }
+
+        var rejected = new HashSet<Integer>();
+        for (int i = 0; i < consultations.size(); i++) {
+            var consultation = consultations.get(i);
+            // O persist desfeito deixou id e versão na entidade; sem eles a nova tentativa volta a ser um INSERT
+            consultation.setId(null);
+            consultation.setVersion(null);
+            try {
+                saveScheduled(consultation);
+            } catch (ConflictRequestException ex) {
+                rejected.add(i);
+            }
         }
-        if (!users.getId().equals(consultation.get().getPatient().getId())) {
-            throw new BadRequestException("Apenas o paciente pode cancelar uma consulta");
+        return rejected;
+    }
+
+    private Consultation prepareBatchItem(ConsultationRequest request, Map<UUID, Users> users) {
+        if (request == null || request.medicId() == null || request.patientId() == null
+                || request.startDate() == null || request.timeDuration() == null) {
+            throw new BadRequestException("Médico, paciente, data de inicio e duração são obrigatórios");
+        }
+        if (request.startDate().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("A data de inicio da consulta deve ser futura");
+        }
+
+        var patient = users.get(request.patientId());
+        var medic = users.get(request.medicId());
+        if (patient == null || medic == null) {
+            throw new BadRequestException("Usuário não encontrado");
+        }
+        if (medic.getTypeUserRole() != TypeUserEnum.MEDIC) {
+            throw new BadRequestException("O usuário deve ser um médico");
         }
-        consultation.get().setStatus(ConsultationStatusEnum.CANCELLED);
-        consultationRepository.save(consultation.get());
+        if (medic.getId().equals(patient.getId())) {
+            throw new BadRequestException("O médico não pode ser o mesmo que o paciente");
+        }
+
+        return Consultation.create(medic, patient, request.startDate(), finalDateOf(request), request.description());
     }
 
-    private void verifyChanges(Consultation consultation, ConsultationRequest consultationRequest) {
-        if (consultationRequest.startDate() != consultation.getStartDate()) {
-            consultation.setStartDate(consultationRequest.startDate());
+    private List<LocalDateTime> expandSeries(ConsultationSeriesRequest request) {
+        if (request.medicId() == null || request.patientId() == null
+                || request.startDate() == null || request.timeDuration() == null || request.frequency() == null) {
+            throw new BadRequestException("Médico, paciente, data de inicio, duração e frequência são obrigatórios");
         }
-        if (consultationRequest.startDate().plusHours(consultationRequest.timeDuration().getHour())
-                .plusMinutes(consultationRequest.timeDuration().getMinute()) != consultation.getFinalDate()) {
-            consultation.setFinalDate(consultationRequest.startDate().plusHours(consultationRequest.timeDuration().getHour())
-                .plusMinutes(consultationRequest.timeDuration().getMinute()));
+        if ((request.count() == null) == (request.until() == null)) {
+            throw new BadRequestException("Informe o número de ocorrências ou a data final da série, mas não ambos");
         }
-        if (!Objects.equals(consultationRequest.description(), consultation.getDescription())) {
-            consultation.setDescription(consultationRequest.description());
+        if (request.count() != null && (request.count() < 1 || request.count() > SERIES_MAX_OCCURRENCES)) {
+            throw new BadRequestException("A série deve ter entre 1 e " + SERIES_MAX_OCCURRENCES + " ocorrências");
         }
-        if (consultationRequest.medicId() != consultation.getMedic().getId()) {
-            consultation.setMedic(userService.findByIdUsers(consultationRequest.medicId()));
+        if (request.until() != null && request.until().isBefore(request.startDate().toLocalDate())) {
+            throw new BadRequestException("A data final da série deve ser igual ou posterior à data de inicio");
         }
-        if (consultationRequest.patientId() != consultation.getPatient().getId()) {
-            consultation.setPatient(userService.findByIdUsers(consultationRequest.patientId()));
+
+        var startDates = new ArrayList<LocalDateTime>();
+        var startDate = request.startDate();
+        while (request.count() != null ? startDates.size() < request.count() : !startDate.toLocalDate().isAfter(request.until())) {
+            if (startDates.size() == SERIES_MAX_OCCURRENCES) {
+                throw new BadRequestException("A série deve ter entre 1 e " + SERIES_MAX_OCCURRENCES + " ocorrências");
+            }
+            startDates.add(startDate);
+            startDate = startDate.plusWeeks(request.frequency().getIntervalWeeks());
+        }
+        return startDates;
+    }
+
+    private LocalDateTime finalDateOf(ConsultationRequest request) {
+        return request.startDate().plusHours(request.timeDuration().getHour())
+                .plusMinutes(request.timeDuration().getMinute());
+    }
+
+    private record BatchCandidate(int index, Consultation consultation) {
+    }
+
+    private record BatchWindow(LocalDateTime from, LocalDateTime to) {
+
+        BatchWindow span(BatchWindow other) {
+            return new BatchWindow(from.isBefore(other.from) ? from : other.from, to.isAfter(other.to) ? to : other.to);
+        }
+    }
+
+    // Sem consulta quando o médico lido não é o do lock; medicId diz qual lock tomar
+    private record UpdateAttempt(UUID medicId, Consultation consultation) {
+    }
+
+    private UpdateAttempt updateLocked(UUID id, ConsultationUpdateRequest request, UUID medicId, boolean replace) {
+        if (medicId == null) {
+            return applyUpdate(id, request, null, replace);
+        }
+        return medicBookingLocks.withLock(medicId, () -> applyUpdate(id, request, medicId, replace));
+    }
+
+    private UpdateAttempt applyUpdate(UUID id, ConsultationUpdateRequest request, UUID lockedMedicId, boolean replace) {
+        try {
+            return optimisticLockRetry.inTransaction("update", () -> {
+                var consultation = consultationRepository.findById(id)
+                        .orElseThrow(() -> new BadRequestException("Consulta não encontrada"));
+                if (consultation.getStatus() == ConsultationStatusEnum.CANCELLED || consultation.getStatus() == ConsultationStatusEnum.CONFIRMED
+                        || consultation.getStatus() == ConsultationStatusEnum.COMPLETED) {
+                    throw new BadRequestException("Não é possível alterar uma consulta que já foi confirmada, cancelada ou concluída");
+                }
+                var medicId = request.medicId() != null ? request.medicId() : consultation.getMedic().getId();
+                if (!medicId.equals(lockedMedicId)) {
+                    return new UpdateAttempt(medicId, null);
+                }
+
+                var previousDate = consultation.getStartDate().toLocalDate();
+                var change = applyChanges(consultation, request, replace);
+                if (change != null && (change.medicId() != null || change.startDate() != null || change.finalDate() != null)
+                        && medicScheduleIndex.findConflict(
+                                consultation.getMedic().getId(),
+                                consultation.getStartDate(),
+                                consultation.getFinalDate(),
+                                id
+                        ).isPresent()) {
+                    throw new ConflictRequestException(SCHEDULE_CONFLICT_MESSAGE);
+                }
+                if (change != null) {
+                    publishChanges(consultation, previousDate, change);
+                }
+                return new UpdateAttempt(medicId, consultation);
+            });
+        } catch (DataAccessException ex) {
+            if (ConsultationScheduleConstraint.isViolatedBy(ex)) {
+                throw new ConflictRequestException(SCHEDULE_CONFLICT_MESSAGE, ex);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Aplica na entidade gerenciada só o que difere do valor atual e devolve esses
+     * campos, ou {@code null} quando nada mudou. Usuários trocados vêm em uma só consulta.
+     * Na substituição, uma descrição nula também apaga a atual; o evento parcial não
+     * distingue esse caso, mas o evento completo publicado junto leva o estado novo.
+     */
+    private ConsultationChangeKafkaRequest applyChanges(Consultation consultation, ConsultationUpdateRequest request, boolean replace) {
+        UUID medicId = null;
+        UUID patientId = null;
+        LocalDateTime startDate = null;
+        LocalDateTime finalDate = null;
+        String description = null;
+
+        var medicChanged = request.medicId() != null && !request.medicId().equals(consultation.getMedic().getId());
+        var patientChanged = request.patientId() != null && !request.patientId().equals(consultation.getPatient().getId());
+        if (medicChanged || patientChanged) {
+            var users = userService.findRequiredActiveUsers(Stream.of(request.medicId(), request.patientId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+
+            if (medicChanged) {
+                var medic = users.get(request.medicId());
+                if (medic.getTypeUserRole() != TypeUserEnum.MEDIC) {
+                    throw new BadRequestException("O usuário deve ser um médico");
+                }
+                consultation.setMedic(medic);
+                medicId = medic.getId();
+            }
+            if (patientChanged) {
+                consultation.setPatient(users.get(request.patientId()));
+                patientId = request.patientId();
+            }
+        }
+        if (consultation.getMedic().getId().equals(consultation.getPatient().getId())) {
+            throw new BadRequestException("O médico não pode ser o mesmo que o paciente");
+        }
+
+        var newStartDate = request.startDate() != null ? request.startDate() : consultation.getStartDate();
+        var newFinalDate = request.timeDuration() != null
+                ? newStartDate.plusHours(request.timeDuration().getHour()).plusMinutes(request.timeDuration().getMinute())
+                : newStartDate.plus(Duration.between(consultation.getStartDate(), consultation.getFinalDate()));
+        if (!newStartDate.equals(consultation.getStartDate())) {
+            if (newStartDate.isBefore(LocalDateTime.now())) {
+                throw new BadRequestException("A data de inicio da consulta deve ser futura");
+            }
+            consultation.setStartDate(newStartDate);
+            startDate = newStartDate;
+        }
+        if (!newFinalDate.equals(consultation.getFinalDate())) {
+            consultation.setFinalDate(newFinalDate);
+            finalDate = newFinalDate;
+        }
+        var descriptionCleared = replace && request.description() == null && consultation.getDescription() != null;
+        if (descriptionCleared) {
+            consultation.setDescription(null);
+        }
+        if (request.description() != null && !request.description().equals(consultation.getDescription())) {
+            consultation.setDescription(request.description());
+            description = request.description();
+        }
+
+        if (medicId == null && patientId == null && startDate == null && finalDate == null && description == null && !descriptionCleared) {
+            return null;
+        }
+        return new ConsultationChangeKafkaRequest(consultation.getId(), null, medicId, patientId, startDate, finalDate, description);
+    }
+
+    /**
+     * Roda dentro da transação da tentativa: o flush antecipa o conflito de versão, que
+     * ainda cai no retry, e dá ao evento a versão nova. O envio fica para depois do commit,
+     * ainda sob o lock do médico, chaveado pelo id da consulta.
+     */
+    private void publishChanges(Consultation consultation, LocalDate previousDate, ConsultationChangeKafkaRequest change) {
+        consultationRepository.flush();
+        try {
+            consultationEventPublisher.publishChanges(consultation, previousDate, change.withVersion(consultation.getVersion()));
+        } catch (JsonProcessingException ex) {
+            log.error("Erro ao publicar a alteração da consulta {}", consultation.getId(), ex);
         }
     }
 }
\ No newline at end of file
@@ -22,6 +22,12 @@ public class kafkaSchedulingConfig {
     @Value("${kafka.producer.scheduling}")
     private String schedulingTopic;
 
+    @Value("${kafka.producer.reminder}")
+    private String reminderTopic;
+
+    @Value("${kafka.producer.change}")
+    private String changeTopic;
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
         Map<String, Object> producerProperties = kafkaProperties.buildProducerProperties();
@@ -42,4 +48,22 @@ public class kafkaSchedulingConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic reminderTopic() {
+        return TopicBuilder
+                .name(reminderTopic)
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic changeTopic() {
+        return TopicBuilder
+                .name(changeTopic)
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
+
 }
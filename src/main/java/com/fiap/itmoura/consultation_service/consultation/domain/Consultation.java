@@ -11,13 +11,21 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
@@ -26,19 +34,36 @@ import java.util.UUID;
 
 
 @Entity
+@NamedEntityGraph(name = Consultation.WITH_PARTICIPANTS, attributeNodes = {
+        @NamedAttributeNode("medic"),
+        @NamedAttributeNode("patient")
+})
+@Table(indexes = {
+        @Index(name = "idx_consultation_start_date_id", columnList = "start_date, id"),
+        @Index(name = "idx_consultation_medic_start_date", columnList = "medic_id, start_date"),
+        @Index(name = "idx_consultation_patient_start_date", columnList = "patient_id, start_date"),
+        @Index(name = "idx_consultation_status_start_date", columnList = "status, start_date"),
+        @Index(name = "idx_consultation_status_final_date", columnList = "status, final_date, id")
+})
+@DynamicUpdate
 @Data
 public class Consultation {
 
+    /** Plano de busca que carrega médico e paciente na mesma query da consulta. */
+    public static final String WITH_PARTICIPANTS = "Consultation.withParticipants";
+
     @Id
     @GeneratedValue
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "medic_id", nullable = false)
+    @ToString.Exclude
     private Users medic;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
+    @ToString.Exclude
     private Users patient;
 
     @Column(nullable = false)
@@ -60,6 +85,11 @@ public class Consultation {
     @Column
     private String description;
 
+    // Default no DDL para o ddl-auto preencher as linhas que já existiam
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column
     @CreatedDate
     @JsonDeserialize(using = LocalDateTimeDeserializer.class)
@@ -97,4 +127,8 @@ public class Consultation {
         return consultation;
     }
 
+    public boolean overlaps(Consultation other) {
+        return startDate.isBefore(other.getFinalDate()) && finalDate.isAfter(other.getStartDate());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.fiap.itmoura.consultation_service.consultation.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reserva de um lembrete já enviado. A chave junta consulta, tipo e data de início, então
+ * cada lembrete sai uma vez por horário marcado: entre nós, só quem grava a linha envia,
+ * e uma consulta remarcada ganha lembretes novos.
+ */
+@Entity
+@Table(name = "consultation_reminder_claim", indexes = {
+        @Index(name = "idx_consultation_reminder_claim_start_date", columnList = "start_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultationReminderClaim {
+
+    // {consultationId}:{tipo}:{startDate}
+    @Id
+    @Column(name = "reminder_key", length = 100)
+    private String key;
+
+    @Column(nullable = false)
+    private LocalDateTime startDate;
+
+    @Column(nullable = false)
+    private LocalDateTime claimedAt;
+}
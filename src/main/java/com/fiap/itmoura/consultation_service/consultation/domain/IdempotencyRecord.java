@@ -0,0 +1,50 @@
+package com.fiap.itmoura.consultation_service.consultation.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resposta gravada para uma chave de idempotência. Enquanto {@code response} é nulo a
+ * requisição original ainda está em andamento em algum nó.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    // SHA-256 em Base64 URL do usuário + chave enviada pelo cliente
+    @Id
+    @Column(name = "idempotency_key", length = 43)
+    private String key;
+
+    @Column(nullable = false, length = 43)
+    private String requestHash;
+
+    @Column
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public boolean isCompleted() {
+        return response != null;
+    }
+}
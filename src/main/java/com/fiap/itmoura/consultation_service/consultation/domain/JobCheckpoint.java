@@ -0,0 +1,47 @@
+package com.fiap.itmoura.consultation_service.consultation.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Última posição processada por um job em lotes, gravada na mesma transação de cada lote
+ * para que uma nova execução continue de onde a anterior parou.
+ */
+@Entity
+@Table(name = "job_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime position;
+
+    @Column(nullable = false)
+    private UUID lastId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static JobCheckpoint start(String name) {
+        return new JobCheckpoint(name, LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0, 0), LocalDateTime.now());
+    }
+
+    public void advance(LocalDateTime position, UUID lastId) {
+        this.position = position;
+        this.lastId = lastId;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,13 @@
+package com.fiap.itmoura.consultation_service.consultation.domain.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ConsultationRecurrenceEnum {
+    WEEKLY(1),
+    BIWEEKLY(2);
+
+    private final int intervalWeeks;
+}
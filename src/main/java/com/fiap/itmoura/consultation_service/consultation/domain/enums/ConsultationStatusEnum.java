@@ -12,4 +12,8 @@ public enum ConsultationStatusEnum {
     COMPLETED("COMPLETED");
 
     private final String status;
+
+    public boolean isActive() {
+        return this == SCHEDULED || this == CONFIRMED;
+    }
 }
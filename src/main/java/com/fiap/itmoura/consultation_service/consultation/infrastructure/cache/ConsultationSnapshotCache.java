@@ -0,0 +1,93 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationSaveListener;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cache local, limitado por tamanho e TTL, das respostas de consulta por id.
+ * <p>
+ * Cada resposta fica guardada com a versão do seu dia, lida antes de carregá-la. Toda
+ * leitura compara essa versão com a atual: uma gravação em qualquer nó, ou a alteração
+ * de um usuário, deixa a entrada para trás e ela é recarregada. O save feito neste nó,
+ * que chega depois do commit, só antecipa a remoção.
+ */
+@Component
+public class ConsultationSnapshotCache implements ConsultationSaveListener {
+
+    private final Cache<UUID, Snapshot> cache;
+    private final ConsultationRepository consultationRepository;
+    private final ConsultationVersions consultationVersions;
+
+    public ConsultationSnapshotCache(MeterRegistry meterRegistry,
+                                     ConsultationRepository consultationRepository,
+                                     ConsultationVersions consultationVersions,
+                                     @Value("${consultation.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${consultation.cache.ttl:5m}") Duration ttl) {
+        this.consultationRepository = consultationRepository;
+        this.consultationVersions = consultationVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "consultations");
+    }
+
+    public ConsultationResponse get(UUID id, Function<UUID, ConsultationResponse> loader) {
+        var snapshot = cache.getIfPresent(id);
+        if (snapshot != null && !snapshot.version().isOlderThan(consultationVersions.current(snapshot.date()))) {
+            return snapshot.response();
+        }
+
+        var startDate = consultationRepository.findStartDateById(id);
+        if (startDate.isEmpty()) {
+            cache.invalidate(id);
+            return loader.apply(id);
+        }
+
+        // Versão lida antes da resposta: uma gravação no meio só faz a próxima leitura recarregar
+        var date = startDate.get().toLocalDate();
+        var version = consultationVersions.current(date);
+        var response = loader.apply(id);
+        if (response.getStartDate() != null && response.getStartDate().toLocalDate().equals(date)) {
+            cache.put(id, new Snapshot(date, version, response));
+        } else {
+            // Remarcada para outro dia entre as duas leituras: a versão lida não vale para ela
+            cache.invalidate(id);
+        }
+        return response;
+    }
+
+    @Override
+    public void onConsultationSaved(Consultation consultation) {
+        var id = consultation.getId();
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private record Snapshot(LocalDate date, ConsultationVersion version, ConsultationResponse response) {
+    }
+}
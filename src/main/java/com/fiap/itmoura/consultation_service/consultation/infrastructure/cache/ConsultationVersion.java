@@ -0,0 +1,23 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.cache;
+
+/**
+ * Versão de uma listagem de consultas: a revisão das consultas (global ou de uma data) e a
+ * dos usuários, já que as respostas trazem nome e email de médico e paciente. O texto é o
+ * que entra na ETag.
+ */
+public record ConsultationVersion(long revision, long users) {
+
+    // Mais antiga em qualquer das partes: o que foi montado com ela pode não ter a alteração
+    public boolean isOlderThan(ConsultationVersion other) {
+        return revision < other.revision || users < other.users;
+    }
+
+    public ConsultationVersion withRevision(long revision) {
+        return new ConsultationVersion(revision, users);
+    }
+
+    @Override
+    public String toString() {
+        return revision + "." + users;
+    }
+}
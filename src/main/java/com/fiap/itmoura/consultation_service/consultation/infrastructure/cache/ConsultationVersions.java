@@ -0,0 +1,61 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.shared.infrastructure.version.ListingVersions;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versões das consultas, uma global e uma por data de início, usadas como ETag das
+ * listagens. São contadores em {@code listing_version}, incrementados na transação de
+ * cada gravação (save, alteração, jobs em massa, arquivamento), então uma alteração feita
+ * em qualquer nó muda a versão vista por todos. A leitura é uma busca pela PK dessas linhas
+ * e não passa pela tabela de consultas.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConsultationVersions {
+
+    static final String ALL = "consultation";
+
+    private final ListingVersions listingVersions;
+
+    public ConsultationVersion current() {
+        return read(ALL);
+    }
+
+    public ConsultationVersion current(LocalDate date) {
+        return read(nameOf(date));
+    }
+
+    /**
+     * Chamado dentro da transação que grava as consultas dessas datas; devolve a revisão
+     * que cada data terá quando ela fizer commit.
+     */
+    public Map<LocalDate, Long> touch(Collection<LocalDate> dates) {
+        var names = new ArrayList<String>(dates.size() + 1);
+        names.add(ALL);
+        dates.forEach(date -> names.add(nameOf(date)));
+        var revisions = listingVersions.touch(names);
+
+        var byDate = new HashMap<LocalDate, Long>();
+        dates.forEach(date -> byDate.put(date, revisions.get(nameOf(date))));
+        return byDate;
+    }
+
+    private ConsultationVersion read(String name) {
+        var revisions = listingVersions.current(List.of(name, UserVersions.NAME));
+        return new ConsultationVersion(revisions.get(name), revisions.get(UserVersions.NAME));
+    }
+
+    private static String nameOf(LocalDate date) {
+        return ALL + ":" + date;
+    }
+}
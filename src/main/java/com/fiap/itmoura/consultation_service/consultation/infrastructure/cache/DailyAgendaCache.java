@@ -0,0 +1,162 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationSaveListener;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agenda materializada de hoje e amanhã, já ordenada por data de início. Cada dia é
+ * uma lista imutável trocada por inteiro, guardada junto da versão do dia que ela reflete.
+ * <p>
+ * Gravações deste nó chegam pelo listener, depois do commit, e mudam só a consulta
+ * alterada; a revisão do commit vem junto, então o dia continua em dia sem ir ao banco.
+ * Quem lê passa a versão que já leu para a ETag: se ela for mais nova que a do dia, houve
+ * gravação em outro nó ou alteração de usuário, e só esse dia é relido.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class DailyAgendaCache implements ConsultationSaveListener {
+
+    private static final Comparator<ConsultationResponse> BY_START_DATE = Comparator
+            .comparing(ConsultationResponse::getStartDate)
+            .thenComparing(ConsultationResponse::getId);
+
+    private final ConsultationRepository consultationRepository;
+    private final ConsultationVersions consultationVersions;
+
+    private final Map<LocalDate, Agenda> agendas = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        rollOver();
+    }
+
+    @Scheduled(cron = "${consultation.agenda.rollover-cron:0 0 0 * * *}")
+    public void rollOver() {
+        rollOver(LocalDate.now());
+    }
+
+    synchronized void rollOver(LocalDate today) {
+        var days = List.of(today, today.plusDays(1));
+        agendas.keySet().removeIf(day -> !days.contains(day));
+        for (var day : days) {
+            agendas.computeIfAbsent(day, key -> load(key, consultationVersions.current(key)));
+        }
+        log.info("Agenda em cache para {} e {}", days.get(0), days.get(1));
+    }
+
+    public Optional<List<ConsultationResponse>> find(LocalDate date, ConsultationVersion version) {
+        var agenda = agendas.get(date);
+        if (agenda == null) {
+            return Optional.empty();
+        }
+
+        if (agenda.version().isOlderThan(version)) {
+            agenda = reload(date, version);
+        }
+        return Optional.ofNullable(agenda).map(Agenda::consultations);
+    }
+
+    @Override
+    public void onConsultationSaved(Consultation consultation) {
+        onConsultationSaved(consultation, Map.of());
+    }
+
+    @Override
+    public void onConsultationSaved(Consultation consultation, Map<LocalDate, Long> revisions) {
+        var id = consultation.getId();
+        if (id == null) {
+            return;
+        }
+
+        // Médico e paciente não carregados obrigam a recarregar os dias
+        var response = Hibernate.isInitialized(consultation.getMedic()) && Hibernate.isInitialized(consultation.getPatient())
+                ? ConsultationResponse.fromView(ConsultationView.of(consultation))
+                : null;
+        apply(id, response, revisions);
+    }
+
+    // Outra leitura pode ter recarregado o dia, ou a virada pode tê-lo descartado, enquanto esta esperava o lock
+    private synchronized Agenda reload(LocalDate day, ConsultationVersion version) {
+        var current = agendas.get(day);
+        if (current == null || !current.version().isOlderThan(version)) {
+            return current;
+        }
+
+        var reloaded = load(day, version);
+        agendas.put(day, reloaded);
+        return reloaded;
+    }
+
+    private synchronized void apply(UUID id, ConsultationResponse response, Map<LocalDate, Long> revisions) {
+        if (response == null) {
+            agendas.replaceAll((day, agenda) -> load(day, consultationVersions.current(day)));
+            return;
+        }
+
+        var day = response.getStartDate().toLocalDate();
+        agendas.replaceAll((cachedDay, agenda) -> {
+            var version = advance(agenda.version(), revisions.get(cachedDay));
+            var belongs = cachedDay.equals(day);
+            var present = agenda.consultations().stream().anyMatch(item -> item.getId().equals(id));
+            if (!belongs && !present) {
+                return version.equals(agenda.version()) ? agenda : new Agenda(version, agenda.consultations());
+            }
+
+            var updated = new ArrayList<>(agenda.consultations());
+            updated.removeIf(item -> item.getId().equals(id));
+            if (belongs) {
+                var position = Collections.binarySearch(updated, response, BY_START_DATE);
+                updated.add(position < 0 ? -position - 1 : position, response);
+            }
+            return new Agenda(version, List.copyOf(updated));
+        });
+    }
+
+    /**
+     * Só avança para a revisão do commit quando ela segue a do dia: uma revisão mais à
+     * frente significa que outro nó gravou no meio, e o dia fica com a versão antiga para
+     * a próxima leitura relê-lo. A mesma revisão volta quando um commit salva várias
+     * consultas do dia.
+     */
+    private static ConsultationVersion advance(ConsultationVersion version, Long revision) {
+        if (revision == null || revision != version.revision() + 1) {
+            return version;
+        }
+        return version.withRevision(revision);
+    }
+
+    private Agenda load(LocalDate day, ConsultationVersion version) {
+        var consultations = consultationRepository.findAllByDate(day.atStartOfDay(), day.atTime(LocalTime.MAX))
+                .stream()
+                .map(ConsultationResponse::fromView)
+                .toList();
+        return new Agenda(version, consultations);
+    }
+
+    private record Agenda(ConsultationVersion version, List<ConsultationResponse> consultations) {
+    }
+}
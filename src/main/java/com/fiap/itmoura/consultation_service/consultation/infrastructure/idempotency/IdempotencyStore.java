@@ -0,0 +1,277 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fiap.itmoura.consultation_service.consultation.domain.IdempotencyRecord;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.IdempotencyRecordRepository;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Guarda, por chave de idempotência, o hash da requisição e a resposta produzida.
+ * Repetições com a mesma chave recebem a resposta gravada sem executar a ação de novo.
+ * Duplicatas simultâneas no mesmo nó aguardam a execução em andamento; entre nós, a
+ * reserva da chave na tabela {@code idempotency_record} decide quem executa.
+ * A reserva vale só pelo lease, curto; se o nó que a fez cair no meio da execução,
+ * outra requisição assume a chave quando o lease vence. O TTL longo vale apenas
+ * para respostas gravadas.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    static final String IN_PROGRESS_MESSAGE = "Já existe uma requisição em andamento com essa chave de idempotência";
+    static final String KEY_REUSED_MESSAGE = "A chave de idempotência já foi usada com outra requisição";
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Completed> completed;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+    private final MeterRegistry meterRegistry;
+    private final Counter collapsedCounter;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${consultation.idempotency.maximum-size:10000}") long maximumSize,
+                            @Value("${consultation.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${consultation.idempotency.lease:30s}") Duration lease,
+                            @Value("${consultation.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            @Value("${consultation.idempotency.poll-interval:100ms}") Duration pollInterval) {
+        this.repository = repository;
+        this.objectMapper = replayMapper(objectMapper);
+        this.ttl = ttl;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.meterRegistry = meterRegistry;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency");
+        this.collapsedCounter = Counter.builder("consultation.idempotency.collapsed")
+                .description("Requisições duplicadas que aguardaram a execução em andamento")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(String principal, String idempotencyKey, Object request, Class<T> responseType, Supplier<T> action) {
+        var key = digest(principal + "\n" + idempotencyKey);
+        var requestHash = digest(toJson(request));
+
+        var stored = completed.getIfPresent(key);
+        if (stored != null) {
+            ensureSameRequest(stored.requestHash(), requestHash);
+            replayed("memory");
+            return responseType.cast(stored.response());
+        }
+
+        var mine = new InFlight(requestHash, new CompletableFuture<>());
+        var running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            ensureSameRequest(running.requestHash(), requestHash);
+            collapsedCounter.increment();
+            return responseType.cast(await(running.result()));
+        }
+
+        try {
+            var response = executeClaimed(key, requestHash, responseType, action);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            mine.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(cron = "${consultation.idempotency.purge-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        var removed = repository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("{} chaves de idempotência expiradas removidas", removed);
+        }
+    }
+
+    private <T> T executeClaimed(String key, String requestHash, Class<T> responseType, Supplier<T> action) {
+        var claim = claimOrAwait(key, requestHash);
+        if (claim.completed() != null) {
+            var response = fromJson(claim.completed().getResponse(), responseType);
+            completed.put(key, new Completed(requestHash, response));
+            replayed("database");
+            return response;
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            // Falhas não são gravadas: o cliente pode repetir com a mesma chave
+            repository.release(key, claim.claimedAt());
+            throw ex;
+        }
+
+        var json = toJson(response);
+        if (repository.complete(key, claim.claimedAt(), json, LocalDateTime.now().plus(ttl)) == 0) {
+            log.warn("Lease da chave de idempotência venceu antes da resposta; aumente consultation.idempotency.lease");
+        }
+        completed.put(key, new Completed(requestHash, response));
+        return response;
+    }
+
+    /**
+     * Reserva a chave para esta execução pelo tempo do lease; se outro nó já a reservou,
+     * espera até ele gravar a resposta e devolve o registro concluído. Uma reserva com o
+     * lease vencido foi abandonada e é assumida por esta requisição.
+     */
+    private Claim claimOrAwait(String key, String requestHash) {
+        var deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            // Na precisão da coluna: o instante da reserva identifica o dono em complete e release
+            var now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            try {
+                repository.claim(key, requestHash, now, now.plus(lease));
+                return new Claim(now, null);
+            } catch (DataIntegrityViolationException ex) {
+                log.debug("Chave de idempotência já reservada, consultando o registro existente");
+            }
+
+            var existing = repository.findById(key).orElse(null);
+            if (existing != null && existing.getExpiresAt().isBefore(now)) {
+                if (!existing.isCompleted()) {
+                    log.info("Reserva de chave de idempotência abandonada, assumindo a execução");
+                }
+                repository.deleteIfExpired(key, now);
+                continue;
+            }
+            if (existing != null) {
+                ensureSameRequest(existing.getRequestHash(), requestHash);
+                if (existing.isCompleted()) {
+                    return new Claim(null, existing);
+                }
+            }
+
+            if (System.nanoTime() > deadline) {
+                throw new ConflictRequestException(IN_PROGRESS_MESSAGE);
+            }
+            sleep(pollInterval);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new ConflictRequestException(IN_PROGRESS_MESSAGE, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictRequestException(IN_PROGRESS_MESSAGE, ex);
+        }
+    }
+
+    private void ensureSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new BadRequestException(KEY_REUSED_MESSAGE);
+        }
+    }
+
+    private void replayed(String source) {
+        Counter.builder("consultation.idempotency.replayed")
+                .description("Requisições respondidas com a resposta gravada para a chave")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Não foi possível serializar a requisição idempotente", ex);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Não foi possível ler a resposta gravada para a chave de idempotência", ex);
+        }
+    }
+
+    private static String digest(String value) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Campos READ_ONLY (datas de auditoria) precisam voltar na releitura; WRITE_ONLY continua fora do JSON
+    private static ObjectMapper replayMapper(ObjectMapper objectMapper) {
+        return objectMapper.copy().setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+            @Override
+            public JsonProperty.Access findPropertyAccess(Annotated annotated) {
+                var access = super.findPropertyAccess(annotated);
+                return access == JsonProperty.Access.READ_ONLY ? JsonProperty.Access.AUTO : access;
+            }
+        });
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictRequestException(IN_PROGRESS_MESSAGE, ex);
+        }
+    }
+
+    private record Completed(String requestHash, Object response) {
+    }
+
+    private record Claim(LocalDateTime claimedAt, IdempotencyRecord completed) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import java.time.LocalDateTime;
+
+public record FreeSlot(
+        LocalDateTime startDate,
+        LocalDateTime finalDate
+) {
+}
@@ -0,0 +1,172 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationSaveListener;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice em memória, por médico, das consultas ativas (SCHEDULED/CONFIRMED).
+ * Responde verificações de sobreposição sem ir ao banco; é carregado na subida
+ * da aplicação e mantido atualizado a cada {@code ConsultationRepository.save}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MedicScheduleIndex implements ConsultationSaveListener {
+
+    private static final Comparator<ScheduledSlot> BY_START_DATE = Comparator
+            .comparing(ScheduledSlot::startDate)
+            .thenComparing(ScheduledSlot::consultationId);
+
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final ConsultationRepository consultationRepository;
+
+    private final Map<UUID, MedicSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<UUID, ScheduledSlot> slotsById = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        schedules.clear();
+        slotsById.clear();
+
+        var slots = consultationRepository.findActiveSlotsEndingAfter(LocalDateTime.now());
+        slots.forEach(slot -> slotsById.compute(slot.consultationId(), (id, previous) -> replace(previous, slot)));
+
+        log.info("Índice de agenda dos médicos carregado com {} consultas ativas", slots.size());
+    }
+
+    public Optional<ScheduledSlot> findConflict(UUID medicId, LocalDateTime startDate, LocalDateTime finalDate, UUID ignoredConsultationId) {
+        var schedule = schedules.get(medicId);
+        if (schedule == null) {
+            return Optional.empty();
+        }
+        return schedule.findConflict(startDate, finalDate, ignoredConsultationId);
+    }
+
+    /** Médico da consulta ativa, quando ela está no índice. */
+    public Optional<UUID> findMedicOf(UUID consultationId) {
+        return Optional.ofNullable(slotsById.get(consultationId)).map(ScheduledSlot::medicId);
+    }
+
+    /** Consultas ativas do médico que tocam [from, to), em ordem de início. */
+    public List<ScheduledSlot> findBooked(UUID medicId, LocalDateTime from, LocalDateTime to) {
+        var schedule = schedules.get(medicId);
+        return schedule == null ? List.of() : schedule.findBetween(from, to);
+    }
+
+    /**
+     * Intervalos livres do médico dentro de [from, to) com pelo menos {@code minimum}
+     * de duração, calculados em uma única passada pelas consultas ordenadas.
+     */
+    public List<FreeSlot> findFreeSlots(UUID medicId, LocalDateTime from, LocalDateTime to, Duration minimum) {
+        var booked = findBooked(medicId, from, to);
+
+        var freeSlots = new ArrayList<FreeSlot>();
+        var cursor = from;
+        for (var slot : booked) {
+            if (!Duration.between(cursor, slot.startDate()).minus(minimum).isNegative()) {
+                freeSlots.add(new FreeSlot(cursor, slot.startDate()));
+            }
+            if (slot.finalDate().isAfter(cursor)) {
+                cursor = slot.finalDate();
+            }
+        }
+        if (!Duration.between(cursor, to).minus(minimum).isNegative()) {
+            freeSlots.add(new FreeSlot(cursor, to));
+        }
+        return freeSlots;
+    }
+
+    @Override
+    public void onConsultationSaved(Consultation consultation) {
+        if (consultation.getId() == null) {
+            return;
+        }
+
+        ScheduledSlot slot = null;
+        if (consultation.getStatus() != null && consultation.getStatus().isActive()) {
+            slot = new ScheduledSlot(
+                    consultation.getId(),
+                    consultation.getMedic().getId(),
+                    consultation.getStartDate(),
+                    consultation.getFinalDate()
+            );
+        }
+
+        var current = slot;
+        slotsById.compute(consultation.getId(), (id, previous) -> replace(previous, current));
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    private ScheduledSlot replace(ScheduledSlot previous, ScheduledSlot current) {
+        if (previous != null) {
+            schedules.get(previous.medicId()).remove(previous);
+        }
+        if (current != null) {
+            schedules.computeIfAbsent(current.medicId(), id -> new MedicSchedule()).add(current);
+        }
+        return current;
+    }
+
+    private static final class MedicSchedule {
+
+        private final NavigableSet<ScheduledSlot> slots = new ConcurrentSkipListSet<>(BY_START_DATE);
+        private final AtomicLong longestDurationSeconds = new AtomicLong();
+
+        void add(ScheduledSlot slot) {
+            var seconds = Duration.between(slot.startDate(), slot.finalDate()).toSeconds();
+            longestDurationSeconds.accumulateAndGet(seconds, Math::max);
+            slots.add(slot);
+        }
+
+        void remove(ScheduledSlot slot) {
+            slots.remove(slot);
+        }
+
+        List<ScheduledSlot> findBetween(LocalDateTime from, LocalDateTime to) {
+            var lowerBound = from.minusSeconds(longestDurationSeconds.get());
+            return slots.subSet(new ScheduledSlot(LOWEST_ID, null, lowerBound, lowerBound), true,
+                            new ScheduledSlot(LOWEST_ID, null, to, to), false)
+                    .stream()
+                    .filter(slot -> slot.overlaps(from, to))
+                    .toList();
+        }
+
+        Optional<ScheduledSlot> findConflict(LocalDateTime startDate, LocalDateTime finalDate, UUID ignoredConsultationId) {
+            // Nenhuma consulta que começa antes deste limite consegue alcançar startDate
+            var lowerBound = startDate.minusSeconds(longestDurationSeconds.get());
+            var candidates = slots.headSet(new ScheduledSlot(LOWEST_ID, null, finalDate, finalDate), false);
+
+            for (var slot : candidates.descendingSet()) {
+                if (!slot.startDate().isAfter(lowerBound)) {
+                    break;
+                }
+                if (slot.overlaps(startDate, finalDate) && !slot.consultationId().equals(ignoredConsultationId)) {
+                    return Optional.of(slot);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
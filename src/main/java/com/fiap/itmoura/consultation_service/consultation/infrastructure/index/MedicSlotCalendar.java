@@ -0,0 +1,283 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationSaveListener;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ocupação dos médicos em bitsets diários de slots de 5 minutos (288 bits por dia).
+ * As consultas ocupam os slots arredondando para fora, e {@link #isFree} também
+ * arredonda o intervalo consultado para fora, então um intervalo que o calendário dá
+ * como livre está livre de fato; quando há bits em comum, o {@link MedicScheduleIndex}
+ * dá a resposta exata. Já {@link #findFreeSlots} arredonda para dentro, para só
+ * devolver slots inteiros livres.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MedicSlotCalendar implements ConsultationSaveListener {
+
+    static final int SLOT_MINUTES = 5;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final int SLOT_SECONDS = SLOT_MINUTES * 60;
+    private static final int WORDS = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    private static final long[] EMPTY_DAY = new long[WORDS];
+
+    private final ConsultationRepository consultationRepository;
+
+    private final Map<UUID, Map<LocalDate, DayOccupancy>> calendars = new ConcurrentHashMap<>();
+    private final Map<UUID, ScheduledSlot> slotsById = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        calendars.clear();
+        slotsById.clear();
+
+        var slots = consultationRepository.findActiveSlotsEndingAfter(LocalDateTime.now());
+        slots.forEach(slot -> slotsById.compute(slot.consultationId(), (id, previous) -> replace(previous, slot)));
+
+        log.info("Calendário de ocupação dos médicos carregado com {} consultas ativas em {} dias",
+                slots.size(), calendars.values().stream().mapToInt(Map::size).sum());
+    }
+
+    /** Verdadeiro quando nenhum slot de [startDate, finalDate) está ocupado para o médico. */
+    public boolean isFree(UUID medicId, LocalDateTime startDate, LocalDateTime finalDate) {
+        var days = calendars.get(medicId);
+        if (days == null) {
+            return true;
+        }
+
+        for (var day = startDate.toLocalDate(); !day.isAfter(lastDay(finalDate)); day = day.plusDays(1)) {
+            var occupancy = days.get(day);
+            if (occupancy == null) {
+                continue;
+            }
+            var words = occupancy.words;
+            var from = floorSlot(startDate, day);
+            var to = ceilSlot(finalDate, day);
+            for (int index = from >>> 6; index < WORDS && index << 6 < to; index++) {
+                if ((words[index] & rangeMask(index, from, to)) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Intervalos livres de [from, to) com pelo menos {@code minimum} de duração,
+     * obtidos varrendo os bits de cada dia; os limites ficam alinhados aos slots.
+     */
+    public List<FreeSlot> findFreeSlots(UUID medicId, LocalDateTime from, LocalDateTime to, Duration minimum) {
+        var days = calendars.getOrDefault(medicId, Map.of());
+        var freeSlots = new ArrayList<FreeSlot>();
+
+        LocalDateTime runStart = null;
+        LocalDateTime runEnd = null;
+        for (var day = from.toLocalDate(); !day.isAfter(lastDay(to)); day = day.plusDays(1)) {
+            var occupancy = days.get(day);
+            var words = occupancy == null ? EMPTY_DAY : occupancy.words;
+            var first = day.equals(from.toLocalDate()) ? ceilSlot(from, day) : 0;
+            var last = day.equals(to.toLocalDate()) ? floorSlot(to, day) : SLOTS_PER_DAY;
+
+            var slot = first;
+            while (slot < last) {
+                var free = nextClearBit(words, slot, last);
+                if (free >= last) {
+                    break;
+                }
+                var busy = nextSetBit(words, free, last);
+                var start = timeOf(day, free);
+                // Livre até a meia-noite e livre desde a meia-noite: o mesmo intervalo
+                if (runEnd == null || !runEnd.equals(start)) {
+                    addIfLongEnough(freeSlots, runStart, runEnd, minimum);
+                    runStart = start;
+                }
+                runEnd = timeOf(day, busy);
+                slot = busy;
+            }
+        }
+        addIfLongEnough(freeSlots, runStart, runEnd, minimum);
+        return freeSlots;
+    }
+
+    @Override
+    public void onConsultationSaved(Consultation consultation) {
+        if (consultation.getId() == null) {
+            return;
+        }
+
+        ScheduledSlot slot = null;
+        if (consultation.getStatus() != null && consultation.getStatus().isActive()) {
+            slot = new ScheduledSlot(
+                    consultation.getId(),
+                    consultation.getMedic().getId(),
+                    consultation.getStartDate(),
+                    consultation.getFinalDate()
+            );
+        }
+
+        var current = slot;
+        slotsById.compute(consultation.getId(), (id, previous) -> replace(previous, current));
+    }
+
+    // Dias que já passaram não são mais consultados
+    @Scheduled(cron = "${consultation.calendar.rollover-cron:0 0 0 * * *}")
+    public void rollover() {
+        pruneBefore(LocalDate.now());
+    }
+
+    void pruneBefore(LocalDate today) {
+        var limit = today.atStartOfDay();
+        slotsById.values().removeIf(slot -> !slot.finalDate().isAfter(limit));
+        calendars.values().forEach(days -> days.keySet().removeIf(day -> day.isBefore(today)));
+    }
+
+    public int daysTracked() {
+        return calendars.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private ScheduledSlot replace(ScheduledSlot previous, ScheduledSlot current) {
+        if (previous != null) {
+            forEachDay(previous, (days, day) -> {
+                var occupancy = days.get(day);
+                if (occupancy != null) {
+                    occupancy.remove(previous, day);
+                }
+            });
+        }
+        if (current != null) {
+            forEachDay(current, (days, day) -> days.computeIfAbsent(day, d -> new DayOccupancy()).add(current, day));
+        }
+        return current;
+    }
+
+    private void forEachDay(ScheduledSlot slot, DayAction action) {
+        var days = calendars.computeIfAbsent(slot.medicId(), id -> new ConcurrentHashMap<>());
+        for (var day = slot.startDate().toLocalDate(); !day.isAfter(lastDay(slot.finalDate())); day = day.plusDays(1)) {
+            action.apply(days, day);
+        }
+    }
+
+    // Um intervalo que termina exatamente à meia-noite não ocupa o dia seguinte
+    private static LocalDate lastDay(LocalDateTime finalDate) {
+        return finalDate.minusNanos(1).toLocalDate();
+    }
+
+    private static int floorSlot(LocalDateTime time, LocalDate day) {
+        if (time.toLocalDate().isBefore(day)) {
+            return 0;
+        }
+        return time.toLocalTime().toSecondOfDay() / SLOT_SECONDS;
+    }
+
+    private static int ceilSlot(LocalDateTime time, LocalDate day) {
+        if (time.toLocalDate().isAfter(day)) {
+            return SLOTS_PER_DAY;
+        }
+        var seconds = time.toLocalTime().toSecondOfDay() + (time.getNano() > 0 ? 1 : 0);
+        return (seconds + SLOT_SECONDS - 1) / SLOT_SECONDS;
+    }
+
+    private static LocalDateTime timeOf(LocalDate day, int slot) {
+        return day.atStartOfDay().plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    // Bits da palavra {@code index} que caem em [from, to)
+    private static long rangeMask(int index, int from, int to) {
+        var low = Math.max(from - (index << 6), 0);
+        var high = Math.min(to - (index << 6), Long.SIZE);
+        if (low >= high) {
+            return 0L;
+        }
+        var mask = -1L << low;
+        return high == Long.SIZE ? mask : mask & ((1L << high) - 1);
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        for (int index = from >>> 6; index < WORDS && index << 6 < to; index++) {
+            words[index] |= rangeMask(index, from, to);
+        }
+    }
+
+    private static int nextSetBit(long[] words, int from, int limit) {
+        var index = from >>> 6;
+        var word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min(limit, (index << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++index >= WORDS || index << 6 >= limit) {
+                return limit;
+            }
+            word = words[index];
+        }
+    }
+
+    private static int nextClearBit(long[] words, int from, int limit) {
+        var index = from >>> 6;
+        var word = ~words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min(limit, (index << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++index >= WORDS || index << 6 >= limit) {
+                return limit;
+            }
+            word = ~words[index];
+        }
+    }
+
+    private static void addIfLongEnough(List<FreeSlot> freeSlots, LocalDateTime start, LocalDateTime end, Duration minimum) {
+        if (start != null && !Duration.between(start, end).minus(minimum).isNegative()) {
+            freeSlots.add(new FreeSlot(start, end));
+        }
+    }
+
+    @FunctionalInterface
+    private interface DayAction {
+        void apply(Map<LocalDate, DayOccupancy> days, LocalDate day);
+    }
+
+    /**
+     * Bits de um dia do médico. As escritas trocam o array inteiro, então as leituras
+     * não precisam de lock; as consultas do dia ficam guardadas para refazer os bits
+     * quando uma sai, já que duas consultas podem dividir o mesmo slot.
+     */
+    private static final class DayOccupancy {
+
+        private final List<ScheduledSlot> slots = new ArrayList<>();
+        private volatile long[] words = EMPTY_DAY;
+
+        synchronized void add(ScheduledSlot slot, LocalDate day) {
+            slots.add(slot);
+            var updated = words.clone();
+            setRange(updated, floorSlot(slot.startDate(), day), ceilSlot(slot.finalDate(), day));
+            words = updated;
+        }
+
+        synchronized void remove(ScheduledSlot slot, LocalDate day) {
+            slots.remove(slot);
+            var updated = new long[WORDS];
+            for (var remaining : slots) {
+                setRange(updated, floorSlot(remaining.startDate(), day), ceilSlot(remaining.finalDate(), day));
+            }
+            words = updated;
+        }
+    }
+}
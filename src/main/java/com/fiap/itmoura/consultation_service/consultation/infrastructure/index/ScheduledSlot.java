@@ -0,0 +1,16 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ScheduledSlot(
+        UUID consultationId,
+        UUID medicId,
+        LocalDateTime startDate,
+        LocalDateTime finalDate
+) {
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return startDate.isBefore(end) && finalDate.isAfter(start);
+    }
+}
@@ -0,0 +1,45 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.lock;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.JobCheckpoint;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.JobCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializa jobs agendados entre nós pela linha do job em {@code job_checkpoint}. A
+ * linha precisa existir antes do lock: sem ela o SELECT FOR UPDATE não trava nada e
+ * dois nós rodariam o mesmo lote. Por isso cada execução começa por {@link #seed},
+ * fora da transação do lote, e só então chama {@link #lock} dentro dela.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobCheckpointLock {
+
+    private final JobCheckpointRepository repository;
+
+    // Transação própria: uma PK duplicada não pode abortar a transação de quem chamou
+    public void seed(String name) {
+        if (repository.existsById(name)) {
+            return;
+        }
+
+        var start = JobCheckpoint.start(name);
+        try {
+            repository.seed(name, start.getPosition(), start.getLastId(), start.getUpdatedAt());
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Checkpoint do job {} já criado por outro nó", name);
+        }
+    }
+
+    /**
+     * Trava a linha do job até o fim da transação corrente; um segundo nó espera aqui
+     * e, ao entrar, lê o checkpoint já avançado por quem rodou antes.
+     */
+    public JobCheckpoint lock(String name) {
+        return repository.findForUpdate(name)
+                .orElseThrow(() -> new IllegalStateException("Checkpoint do job " + name + " não foi criado"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa agendamentos do mesmo médico sem bloquear os demais: cada médico cai
+ * em uma faixa fixa de locks, escolhida pelo hash do seu id.
+ */
+@Component
+public class MedicBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final Timer waitTimer;
+    private final Counter contendedCounter;
+
+    public MedicBookingLocks(MeterRegistry meterRegistry,
+                             @Value("${consultation.booking.lock-stripes:64}") int stripeCount) {
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        this.waitTimer = Timer.builder("consultation.booking.lock.wait")
+                .description("Tempo de espera pelo lock de agendamento do médico")
+                .register(meterRegistry);
+        this.contendedCounter = Counter.builder("consultation.booking.lock.contended")
+                .description("Aquisições do lock de agendamento que precisaram esperar")
+                .register(meterRegistry);
+    }
+
+    public <T> T withLock(UUID medicId, Supplier<T> action) {
+        var lock = stripes[stripeIndex(medicId)];
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adquire as faixas de vários médicos sempre em ordem crescente de índice,
+     * evitando deadlock entre lotes concorrentes.
+     */
+    public <T> T withLocks(Collection<UUID> medicIds, Supplier<T> action) {
+        var indexes = medicIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        for (var index : indexes) {
+            acquire(stripes[index]);
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    int stripeIndex(UUID medicId) {
+        var hash = medicId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        contendedCounter.increment();
+        var start = System.nanoTime();
+        lock.lock();
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
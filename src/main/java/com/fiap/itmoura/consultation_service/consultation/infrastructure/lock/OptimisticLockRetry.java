@@ -0,0 +1,81 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.lock;
+
+import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Executa um read-modify-write em transação própria e, se outra requisição gravou
+ * a mesma linha antes (conflito de @Version), relê e tenta de novo com backoff
+ * exponencial e jitter.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetry {
+
+    static final String CONFLICT_MESSAGE = "A consulta foi alterada por outra requisição, tente novamente";
+
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticLockRetry(MeterRegistry meterRegistry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${consultation.optimistic-lock.max-attempts:5}") int maxAttempts,
+                               @Value("${consultation.optimistic-lock.initial-backoff:10ms}") Duration initialBackoff,
+                               @Value("${consultation.optimistic-lock.max-backoff:200ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(1, initialBackoff.toMillis());
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoff.toMillis());
+    }
+
+    public <T> T inTransaction(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    counter("consultation.optimistic-lock.exhausted", "Operações que esgotaram as tentativas por conflito de versão", operation).increment();
+                    log.warn("Conflito de versão persistente em {} após {} tentativas", operation, attempt);
+                    throw new ConflictRequestException(CONFLICT_MESSAGE, ex);
+                }
+
+                counter("consultation.optimistic-lock.retries", "Tentativas refeitas após conflito de versão", operation).increment();
+                log.debug("Conflito de versão em {}, tentativa {} de {}", operation, attempt, maxAttempts);
+                backOff(attempt, ex);
+            }
+        }
+    }
+
+    // Full jitter: espera um valor aleatório até o teto exponencial da tentativa
+    private void backOff(int attempt, OptimisticLockingFailureException cause) {
+        var ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictRequestException(CONFLICT_MESSAGE, cause);
+        }
+    }
+
+    private Counter counter(String name, String description, String operation) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
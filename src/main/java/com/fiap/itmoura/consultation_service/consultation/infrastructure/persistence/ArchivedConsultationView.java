@@ -0,0 +1,23 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha da tabela de arquivo: a consulta como estava ao sair da tabela quente,
+ * com os participantes apenas por id.
+ */
+public record ArchivedConsultationView(
+        UUID id,
+        UUID medicId,
+        UUID patientId,
+        LocalDateTime startDate,
+        LocalDateTime finalDate,
+        ConsultationStatusEnum status,
+        String description,
+        LocalDateTime createdAt,
+        LocalDateTime archivedAt
+) {
+}
@@ -0,0 +1,36 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Filtro da busca no arquivo. O intervalo [from, to) é obrigatório e limitado para
+ * que a busca toque só as partições mensais necessárias.
+ */
+public record ConsultationArchiveFilter(
+        LocalDateTime from,
+        LocalDateTime to,
+        UUID medicId,
+        UUID patientId
+) {
+
+    public static final int MAX_RANGE_DAYS = 366;
+
+    public static ConsultationArchiveFilter of(LocalDate startDate, LocalDate endDate, UUID medicId, UUID patientId) {
+        if (startDate == null || endDate == null) {
+            throw new BadRequestException("As datas inicial e final são obrigatórias");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("A data final deve ser igual ou posterior à data inicial");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("O intervalo de busca no arquivo deve ter no máximo " + MAX_RANGE_DAYS + " dias");
+        }
+
+        return new ConsultationArchiveFilter(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), medicId, patientId);
+    }
+}
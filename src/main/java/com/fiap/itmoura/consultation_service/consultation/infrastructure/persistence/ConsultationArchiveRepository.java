@@ -0,0 +1,187 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabela de arquivo das consultas encerradas. No PostgreSQL é particionada por mês
+ * de {@code start_date} e as partições são criadas sob demanda antes de cada movimento;
+ * no H2, usado nos testes, é uma tabela comum com o mesmo layout.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ConsultationArchiveRepository implements CommandLineRunner {
+
+    public static final String TABLE = "consultation_archive";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final String SELECT_ARCHIVABLE = """
+        SELECT id, start_date FROM consultation
+        WHERE status IN (:statuses)
+          AND final_date < :cutoff
+        ORDER BY start_date, id
+        LIMIT :limit
+    """;
+
+    private static final String COPY_TO_ARCHIVE = """
+        INSERT INTO consultation_archive
+            (id, medic_id, patient_id, start_date, final_date, status, description, created_at, archived_at)
+        SELECT id, medic_id, patient_id, start_date, final_date, status, description, created_at, :archivedAt
+        FROM consultation
+        WHERE id IN (:ids)
+    """;
+
+    private static final String DELETE_FROM_HOT_TABLE = "DELETE FROM consultation WHERE id IN (:ids)";
+
+    private static final String SELECT_ARCHIVED = """
+        SELECT id, medic_id, patient_id, start_date, final_date, status, description, created_at, archived_at
+        FROM consultation_archive
+        WHERE start_date >= :from
+          AND start_date < :to
+    """;
+
+    private static final RowMapper<ArchivedConsultationView> VIEW_MAPPER = (rs, rowNum) -> new ArchivedConsultationView(
+            rs.getObject("id", UUID.class),
+            rs.getObject("medic_id", UUID.class),
+            rs.getObject("patient_id", UUID.class),
+            rs.getObject("start_date", LocalDateTime.class),
+            rs.getObject("final_date", LocalDateTime.class),
+            ConsultationStatusEnum.valueOf(rs.getString("status")),
+            rs.getString("description"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("archived_at", LocalDateTime.class)
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final Set<YearMonth> knownPartitions = ConcurrentHashMap.newKeySet();
+    private volatile boolean partitioned;
+
+    @Override
+    public void run(String... args) {
+        var database = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+
+        partitioned = "PostgreSQL".equals(database);
+        jdbcTemplate.getJdbcTemplate().execute("""
+            CREATE TABLE IF NOT EXISTS consultation_archive (
+                id UUID NOT NULL,
+                medic_id UUID NOT NULL,
+                patient_id UUID NOT NULL,
+                start_date TIMESTAMP NOT NULL,
+                final_date TIMESTAMP NOT NULL,
+                status VARCHAR(20) NOT NULL,
+                description VARCHAR(255),
+                created_at TIMESTAMP,
+                archived_at TIMESTAMP NOT NULL,
+                PRIMARY KEY (id, start_date)
+            )%s
+        """.formatted(partitioned ? " PARTITION BY RANGE (start_date)" : ""));
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS idx_consultation_archive_start_date ON consultation_archive (start_date, id)");
+        log.info("Tabela {} pronta ({})", TABLE, partitioned ? "particionada por mês" : "sem particionamento");
+    }
+
+    public List<ArchiveCandidate> findArchivable(LocalDateTime cutoff, Collection<ConsultationStatusEnum> statuses, int limit) {
+        var params = new MapSqlParameterSource()
+                .addValue("statuses", statuses.stream().map(Enum::name).toList())
+                .addValue("cutoff", cutoff)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SELECT_ARCHIVABLE, params, (rs, rowNum) -> new ArchiveCandidate(
+                rs.getObject("id", UUID.class),
+                rs.getObject("start_date", LocalDateTime.class)));
+    }
+
+    /**
+     * Copia as consultas para o arquivo e as remove da tabela quente. Deve rodar
+     * dentro de uma transação para que as duas instruções sejam atômicas.
+     */
+    public int moveToArchive(List<ArchiveCandidate> candidates, LocalDateTime archivedAt) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        ensurePartitions(candidates.stream().map(candidate -> YearMonth.from(candidate.startDate())).distinct().toList());
+
+        var params = new MapSqlParameterSource()
+                .addValue("ids", candidates.stream().map(ArchiveCandidate::id).toList())
+                .addValue("archivedAt", archivedAt);
+        jdbcTemplate.update(COPY_TO_ARCHIVE, params);
+        return jdbcTemplate.update(DELETE_FROM_HOT_TABLE, params);
+    }
+
+    public List<ArchivedConsultationView> find(ConsultationArchiveFilter filter, int offset, int limit) {
+        var sql = new StringBuilder(SELECT_ARCHIVED);
+        var params = new MapSqlParameterSource()
+                .addValue("from", filter.from())
+                .addValue("to", filter.to())
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        if (filter.medicId() != null) {
+            sql.append(" AND medic_id = :medicId");
+            params.addValue("medicId", filter.medicId());
+        }
+        if (filter.patientId() != null) {
+            sql.append(" AND patient_id = :patientId");
+            params.addValue("patientId", filter.patientId());
+        }
+        sql.append(" ORDER BY start_date, id LIMIT :limit OFFSET :offset");
+
+        return jdbcTemplate.query(sql.toString(), params, VIEW_MAPPER);
+    }
+
+    void ensurePartitions(Collection<YearMonth> months) {
+        if (!partitioned) {
+            return;
+        }
+
+        for (var month : months) {
+            if (knownPartitions.contains(month)) {
+                continue;
+            }
+            jdbcTemplate.getJdbcTemplate().execute("""
+                CREATE TABLE IF NOT EXISTS %s_%s PARTITION OF %s
+                FOR VALUES FROM ('%s') TO ('%s')
+            """.formatted(TABLE, month.format(PARTITION_SUFFIX), TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+            rememberPartition(month);
+            log.info("Partição {} de {} garantida", month, TABLE);
+        }
+    }
+
+    // O CREATE TABLE é transacional no PostgreSQL: só conta como criada depois do commit do lote
+    private void rememberPartition(YearMonth month) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    knownPartitions.add(month);
+                }
+            });
+        } else {
+            knownPartitions.add(month);
+        }
+    }
+
+    public record ArchiveCandidate(UUID id, LocalDateTime startDate) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição da paginação por keyset: a última consulta devolvida, na ordem (startDate, id).
+ * Vai para o cliente como um token opaco em Base64.
+ */
+public record ConsultationCursor(LocalDateTime startDate, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static ConsultationCursor after(ConsultationView consultation) {
+        return new ConsultationCursor(consultation.startDate(), consultation.id());
+    }
+
+    public String encode() {
+        var raw = startDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ConsultationCursor decode(String token) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = raw.indexOf(SEPARATOR);
+            return new ConsultationCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Cursor de paginação inválido", ex);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionais da exportação; {@code null} significa "sem filtro".
+ * O intervalo é [from, to), em dias inteiros.
+ */
+public record ConsultationExportFilter(
+        LocalDateTime from,
+        LocalDateTime to,
+        ConsultationStatusEnum status
+) {
+
+    public static ConsultationExportFilter of(LocalDate startDate, LocalDate endDate, ConsultationStatusEnum status) {
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new BadRequestException("A data final deve ser igual ou posterior à data inicial");
+        }
+
+        return new ConsultationExportFilter(
+                startDate == null ? null : startDate.atStartOfDay(),
+                endDate == null ? null : endDate.plusDays(1).atStartOfDay(),
+                status
+        );
+    }
+}
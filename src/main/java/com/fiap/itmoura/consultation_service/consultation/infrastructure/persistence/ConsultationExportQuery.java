@@ -0,0 +1,68 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Consulta de exportação: percorre as consultas com um cursor somente para frente,
+ * buscando {@code fetchSize} linhas por ida ao banco. Deve ser consumida dentro de
+ * uma transação e o {@link Stream} precisa ser fechado ao final.
+ */
+@Repository
+public class ConsultationExportQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${consultation.export.fetch-size:500}")
+    private int fetchSize;
+
+    public Stream<Consultation> stream(ConsultationExportFilter filter) {
+        var jpql = new StringBuilder("""
+            SELECT c FROM Consultation c
+            JOIN FETCH c.medic
+            JOIN FETCH c.patient
+            WHERE 1 = 1
+        """);
+        var conditions = new ArrayList<String>();
+        if (filter.from() != null) {
+            conditions.add("c.startDate >= :from");
+        }
+        if (filter.to() != null) {
+            conditions.add("c.startDate < :to");
+        }
+        if (filter.status() != null) {
+            conditions.add("c.status = :status");
+        }
+        conditions.forEach(condition -> jpql.append(" AND ").append(condition));
+        jpql.append(" ORDER BY c.startDate, c.id");
+
+        var query = entityManager.createQuery(jpql.toString(), Consultation.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (filter.from() != null) {
+            query.setParameter("from", filter.from());
+        }
+        if (filter.to() != null) {
+            query.setParameter("to", filter.to());
+        }
+        if (filter.status() != null) {
+            query.setParameter("status", filter.status());
+        }
+
+        return query.getResultStream();
+    }
+
+    public void detach(Consultation consultation) {
+        entityManager.detach(consultation.getMedic());
+        entityManager.detach(consultation.getPatient());
+        entityManager.detach(consultation);
+    }
+}
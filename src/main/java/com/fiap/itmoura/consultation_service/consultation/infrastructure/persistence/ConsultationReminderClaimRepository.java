@@ -0,0 +1,32 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.ConsultationReminderClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ConsultationReminderClaimRepository extends JpaRepository<ConsultationReminderClaim, String> {
+
+    /**
+     * Reserva o lembrete com um INSERT direto, commitado antes do envio: a PK garante que
+     * só um nó vence, e quem perde recebe {@code DataIntegrityViolationException}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO consultation_reminder_claim (reminder_key, start_date, claimed_at)
+        VALUES (:key, :startDate, :claimedAt)
+    """, nativeQuery = true)
+    void claim(String key, LocalDateTime startDate, LocalDateTime claimedAt);
+
+    // Consultas já iniciadas não recebem mais lembretes; suas reservas podem sair
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ConsultationReminderClaim r WHERE r.startDate < :before")
+    int deleteStartedBefore(LocalDateTime before);
+}
@@ -1,18 +1,41 @@
 package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
 
 import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.ScheduledSlot;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
-public interface ConsultationRepository extends JpaRepository<Consultation, UUID> {
+public interface ConsultationRepository extends JpaRepository<Consultation, UUID>, JpaSpecificationExecutor<Consultation> {
+
+    // Projeção das leituras de listagem: só as colunas da resposta, sem entidades gerenciadas
+    String VIEW_SELECT = """
+        SELECT new com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView(
+            c.id, c.startDate, c.finalDate, c.status, c.description,
+            m.id, m.name, m.email, m.typeUserRole, m.lastUpdatedAt, m.createdAt,
+            p.id, p.name, p.email, p.typeUserRole, p.lastUpdatedAt, p.createdAt
+        )
+        FROM Consultation c
+        JOIN c.medic m
+        JOIN c.patient p
+    """;
 
     @Query("""
         SELECT c FROM Consultation c
@@ -23,9 +46,103 @@ public interface ConsultationRepository extends JpaRepository<Consultation, UUID
     """)
     Optional<Consultation> findConflictingConsultation(UUID medicId, LocalDateTime startDate, LocalDateTime finalDate);
 
+    @Query(VIEW_SELECT + """
+        ORDER BY c.startDate, c.id
+    """)
+    List<ConsultationView> findFirstPage(Limit limit);
+
+    // Keyset: continua a partir da última linha vista, usando o índice (start_date, id)
+    @Query(VIEW_SELECT + """
+        WHERE c.startDate > :startDate
+           OR (c.startDate = :startDate AND c.id > :id)
+        ORDER BY c.startDate, c.id
+    """)
+    List<ConsultationView> findPageAfter(LocalDateTime startDate, UUID id, Limit limit);
+
+    @Override
+    @EntityGraph(Consultation.WITH_PARTICIPANTS)
+    Optional<Consultation> findById(UUID id);
+
+    @Query(VIEW_SELECT + """
+        WHERE c.id = :id
+    """)
+    Optional<ConsultationView> findViewById(UUID id);
+
+    // Só a data, pela PK: diz de qual dia é a versão a ler antes de carregar a consulta
     @Query("""
-        SELECT c FROM Consultation c
+        SELECT c.startDate FROM Consultation c
+        WHERE c.id = :id
+    """)
+    Optional<LocalDateTime> findStartDateById(UUID id);
+
+    @Override
+    @EntityGraph(Consultation.WITH_PARTICIPANTS)
+    Page<Consultation> findAll(Specification<Consultation> specification, Pageable pageable);
+
+    @Query(VIEW_SELECT + """
         WHERE c.startDate BETWEEN :startDate AND :finalDate
+        ORDER BY c.startDate, c.id
+    """)
+    List<ConsultationView> findAllByDate(LocalDateTime startDate, LocalDateTime finalDate);
+
+    @Query("""
+        SELECT new com.fiap.itmoura.consultation_service.consultation.infrastructure.index.ScheduledSlot(
+            c.id, c.medic.id, c.startDate, c.finalDate
+        )
+        FROM Consultation c
+        WHERE c.finalDate > :from
+          AND (c.status IN ('SCHEDULED', 'CONFIRMED'))
+    """)
+    List<ScheduledSlot> findActiveSlotsEndingAfter(LocalDateTime from);
+
+    // Agenda de um médico em um intervalo, para comparar várias consultas com uma só busca
+    @Query("""
+        SELECT new com.fiap.itmoura.consultation_service.consultation.infrastructure.index.ScheduledSlot(
+            c.id, c.medic.id, c.startDate, c.finalDate
+        )
+        FROM Consultation c
+        WHERE c.medic.id = :medicId
+          AND c.startDate < :to
+          AND c.finalDate > :from
+          AND (c.status IN ('SCHEDULED', 'CONFIRMED'))
+        ORDER BY c.startDate, c.id
+    """)
+    List<ScheduledSlot> findActiveSlotsOfMedicBetween(UUID medicId, LocalDateTime from, LocalDateTime to);
+
+    // Lembretes vencidos na roda: estado atual das consultas, pela PK
+    @Query(VIEW_SELECT + """
+        WHERE c.id IN :ids
+          AND c.status IN ('SCHEDULED', 'CONFIRMED')
+    """)
+    List<ConsultationView> findActiveViewsByIdIn(Collection<UUID> ids);
+
+    // Lote do job de conclusão: consultas ativas já encerradas, após o checkpoint (finalDate, id)
+    @Query("""
+        SELECT c FROM Consultation c
+        JOIN FETCH c.medic
+        JOIN FETCH c.patient
+        WHERE c.status IN ('SCHEDULED', 'CONFIRMED')
+          AND c.finalDate <= :until
+          AND (c.finalDate > :afterDate OR (c.finalDate = :afterDate AND c.id > :afterId))
+        ORDER BY c.finalDate, c.id
+    """)
+    List<Consultation> findFinishedAfter(LocalDateTime until, LocalDateTime afterDate, UUID afterId, Limit limit);
+
+    @Modifying
+    @Query("""
+        UPDATE Consultation c
+        SET c.status = :status, c.updatedAt = :updatedAt, c.version = c.version + 1
+        WHERE c.id IN :ids
+          AND c.status IN ('SCHEDULED', 'CONFIRMED')
+    """)
+    int updateActiveStatus(Collection<UUID> ids, ConsultationStatusEnum status, LocalDateTime updatedAt);
+
+    // Ids que o updateActiveStatus acabou de alterar na transação corrente; as linhas ficam travadas até o commit
+    @Query("""
+        SELECT c.id FROM Consultation c
+        WHERE c.id IN :ids
+          AND c.status = :status
+          AND c.updatedAt = :updatedAt
     """)
-    List<Consultation> findAllByDate(LocalDateTime startDate, LocalDateTime finalDate);
-}
\ No newline at end of file
+    Set<UUID> findIdsUpdatedTo(Collection<UUID> ids, ConsultationStatusEnum status, LocalDateTime updatedAt);
+}
@@ -0,0 +1,95 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Garante no banco que um médico não tenha duas consultas ativas sobrepostas.
+ * No PostgreSQL é uma exclusion constraint (btree_gist); no H2, usado nos testes,
+ * uma trigger com a mesma regra.
+ * <p>
+ * Entre nós, é a única garantia contra conflitos: sem ela a aplicação não sobe, a menos
+ * que {@code consultation.schedule-constraint.required} seja desligado explicitamente.
+ */
+@Slf4j
+@Component
+public class ConsultationScheduleConstraint implements CommandLineRunner {
+
+    public static final String NAME = "consultation_medic_no_overlap";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean required;
+
+    public ConsultationScheduleConstraint(JdbcTemplate jdbcTemplate,
+                                          @Value("${consultation.schedule-constraint.required:true}") boolean required) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.required = required;
+    }
+
+    @Override
+    public void run(String... args) {
+        var database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+
+        try {
+            switch (database) {
+                case "PostgreSQL" -> installExclusionConstraint();
+                case "H2" -> installH2Trigger();
+                default -> unavailable("Banco " + database + " sem suporte à constraint " + NAME, null);
+            }
+        } catch (DataAccessException ex) {
+            unavailable("Não foi possível criar a constraint " + NAME, ex);
+        }
+    }
+
+    private void unavailable(String reason, DataAccessException cause) {
+        if (required) {
+            throw new IllegalStateException(reason + "; para subir mesmo assim, desligue consultation.schedule-constraint.required", cause);
+        }
+        log.error("{}; conflitos serão verificados apenas pela aplicação", reason, cause);
+    }
+
+    public static boolean isViolatedBy(Throwable throwable) {
+        for (var cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase(Locale.ROOT).contains(NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void installExclusionConstraint() {
+        var exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, NAME);
+        if (exists != null && exists > 0) {
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        jdbcTemplate.execute("""
+            ALTER TABLE consultation ADD CONSTRAINT %s
+            EXCLUDE USING gist (
+                medic_id WITH =,
+                tsrange(start_date, final_date, '[)') WITH &&
+            )
+            WHERE (status IN ('SCHEDULED', 'CONFIRMED'))
+        """.formatted(NAME));
+        log.info("Exclusion constraint {} criada na tabela consultation", NAME);
+    }
+
+    private void installH2Trigger() {
+        jdbcTemplate.execute("""
+            CREATE TRIGGER IF NOT EXISTS %s
+            BEFORE INSERT, UPDATE ON consultation
+            FOR EACH ROW CALL '%s'
+        """.formatted(NAME, H2ConsultationOverlapTrigger.class.getName()));
+        log.info("Trigger {} criada na tabela consultation", NAME);
+    }
+}
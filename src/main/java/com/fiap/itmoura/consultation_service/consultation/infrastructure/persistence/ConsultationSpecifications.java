@@ -0,0 +1,38 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+
+/**
+ * Monta a busca de consultas apenas com os critérios informados. A data vira um
+ * intervalo [dia, dia seguinte) sobre start_date para aproveitar os índices compostos.
+ */
+public final class ConsultationSpecifications {
+
+    private ConsultationSpecifications() {
+    }
+
+    public static Specification<Consultation> matching(ConsultationSearchRequest search) {
+        return (root, query, builder) -> {
+            var predicates = new ArrayList<Predicate>();
+            if (search.medicId() != null) {
+                predicates.add(builder.equal(root.get("medic").get("id"), search.medicId()));
+            }
+            if (search.patientId() != null) {
+                predicates.add(builder.equal(root.get("patient").get("id"), search.patientId()));
+            }
+            if (search.status() != null) {
+                predicates.add(builder.equal(root.get("status"), search.status()));
+            }
+            if (search.date() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("startDate"), search.date().atStartOfDay()));
+                predicates.add(builder.lessThan(root.get("startDate"), search.date().plusDays(1).atStartOfDay()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
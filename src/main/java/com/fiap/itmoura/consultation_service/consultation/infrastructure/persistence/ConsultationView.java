@@ -0,0 +1,45 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção somente leitura de uma consulta com os dados de médico e paciente que a
+ * resposta expõe. Não é uma entidade: não entra no contexto de persistência e não
+ * carrega o hash de senha dos usuários.
+ */
+public record ConsultationView(
+        UUID id,
+        LocalDateTime startDate,
+        LocalDateTime finalDate,
+        ConsultationStatusEnum status,
+        String description,
+        UUID medicId,
+        String medicName,
+        String medicEmail,
+        TypeUserEnum medicRole,
+        LocalDateTime medicLastUpdate,
+        LocalDateTime medicCreatedAt,
+        UUID patientId,
+        String patientName,
+        String patientEmail,
+        TypeUserEnum patientRole,
+        LocalDateTime patientLastUpdate,
+        LocalDateTime patientCreatedAt
+) {
+
+    public static ConsultationView of(Consultation consultation) {
+        var medic = consultation.getMedic();
+        var patient = consultation.getPatient();
+        return new ConsultationView(
+                consultation.getId(), consultation.getStartDate(), consultation.getFinalDate(),
+                consultation.getStatus(), consultation.getDescription(),
+                medic.getId(), medic.getName(), medic.getEmail(), medic.getTypeUserRole(), medic.getLastUpdatedAt(), medic.getCreatedAt(),
+                patient.getId(), patient.getName(), patient.getEmail(), patient.getTypeUserRole(), patient.getLastUpdatedAt(), patient.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,72 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Equivalente, para o H2, da exclusion constraint do PostgreSQL: rejeita a linha
+ * quando o médico já possui outra consulta ativa no mesmo intervalo.
+ */
+public class H2ConsultationOverlapTrigger implements Trigger {
+
+    private static final Set<String> ACTIVE_STATUSES = Set.of("SCHEDULED", "CONFIRMED");
+
+    private static final String CONFLICT_QUERY = """
+        SELECT 1 FROM consultation
+        WHERE medic_id = ?
+          AND id <> ?
+          AND start_date < ?
+          AND final_date > ?
+          AND status IN ('SCHEDULED', 'CONFIRMED')
+        LIMIT 1
+    """;
+
+    private int idIndex = -1;
+    private int medicIdIndex = -1;
+    private int startDateIndex = -1;
+    private int finalDateIndex = -1;
+    private int statusIndex = -1;
+
+    @Override
+    public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        try (var columns = connection.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (columns.next()) {
+                var index = columns.getInt("ORDINAL_POSITION") - 1;
+                switch (columns.getString("COLUMN_NAME").toUpperCase(Locale.ROOT)) {
+                    case "ID" -> idIndex = index;
+                    case "MEDIC_ID" -> medicIdIndex = index;
+                    case "START_DATE" -> startDateIndex = index;
+                    case "FINAL_DATE" -> finalDateIndex = index;
+                    case "STATUS" -> statusIndex = index;
+                    default -> { }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (newRow == null || newRow[statusIndex] == null || !ACTIVE_STATUSES.contains(newRow[statusIndex].toString())) {
+            return;
+        }
+
+        try (var statement = connection.prepareStatement(CONFLICT_QUERY)) {
+            statement.setObject(1, newRow[medicIdIndex]);
+            statement.setObject(2, newRow[idIndex]);
+            statement.setObject(3, newRow[finalDateIndex]);
+            statement.setObject(4, newRow[startDateIndex]);
+            try (var resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    throw new SQLException(
+                            "conflicting key value violates exclusion constraint \"" + ConsultationScheduleConstraint.NAME + "\"",
+                            "23P01");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Reserva a chave com um INSERT direto: a PK garante que só um nó vence, e quem
+     * perde recebe {@code DataIntegrityViolationException} sem precisar de lock.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO idempotency_record (idempotency_key, request_hash, created_at, expires_at)
+        VALUES (:key, :requestHash, :createdAt, :expiresAt)
+    """, nativeQuery = true)
+    void claim(String key, String requestHash, LocalDateTime createdAt, LocalDateTime expiresAt);
+
+    /**
+     * Grava a resposta e troca a validade da reserva pela da resposta. Só altera a
+     * reserva feita em {@code claimedAt}: se o lease venceu e outro nó assumiu, devolve 0.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE IdempotencyRecord r SET r.response = :response, r.expiresAt = :expiresAt
+        WHERE r.key = :key AND r.createdAt = :claimedAt AND r.response IS NULL
+    """)
+    int complete(String key, LocalDateTime claimedAt, String response, LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.createdAt = :claimedAt AND r.response IS NULL")
+    int release(String key, LocalDateTime claimedAt);
+
+    // Reserva abandonada (lease vencido) ou resposta expirada: libera a chave para uma nova reserva
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt < :now")
+    int deleteIfExpired(String key, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
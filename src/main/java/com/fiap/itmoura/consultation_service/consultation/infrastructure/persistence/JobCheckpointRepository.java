@@ -0,0 +1,44 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.JobCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    // Trava a linha até o fim da transação: entre nós, só um processa o job por vez
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM JobCheckpoint c WHERE c.name = :name")
+    Optional<JobCheckpoint> findForUpdate(String name);
+
+    /**
+     * Cria a linha do job com um INSERT direto: se outro nó já a criou, a PK recusa e
+     * quem perde recebe {@code DataIntegrityViolationException}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO job_checkpoint (name, position, last_id, updated_at)
+        VALUES (:name, :position, :lastId, :updatedAt)
+    """, nativeQuery = true)
+    void seed(String name, LocalDateTime position, UUID lastId, LocalDateTime updatedAt);
+
+    // Avança sem lock e sem voltar: com vários nós, a posição fica no maior instante gravado
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE JobCheckpoint c SET c.position = :position, c.updatedAt = :updatedAt
+        WHERE c.name = :name AND c.position < :position
+    """)
+    int advanceTo(String name, LocalDateTime position, LocalDateTime updatedAt);
+}
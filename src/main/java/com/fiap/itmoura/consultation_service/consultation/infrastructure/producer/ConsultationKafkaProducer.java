@@ -2,7 +2,9 @@ package com.fiap.itmoura.consultation_service.consultation.infrastructure.produc
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationChangeKafkaRequest;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationKafkaRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationReminderKafkaRequest;
 import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -10,6 +12,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Log4j2
 @Service
 @RequiredArgsConstructor
@@ -18,11 +23,63 @@ public class ConsultationKafkaProducer {
     @Value("${kafka.producer.scheduling}")
     private String topic;
 
+    @Value("${kafka.producer.reminder}")
+    private String reminderTopic;
+
+    @Value("${kafka.producer.change}")
+    private String changeTopic;
+
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Chaveado pelo id, como as alterações, para que os eventos da mesma consulta fiquem em ordem na partição
     public void sendKafkaMessage(ConsultationKafkaRequest consultationKafkaRequest) throws JsonProcessingException {
         log.info("Sending message to Kafka");
-        var messagePayload = new ObjectMapper().writeValueAsString(consultationKafkaRequest);
-        kafkaTemplate.send(topic, messagePayload);
+        var messagePayload = objectMapper.writeValueAsString(consultationKafkaRequest);
+        kafkaTemplate.send(topic, consultationKafkaRequest.id().toString(), messagePayload);
+    }
+
+    // Chaveado pelo id para que as alterações da mesma consulta fiquem em ordem na partição
+    public void sendChangeMessage(ConsultationChangeKafkaRequest change) throws JsonProcessingException {
+        log.info("Sending change message to Kafka");
+        var messagePayload = objectMapper.writeValueAsString(change);
+        kafkaTemplate.send(changeTopic, change.id().toString(), messagePayload);
+    }
+
+    /**
+     * Serializa todo o lote antes de enviar e faz um único flush ao final, para que
+     * o producer agrupe os registros em poucas requisições ao broker.
+     */
+    public void sendKafkaMessages(List<ConsultationKafkaRequest> consultationKafkaRequests) throws JsonProcessingException {
+        if (consultationKafkaRequests.isEmpty()) {
+            return;
+        }
+
+        log.info("Sending {} messages to Kafka", consultationKafkaRequests.size());
+        var payloads = new ArrayList<String>(consultationKafkaRequests.size());
+        for (var request : consultationKafkaRequests) {
+            payloads.add(objectMapper.writeValueAsString(request));
+        }
+        for (int i = 0; i < payloads.size(); i++) {
+            kafkaTemplate.send(topic, consultationKafkaRequests.get(i).id().toString(), payloads.get(i));
+        }
+        kafkaTemplate.flush();
+    }
+
+    // Chaveado por consulta e tipo: mesma partição para os lembretes da consulta e deduplicação no consumidor
+    public void sendReminders(List<ConsultationReminderKafkaRequest> reminders) throws JsonProcessingException {
+        if (reminders.isEmpty()) {
+            return;
+        }
+
+        log.info("Sending {} reminders to Kafka", reminders.size());
+        var payloads = new ArrayList<String>(reminders.size());
+        for (var reminder : reminders) {
+            payloads.add(objectMapper.writeValueAsString(reminder));
+        }
+        for (int i = 0; i < payloads.size(); i++) {
+            kafkaTemplate.send(reminderTopic, reminders.get(i).key(), payloads.get(i));
+        }
+        kafkaTemplate.flush();
     }
 }
@@ -0,0 +1,311 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.reminder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationReminderKafkaRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationSaveListener;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.JobCheckpoint;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationReminderTypeEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.JobCheckpointLock;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationReminderClaimRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.JobCheckpointRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.producer.ConsultationKafkaProducer;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.reminder.HierarchicalTimingWheel.Timer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lembretes de 24h e de 1h antes de cada consulta ativa, mantidos numa roda de tempo
+ * hierárquica em memória em vez de consultar o banco a cada minuto. A roda é montada
+ * na subida a partir das consultas ativas e acompanha cada {@code ConsultationRepository.save}.
+ * <p>
+ * Os timers vencidos são o que se envia: o banco só é lido pela PK das consultas
+ * vencidas, para conferir que seguem ativas e com o mesmo horário. Cada lembrete é
+ * reservado em {@code consultation_reminder_claim} antes do envio; a reserva é
+ * commitada sozinha, então só um nó envia e nenhum lock fica preso enquanto o Kafka
+ * responde. Se o envio falhar, a reserva é desfeita e o lembrete volta para a roda.
+ * <p>
+ * Cada tick grava o seu instante em {@code job_checkpoint}. Na subida, os lembretes
+ * que venceram depois desse instante, com o serviço parado, entram vencidos na roda
+ * e saem no primeiro tick, desde que a consulta ainda não tenha começado.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "consultation.reminder.enabled", havingValue = "true", matchIfMissing = true)
+public class ConsultationReminderScheduler implements ConsultationSaveListener, MeterBinder {
+
+    static final String JOB_NAME = "consultation-reminder";
+
+    private final ConsultationRepository consultationRepository;
+    private final ConsultationReminderClaimRepository claimRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final JobCheckpointLock jobCheckpointLock;
+    private final ConsultationKafkaProducer producer;
+    private final long tickMillis;
+    private final Counter sentCounter;
+
+    private final Map<UUID, List<Timer<Reminder>>> timersByConsultation = new HashMap<>();
+    private HierarchicalTimingWheel<Reminder> wheel;
+
+    public ConsultationReminderScheduler(ConsultationRepository consultationRepository,
+                                         ConsultationReminderClaimRepository claimRepository,
+                                         JobCheckpointRepository jobCheckpointRepository,
+                                         JobCheckpointLock jobCheckpointLock,
+                                         ConsultationKafkaProducer producer,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${consultation.reminder.tick-millis:60000}") long tickMillis) {
+        this.consultationRepository = consultationRepository;
+        this.claimRepository = claimRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.jobCheckpointLock = jobCheckpointLock;
+        this.producer = producer;
+        this.tickMillis = tickMillis;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.sentCounter = Counter.builder("consultation.reminder.sent")
+                .description("Lembretes de consulta enviados ao Kafka")
+                .register(meterRegistry);
+    }
+
+    // Registrado pelo Spring depois da construção, para o gauge não receber uma instância incompleta
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("consultation.reminder.pending", this, ConsultationReminderScheduler::pending)
+                .description("Lembretes agendados na roda de tempo")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuild(System.currentTimeMillis());
+    }
+
+    void rebuild(long nowMillis) {
+        var now = toDateTime(nowMillis);
+        jobCheckpointLock.seed(JOB_NAME);
+        var lastTick = jobCheckpointRepository.findById(JOB_NAME).map(JobCheckpoint::getPosition).orElse(now);
+        var slots = consultationRepository.findActiveSlotsEndingAfter(now);
+
+        synchronized (this) {
+            wheel = new HierarchicalTimingWheel<>(tickMillis, nowMillis);
+            timersByConsultation.clear();
+            slots.forEach(slot -> schedule(slot.consultationId(), slot.startDate(), nowMillis, toMillis(lastTick)));
+        }
+        log.info("Roda de lembretes carregada com {} lembretes de {} consultas ativas", pending(), slots.size());
+    }
+
+    @Override
+    public void onConsultationSaved(Consultation consultation) {
+        var id = consultation.getId();
+        if (id == null) {
+            return;
+        }
+
+        var startDate = consultation.getStatus() != null && consultation.getStatus().isActive() ? consultation.getStartDate() : null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reschedule(id, startDate);
+                }
+            });
+        } else {
+            reschedule(id, startDate);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${consultation.reminder.tick-millis:60000}")
+    public void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    void tick(long nowMillis) {
+        List<Reminder> fired;
+        synchronized (this) {
+            fired = wheel.advanceTo(nowMillis);
+            fired.forEach(reminder -> timersByConsultation.computeIfPresent(reminder.consultationId(),
+                    (id, timers) -> timers.stream().anyMatch(Timer::isPending) ? timers : null));
+        }
+
+        if (!fired.isEmpty()) {
+            send(fired, nowMillis);
+        }
+        try {
+            jobCheckpointRepository.advanceTo(JOB_NAME, toDateTime(nowMillis), LocalDateTime.now());
+        } catch (DataAccessException ex) {
+            log.warn("Erro ao gravar o tick dos lembretes de consulta", ex);
+        }
+    }
+
+    @Scheduled(cron = "${consultation.reminder.purge-cron:0 15 3 * * *}")
+    public void purgeClaims() {
+        var removed = claimRepository.deleteStartedBefore(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("{} reservas de lembretes de consultas já iniciadas removidas", removed);
+        }
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    private synchronized void reschedule(UUID id, LocalDateTime startDate) {
+        cancel(id);
+        if (startDate != null) {
+            var now = System.currentTimeMillis();
+            schedule(id, startDate, now, now);
+        }
+    }
+
+    private void cancel(UUID id) {
+        var timers = timersByConsultation.remove(id);
+        if (timers != null) {
+            timers.forEach(wheel::cancel);
+        }
+    }
+
+    /**
+     * Agenda os lembretes ainda por vencer. Os que venceram depois de {@code catchUpFromMillis}
+     * entram vencidos, se a consulta não começou; fora da subida esse instante é o atual, e um
+     * lembrete cujo horário já passou não é enviado atrasado.
+     */
+    private void schedule(UUID id, LocalDateTime startDate, long nowMillis, long catchUpFromMillis) {
+        var startMillis = toMillis(startDate);
+        var timers = new ArrayList<Timer<Reminder>>(2);
+        for (var type : ConsultationReminderTypeEnum.values()) {
+            var dueMillis = startMillis - type.getAdvance().toMillis();
+            if (dueMillis > nowMillis && dueMillis - nowMillis < wheel.horizonMillis()) {
+                timers.add(wheel.schedule(dueMillis, new Reminder(id, type)));
+            } else if (dueMillis <= nowMillis && dueMillis > catchUpFromMillis && startMillis > nowMillis) {
+                timers.add(wheel.schedule(nowMillis, new Reminder(id, type)));
+            }
+        }
+
+        if (!timers.isEmpty()) {
+            timersByConsultation.put(id, timers);
+        }
+    }
+
+    private void send(List<Reminder> fired, long nowMillis) {
+        var now = toDateTime(nowMillis);
+        Map<UUID, ConsultationView> views;
+        try {
+            views = consultationRepository.findActiveViewsByIdIn(fired.stream().map(Reminder::consultationId).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(ConsultationView::id, Function.identity()));
+        } catch (DataAccessException ex) {
+            log.error("Erro ao conferir {} lembretes de consulta vencidos", fired.size(), ex);
+            retry(fired, nowMillis);
+            return;
+        }
+
+        var claimed = new ArrayList<Claimed>();
+        var unclaimed = new ArrayList<Reminder>();
+        for (var reminder : fired) {
+            var view = views.get(reminder.consultationId());
+            // Cancelada, remarcada ou já iniciada: o nó que gravou a mudança agendou o que vale agora
+            if (view == null || !isDue(view, reminder.type(), now)) {
+                continue;
+            }
+
+            var key = claimKey(view, reminder.type());
+            try {
+                if (claim(key, view.startDate(), now)) {
+                    claimed.add(new Claimed(reminder, key, ConsultationReminderKafkaRequest.of(view, reminder.type())));
+                }
+            } catch (DataAccessException ex) {
+                log.error("Erro ao reservar o lembrete {}", key, ex);
+                unclaimed.add(reminder);
+            }
+        }
+        if (!unclaimed.isEmpty()) {
+            retry(unclaimed, nowMillis);
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        try {
+            producer.sendReminders(claimed.stream().map(Claimed::request).toList());
+            sentCounter.increment(claimed.size());
+        } catch (JsonProcessingException | KafkaException | org.apache.kafka.common.KafkaException ex) {
+            log.error("Erro ao enviar {} lembretes de consulta; nova tentativa no próximo tick", claimed.size(), ex);
+            release(claimed);
+            retry(claimed.stream().map(Claimed::reminder).toList(), nowMillis);
+        }
+    }
+
+    private static boolean isDue(ConsultationView view, ConsultationReminderTypeEnum type, LocalDateTime now) {
+        return !view.startDate().minus(type.getAdvance()).isAfter(now) && view.startDate().isAfter(now);
+    }
+
+    // A data de início entra na chave: remarcar a consulta libera lembretes novos
+    private static String claimKey(ConsultationView view, ConsultationReminderTypeEnum type) {
+        return view.id() + ":" + type + ":" + view.startDate().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private boolean claim(String key, LocalDateTime startDate, LocalDateTime now) {
+        try {
+            claimRepository.claim(key, startDate, now);
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Lembrete {} já enviado por outro nó", key);
+            return false;
+        }
+    }
+
+    private void release(List<Claimed> claimed) {
+        try {
+            claimRepository.deleteAllByIdInBatch(claimed.stream().map(Claimed::key).toList());
+        } catch (DataAccessException ex) {
+            log.error("Erro ao desfazer a reserva de {} lembretes não enviados", claimed.size(), ex);
+        }
+    }
+
+    private synchronized void retry(List<Reminder> reminders, long nowMillis) {
+        for (var reminder : reminders) {
+            var timer = wheel.schedule(nowMillis + tickMillis, reminder);
+            timersByConsultation.computeIfAbsent(reminder.consultationId(), id -> new ArrayList<>()).add(timer);
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    record Reminder(UUID consultationId, ConsultationReminderTypeEnum type) {
+    }
+
+    private record Claimed(Reminder reminder, String key, ConsultationReminderKafkaRequest request) {
+    }
+}
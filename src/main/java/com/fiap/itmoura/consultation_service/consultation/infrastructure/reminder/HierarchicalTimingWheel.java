@@ -0,0 +1,190 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roda de tempo hierárquica com {@value #LEVELS} níveis de {@value #SLOTS} posições.
+ * Cada posição é uma lista duplamente encadeada, então agendar e cancelar são O(1);
+ * avançar um tick custa O(1) mais os timers que vencem ou descem de nível nele.
+ * Um timer fica no menor nível cujo bloco de ticks ainda contém o seu vencimento
+ * e desce de nível quando a roda de baixo completa uma volta.
+ * <p>
+ * Não é thread-safe: quem usa deve serializar o acesso.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final Timer<T>[][] slots;
+    private final List<Timer<T>> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.slots = (Timer<T>[][]) new Timer<?>[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[level][slot] = Timer.sentinel();
+            }
+        }
+    }
+
+    /** Maior distância, em milissegundos, que um timer pode ser agendado à frente. */
+    public long horizonMillis() {
+        return ((1L << (SLOT_BITS * LEVELS)) - 1) * tickMillis;
+    }
+
+    public Timer<T> schedule(long deadlineMillis, T payload) {
+        var deadlineTick = deadlineMillis / tickMillis;
+        if (deadlineTick - currentTick >= 1L << (SLOT_BITS * LEVELS)) {
+            throw new IllegalArgumentException("Vencimento além do horizonte da roda de tempo");
+        }
+
+        var timer = new Timer<>(deadlineTick, payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public boolean cancel(Timer<T> timer) {
+        if (timer == null || !timer.isPending()) {
+            return false;
+        }
+
+        if (timer.next == null) {
+            overdue.remove(timer);
+        } else {
+            timer.unlink();
+        }
+        timer.cancelled = true;
+        size--;
+        return true;
+    }
+
+    /** Avança até o instante informado e devolve, em ordem de vencimento, os timers vencidos. */
+    public List<T> advanceTo(long nowMillis) {
+        var expired = new ArrayList<T>();
+        drainOverdue(expired);
+
+        var targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            // Timers que desceram exatamente para o tick atual vencem agora
+            drainOverdue(expired);
+            var head = slots[0][(int) (currentTick & SLOT_MASK)];
+            for (var timer = head.next; timer != head; ) {
+                var next = timer.next;
+                timer.unlink();
+                timer.fired = true;
+                expired.add(timer.payload);
+                size--;
+                timer = next;
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void drainOverdue(List<T> expired) {
+        for (var timer : overdue) {
+            timer.fired = true;
+            expired.add(timer.payload);
+        }
+        size -= overdue.size();
+        overdue.clear();
+    }
+
+    // Ao completar uma volta num nível, redistribui a próxima posição do nível de cima
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            var levelMask = (1L << (SLOT_BITS * level)) - 1;
+            if ((currentTick & levelMask) != 0) {
+                continue;
+            }
+
+            var head = slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            var timer = head.next;
+            head.next = head;
+            head.previous = head;
+            while (timer != head) {
+                var next = timer.next;
+                place(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        if (timer.deadlineTick <= currentTick) {
+            timer.next = null;
+            timer.previous = null;
+            overdue.add(timer);
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            var shift = SLOT_BITS * (level + 1);
+            if (level == LEVELS - 1 || (timer.deadlineTick >>> shift) == (currentTick >>> shift)) {
+                var slot = (int) ((timer.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                slots[level][slot].append(timer);
+                return;
+            }
+        }
+    }
+
+    public static final class Timer<T> {
+
+        private final long deadlineTick;
+        private final T payload;
+        private Timer<T> next;
+        private Timer<T> previous;
+        private boolean cancelled;
+        private boolean fired;
+
+        private Timer(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            var sentinel = new Timer<T>(Long.MIN_VALUE, null);
+            sentinel.next = sentinel;
+            sentinel.previous = sentinel;
+            return sentinel;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public boolean isPending() {
+            return !cancelled && !fired;
+        }
+
+        private void append(Timer<T> timer) {
+            timer.previous = previous;
+            timer.next = this;
+            previous.next = timer;
+            previous = timer;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            next = null;
+            previous = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.fiap.itmoura.consultation_service.shared.application;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Monta ETags fortes a partir das versões gravadas em {@code listing_version}. Como as
+ * versões não dependem do processo, qualquer nó e qualquer restart gera a mesma tag para
+ * o mesmo estado. Os parâmetros da requisição (página, cursor, filtro) entram na tag junto da
+ * versão, para que caches compartilhados que revalidam com If-None-Match nunca
+ * confirmem uma página pela tag de outra.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        return Arrays.stream(parts)
+                .map(ETags::encode)
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    // Cada parte fica só com caracteres válidos em ETag e sem o separador, então partes diferentes nunca colidem
+    private static String encode(Object part) {
+        return URLEncoder.encode(String.valueOf(part), StandardCharsets.UTF_8).replace("-", "%2D");
+    }
+}
@@ -1,7 +1,5 @@
 package com.fiap.itmoura.consultation_service.shared.config.security;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fiap.itmoura.consultation_service.shared.domain.UserDetailData;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
@@ -18,7 +16,6 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
 
 @RequiredArgsConstructor
 public class JWTAuthFilter extends UsernamePasswordAuthenticationFilter {
@@ -27,6 +24,7 @@ public class JWTAuthFilter extends UsernamePasswordAuthenticationFilter {
     public static final String TOKEN_PASSWORD = "${spring.security.jwt.secret}";
 
     private final AuthenticationManager authenticationManager;
+    private final JWTTokenProvider jwtTokenProvider;
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException {
@@ -47,10 +45,7 @@ public class JWTAuthFilter extends UsernamePasswordAuthenticationFilter {
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain, Authentication authResult) throws IOException, ServletException {
         var userDetailData = (UserDetailData) authResult.getPrincipal();
 
-        var token = JWT.create()
-                .withSubject(userDetailData.getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + JWT_EXPIRATION_TIME))
-                .sign(Algorithm.HMAC512(TOKEN_PASSWORD));
+        var token = jwtTokenProvider.create(userDetailData);
 
         response.getWriter().write(token);
         response.getWriter().flush();
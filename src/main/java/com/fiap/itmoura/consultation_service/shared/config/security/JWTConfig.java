@@ -1,6 +1,6 @@
 package com.fiap.itmoura.consultation_service.shared.config.security;
 
-import com.fiap.itmoura.consultation_service.shared.application.impl.UserDetailServiceImpl;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserStatusCache;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -25,10 +25,11 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 public class JWTConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authManager, UserDetailServiceImpl userDetailsService) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authManager,
+                                                   JWTTokenProvider jwtTokenProvider, UserStatusCache userStatusCache) throws Exception {
 
-        JWTAuthFilter jwtAuthFilter = new JWTAuthFilter(authManager);
-        JWTValidFilter jwtValidFilter = new JWTValidFilter(authManager, userDetailsService);
+        JWTAuthFilter jwtAuthFilter = new JWTAuthFilter(authManager, jwtTokenProvider);
+        JWTValidFilter jwtValidFilter = new JWTValidFilter(authManager, jwtTokenProvider, userStatusCache);
 
         http
             .csrf(csrf -> csrf.disable())
@@ -0,0 +1,128 @@
+package com.fiap.itmoura.consultation_service.shared.config.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fiap.itmoura.consultation_service.shared.domain.UserDetailData;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.fiap.itmoura.consultation_service.shared.config.security.JWTAuthFilter.JWT_EXPIRATION_TIME;
+import static com.fiap.itmoura.consultation_service.shared.config.security.JWTAuthFilter.TOKEN_PASSWORD;
+
+/**
+ * Emite e valida os tokens. O id e o papel do usuário vão assinados no token, então a
+ * validação não precisa buscar o usuário; o verificador é thread-safe e criado uma vez.
+ * Tokens já verificados ficam em cache, pelo SHA-256 do token, até expirarem: clientes
+ * que repetem o mesmo token não pagam de novo a verificação HMAC nem o parse das claims.
+ */
+@Component
+public class JWTTokenProvider {
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+
+    private final Algorithm algorithm = Algorithm.HMAC512(TOKEN_PASSWORD);
+    private final JWTVerifier verifier = JWT.require(algorithm)
+            .withClaimPresence(CLAIM_USER_ID)
+            .withClaimPresence(CLAIM_ROLE)
+            .build();
+
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Timer verificationTimer;
+
+    public JWTTokenProvider(MeterRegistry meterRegistry,
+                            @Value("${spring.security.jwt.verified-cache.maximum-size:10000}") long maximumSize) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<String, VerifiedToken>creating((key, token) -> token.timeToLive()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-verified-tokens");
+
+        this.verificationTimer = Timer.builder("security.jwt.verification")
+                .description("Tempo de verificação de assinatura e leitura das claims de tokens fora do cache")
+                .register(meterRegistry);
+    }
+
+    public String create(UserDetailData userDetailData) {
+        return JWT.create()
+                .withSubject(userDetailData.getUsername())
+                .withClaim(CLAIM_USER_ID, userDetailData.getId().toString())
+                .withClaim(CLAIM_ROLE, userDetailData.getRole().name())
+                .withExpiresAt(new Date(System.currentTimeMillis() + JWT_EXPIRATION_TIME))
+                .sign(algorithm);
+    }
+
+    /** Token válido e com as claims esperadas, ou vazio. Só tokens válidos entram no cache. */
+    public Optional<TokenClaims> verify(String token) {
+        var key = digest(token);
+        var cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached.claims());
+        }
+
+        var verified = verificationTimer.record(() -> verifySignature(token));
+        verified.filter(VerifiedToken::expires).ifPresent(value -> verifiedTokens.put(key, value));
+        return verified.map(VerifiedToken::claims);
+    }
+
+    private Optional<VerifiedToken> verifySignature(String token) {
+        try {
+            var jwt = verifier.verify(token);
+            return toClaims(jwt).map(claims -> new VerifiedToken(claims, jwt.getExpiresAt()));
+        } catch (JWTVerificationException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<TokenClaims> toClaims(DecodedJWT jwt) {
+        var userId = jwt.getClaim(CLAIM_USER_ID).asString();
+        var role = jwt.getClaim(CLAIM_ROLE).asString();
+        if (jwt.getSubject() == null || userId == null || role == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TokenClaims(UUID.fromString(userId), jwt.getSubject(), TypeUserEnum.valueOf(role)));
+    }
+
+    private static String digest(String token) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public record TokenClaims(UUID userId, String email, TypeUserEnum role) {
+    }
+
+    private record VerifiedToken(TokenClaims claims, Date expiresAt) {
+
+        boolean expires() {
+            return expiresAt != null;
+        }
+
+        Duration timeToLive() {
+            return Duration.ofMillis(Math.max(0, expiresAt.getTime() - System.currentTimeMillis()));
+        }
+    }
+}
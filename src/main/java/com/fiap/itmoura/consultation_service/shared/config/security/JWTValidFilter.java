@@ -1,34 +1,35 @@
 package com.fiap.itmoura.consultation_service.shared.config.security;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.fiap.itmoura.consultation_service.shared.application.impl.UserDetailServiceImpl;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserStatusCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import java.io.IOException;
+import java.util.List;
 
-import static com.fiap.itmoura.consultation_service.shared.config.security.JWTAuthFilter.TOKEN_PASSWORD;
-
+/**
+ * Autentica a requisição só com as claims assinadas do token; o banco é consultado
+ * apenas quando a situação do usuário expira do {@link UserStatusCache}.
+ */
 public class JWTValidFilter extends BasicAuthenticationFilter {
 
-    @Autowired
-    private UserDetailServiceImpl userDetailsService;
-
     public static final String HEADER_AUTHORIZATION = "Authorization";
     public static final String TOKEN_PREFIX = "Bearer ";
 
-    public JWTValidFilter(AuthenticationManager authenticationManager, UserDetailServiceImpl userDetailsService) {
+    private final JWTTokenProvider jwtTokenProvider;
+    private final UserStatusCache userStatusCache;
+
+    public JWTValidFilter(AuthenticationManager authenticationManager, JWTTokenProvider jwtTokenProvider, UserStatusCache userStatusCache) {
         super(authenticationManager);
-        this.userDetailsService = userDetailsService;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userStatusCache = userStatusCache;
     }
 
     @Override
@@ -39,7 +40,7 @@ public class JWTValidFilter extends BasicAuthenticationFilter {
             return;
         }
 
-        var token = header.replace(TOKEN_PREFIX, "");
+        var token = header.substring(TOKEN_PREFIX.length());
 
         UsernamePasswordAuthenticationToken authentication = getAuthenticationToken(token);
 
@@ -48,23 +49,14 @@ public class JWTValidFilter extends BasicAuthenticationFilter {
     }
 
     private UsernamePasswordAuthenticationToken getAuthenticationToken(String token) {
-        var user = JWT.require(Algorithm.HMAC512(TOKEN_PASSWORD))
-                .build()
-                .verify(token)
-                .getSubject();
-
-        if (user == null) {
-            return null;
-        }
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user);
-
-        return new UsernamePasswordAuthenticationToken(
-                userDetails.getUsername(),
-                null,
-                userDetails.getAuthorities()
-        );
+        // Token inválido, usuário desativado ou com email ou papel alterado: segue sem autenticação (401)
+        return jwtTokenProvider.verify(token)
+                .filter(claims -> userStatusCache.isActiveWith(claims.userId(), claims.email(), claims.role()))
+                .map(claims -> new UsernamePasswordAuthenticationToken(
+                        claims.email(),
+                        null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + claims.role().name()))
+                ))
+                .orElse(null);
     }
-
-
 }
@@ -0,0 +1,29 @@
+package com.fiap.itmoura.consultation_service.shared.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador de alterações de uma listagem (todas as consultas, as consultas de uma data,
+ * os usuários), incrementado na mesma transação de cada gravação. É a versão usada nas
+ * ETags: todos os nós leem a mesma linha pela PK.
+ */
+@Entity
+@Table(name = "listing_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingVersion {
+
+    @Id
+    @Column(length = 60)
+    private String name;
+
+    @Column(nullable = false)
+    private long revision;
+}
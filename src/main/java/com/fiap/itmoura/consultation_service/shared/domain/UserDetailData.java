@@ -1,5 +1,6 @@
 package com.fiap.itmoura.consultation_service.shared.domain;
 
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
@@ -8,12 +9,21 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @RequiredArgsConstructor
 public class UserDetailData implements UserDetails {
 
     private final Users user;
 
+    public UUID getId() {
+        return user.getId();
+    }
+
+    public TypeUserEnum getRole() {
+        return user.getTypeUserRole();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         String roleName = user.getTypeUserRole().name().toUpperCase();
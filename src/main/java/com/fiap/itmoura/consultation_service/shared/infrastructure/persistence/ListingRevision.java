@@ -0,0 +1,4 @@
+package com.fiap.itmoura.consultation_service.shared.infrastructure.persistence;
+
+public record ListingRevision(String name, long revision) {
+}
@@ -0,0 +1,40 @@
+package com.fiap.itmoura.consultation_service.shared.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.shared.domain.ListingVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ListingVersionRepository extends JpaRepository<ListingVersion, String> {
+
+    // Projeção, e não entidade: uma linha já carregada na sessão não esconderia o incremento feito depois
+    @Query("""
+        SELECT new com.fiap.itmoura.consultation_service.shared.infrastructure.persistence.ListingRevision(v.name, v.revision)
+        FROM ListingVersion v
+        WHERE v.name IN :names
+    """)
+    List<ListingRevision> findRevisions(Collection<String> names);
+
+    // Participa da transação de quem grava: a linha fica travada até o commit
+    @Modifying
+    @Transactional
+    @Query("UPDATE ListingVersion v SET v.revision = v.revision + 1 WHERE v.name = :name")
+    int increment(String name);
+
+    /**
+     * Cria a linha em transação própria: se outro nó já a criou, a PK recusa e só esta
+     * transação é desfeita, não a gravação de quem chamou. Em HQL, e não nativo, para o
+     * Hibernate não esvaziar o cache de segundo nível das outras tabelas.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("INSERT INTO ListingVersion (name, revision) VALUES (:name, 0)")
+    void seed(String name);
+}
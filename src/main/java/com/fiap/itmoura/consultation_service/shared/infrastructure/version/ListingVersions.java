@@ -0,0 +1,61 @@
+package com.fiap.itmoura.consultation_service.shared.infrastructure.version;
+
+import com.fiap.itmoura.consultation_service.shared.infrastructure.persistence.ListingRevision;
+import com.fiap.itmoura.consultation_service.shared.infrastructure.persistence.ListingVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Versões das listagens em {@code listing_version}. A leitura é uma busca pela PK, sem
+ * tocar nas tabelas listadas; o incremento roda na transação da gravação, então a versão
+ * nova fica visível para todos os nós junto com o dado que a mudou.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingVersions {
+
+    private final ListingVersionRepository repository;
+
+    // Várias versões em uma só leitura; uma linha que ainda não existe vale 0
+    public Map<String, Long> current(Collection<String> names) {
+        var revisions = repository.findRevisions(names).stream()
+                .collect(Collectors.toMap(ListingRevision::name, ListingRevision::revision));
+        return names.stream().collect(Collectors.toMap(Function.identity(), name -> revisions.getOrDefault(name, 0L), (a, b) -> a));
+    }
+
+    /**
+     * Incrementa as versões dentro da transação corrente, sempre na mesma ordem: duas
+     * gravações que tocam as mesmas listagens nunca travam as linhas em ordem inversa.
+     * Devolve o valor que cada versão terá no commit: as linhas seguem travadas por esta
+     * transação, então nenhum outro nó as altera antes disso.
+     */
+    @Transactional
+    public Map<String, Long> touch(Collection<String> names) {
+        var sorted = new TreeSet<>(names);
+        for (var name : sorted) {
+            if (repository.increment(name) == 0) {
+                seed(name);
+                repository.increment(name);
+            }
+        }
+        return current(sorted);
+    }
+
+    private void seed(String name) {
+        try {
+            repository.seed(name);
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Versão da listagem {} já criada por outro nó", name);
+        }
+    }
+}
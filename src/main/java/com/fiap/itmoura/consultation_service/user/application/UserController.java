@@ -1,11 +1,13 @@
 package com.fiap.itmoura.consultation_service.user.application;
 
+import com.fiap.itmoura.consultation_service.shared.application.ETags;
 import com.fiap.itmoura.consultation_service.user.application.domain.OnCreate;
 import com.fiap.itmoura.consultation_service.user.application.domain.OnUpdate;
 import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.application.interfaces.UserControllerInterface;
 import com.fiap.itmoura.consultation_service.user.application.service.UserService;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserVersions;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,6 +15,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,17 +26,26 @@ import java.util.UUID;
 public class UserController implements UserControllerInterface {
 
     private final UserService userService;
+    private final UserVersions userVersions;
 
+    // Versão lida antes da consulta: se algo mudar no meio, o próximo poll ainda busca de novo
     @Override
     @GetMapping
-    public List<UserDTO> findAll() {
+    public List<UserDTO> findAll(WebRequest webRequest) {
+        if (webRequest.checkNotModified(ETags.of(userVersions.current()))) {
+            return null;
+        }
         return userService.findAll();
     }
 
     @Override
     @GetMapping("/paginated")
     public Page<UserDTO> findAllPaginated(
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable, WebRequest webRequest) {
+        var etag = ETags.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), userVersions.current());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         return userService.findAllPaginated(pageable);
     }
 
@@ -54,7 +66,11 @@ public class UserController implements UserControllerInterface {
     @Override
     @GetMapping("/type/{typeUserRole}")
     public List<UserDTO> findByTypeUserRole(
-            @Parameter(description = "ID do tipo de usuário") @PathVariable TypeUserEnum typeUserRole) {
+            @Parameter(description = "ID do tipo de usuário") @PathVariable TypeUserEnum typeUserRole,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(ETags.of(typeUserRole, userVersions.current()))) {
+            return null;
+        }
         return userService.findByTypeUserRole(typeUserRole);
     }
 
@@ -14,6 +14,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -24,16 +25,18 @@ public interface UserControllerInterface {
     @GetMapping
     @Operation(summary = "Listar todos os usuários", description = "Retorna uma lista com todos os usuários ativos")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de usuários retornada com sucesso")
+        @ApiResponse(responseCode = "200", description = "Lista de usuários retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Lista inalterada desde o ETag informado em If-None-Match")
     })
-    List<UserDTO> findAll();
+    List<UserDTO> findAll(WebRequest webRequest);
 
     @GetMapping("/paginated")
     @Operation(summary = "Listar usuários paginados", description = "Retorna uma página de usuários ativos")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Página de usuários retornada com sucesso")
+        @ApiResponse(responseCode = "200", description = "Página de usuários retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Página inalterada desde o ETag informado em If-None-Match")
     })
-    Page<UserDTO> findAllPaginated(@PageableDefault(size = 20) Pageable pageable);
+    Page<UserDTO> findAllPaginated(@PageableDefault(size = 20) Pageable pageable, WebRequest webRequest);
 
     @GetMapping("/{id}")
     @Operation(summary = "Buscar usuário por ID", description = "Retorna um usuário específico pelo ID")
@@ -54,9 +57,11 @@ public interface UserControllerInterface {
     @GetMapping("/type/{typeUserRole}")
     @Operation(summary = "Buscar usuários por tipo", description = "Retorna todos os usuários de um tipo específico")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de usuários retornada com sucesso")
+        @ApiResponse(responseCode = "200", description = "Lista de usuários retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Lista inalterada desde o ETag informado em If-None-Match")
     })
-    List<UserDTO> findByTypeUserRole(@Parameter(description = "ID do tipo de usuário") @PathVariable TypeUserEnum typeUserRole);
+    List<UserDTO> findByTypeUserRole(@Parameter(description = "ID do tipo de usuário") @PathVariable TypeUserEnum typeUserRole,
+                                     WebRequest webRequest);
 
     @PostMapping
     @Operation(summary = "Criar novo usuário", description = "Cria um novo usuário")
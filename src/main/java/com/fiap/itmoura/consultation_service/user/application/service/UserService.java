@@ -5,6 +5,8 @@ import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestExc
 import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserStatusCache;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserVersions;
 import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,10 +14,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -25,6 +33,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder encoder;
+    private final UserVersions userVersions;
+    private final UserStatusCache userStatusCache;
 
     public List<UserDTO> findAll() {
         log.info("Buscando todos os usuários ativos");
@@ -55,6 +65,34 @@ public class UserService {
         return user;
     }
 
+    public Map<UUID, Users> findActiveUsersByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        return userRepository.findByIdInAndIsActiveTrue(ids)
+                .stream()
+                .collect(Collectors.toMap(Users::getId, Function.identity()));
+    }
+
+    /**
+     * Busca todos os usuários ativos informados em uma única consulta e falha
+     * se algum deles não existir; papéis e demais regras ficam com o chamador.
+     */
+    public Map<UUID, Users> findRequiredActiveUsers(Collection<UUID> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Usuário não encontrado");
+        }
+
+        var distinctIds = Set.copyOf(ids);
+        var users = findActiveUsersByIds(distinctIds);
+        if (users.size() != distinctIds.size()) {
+            throw new BadRequestException("Usuário não encontrado");
+        }
+
+        return users;
+    }
+
     public UserDTO findByEmail(String email) {
         log.info("Buscando usuário por email: {}", email);
         Users user = userRepository.findByEmail(email)
@@ -87,6 +125,8 @@ public class UserService {
                 .toList();
     }
 
+    // A versão das listagens sobe na mesma transação da gravação
+    @Transactional
     public UserDTO create(UserDTO userDTO) {
         log.info("Criando novo usuário com email: {}", userDTO.email());
         
@@ -104,10 +144,12 @@ public class UserService {
                 .build();
 
         Users savedUser = userRepository.save(user);
+        userVersions.touch();
         log.info("Usuário criado com sucesso: {}", savedUser.getEmail());
         return UserDTO.fromEntity(savedUser);
     }
 
+    @Transactional
     public UserDTO update(UUID id, UserDTO userDTO) {
         log.info("Atualizando usuário com ID: {}", id);
         Users user = userRepository.findById(id)
@@ -140,10 +182,13 @@ public class UserService {
         }
 
         Users updatedUser = userRepository.save(user);
+        userVersions.touch();
+        userStatusCache.invalidate(id);
         log.info("Usuário atualizado com sucesso: {}", updatedUser.getEmail());
         return UserDTO.fromEntity(updatedUser);
     }
 
+    @Transactional
     public void delete(UUID id) {
         log.info("Desativando usuário com ID: {}", id);
         Users user = userRepository.findById(id)
@@ -151,9 +196,12 @@ public class UserService {
 
         user.setIsActive(false);
         userRepository.save(user);
+        userVersions.touch();
+        userStatusCache.invalidate(id);
         log.info("Usuário desativado com sucesso: {}", user.getEmail());
     }
 
+    @Transactional
     public void activate(UUID id) {
         log.info("Ativando usuário com ID: {}", id);
         Users user = userRepository.findById(id)
@@ -161,9 +209,12 @@ public class UserService {
 
         user.setIsActive(true);
         userRepository.save(user);
+        userVersions.touch();
+        userStatusCache.invalidate(id);
         log.info("Usuário ativado com sucesso: {}", user.getEmail());
     }
 
+    @Transactional
     public UserDTO changePassword(UUID id, String currentPassword, String newPassword) {
         log.info("Alterando senha do usuário com ID: {}", id);
         Users user = userRepository.findById(id)
@@ -179,6 +230,7 @@ public class UserService {
 
         user.setPassword(encoder.encode(newPassword));
         Users updatedUser = userRepository.save(user);
+        userVersions.touch();
         log.info("Senha alterada com sucesso para usuário: {}", user.getEmail());
         return UserDTO.fromEntity(updatedUser);
     }
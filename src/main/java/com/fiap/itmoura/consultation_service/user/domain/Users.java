@@ -2,6 +2,7 @@ package com.fiap.itmoura.consultation_service.user.domain;
 
 import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -14,16 +15,23 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Users.CACHE_REGION)
 @Builder
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Users {
+    // Região do cache de segundo nível; a infraestrutura configura a partir daqui
+    public static final String CACHE_REGION = "users";
+
     @Id
     @GeneratedValue
     @Column(nullable = false)
@@ -0,0 +1,75 @@
+package com.fiap.itmoura.consultation_service.user.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Cache de segundo nível do Hibernate, local ao processo, para a entidade {@code Users}
+ * e para as consultas por id e por email. As regiões são limitadas por tamanho e TTL
+ * e exportam acertos, erros e despejos como métricas {@code cache.*}.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    public static final String USERS_REGION = Users.CACHE_REGION;
+    public static final String USERS_QUERY_REGION = "users-query";
+
+    private static final String DEFAULT_QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager userCacheManager(MeterRegistry meterRegistry,
+                                         @Value("${user.cache.maximum-size:10000}") long maximumSize,
+                                         @Value("${user.cache.ttl:10m}") Duration ttl) {
+        var cacheManager = new CaffeineCachingProvider().getCacheManager();
+
+        createRegion(cacheManager, meterRegistry, USERS_REGION, maximumSize, ttl);
+        createRegion(cacheManager, meterRegistry, USERS_QUERY_REGION, maximumSize, ttl);
+        createRegion(cacheManager, meterRegistry, DEFAULT_QUERY_RESULTS_REGION, maximumSize, ttl);
+        // Os timestamps por tabela invalidam o cache de consultas e não podem expirar antes dele
+        createRegion(cacheManager, meterRegistry, UPDATE_TIMESTAMPS_REGION, null, null);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer userCacheHibernateProperties(CacheManager userCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, userCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, MeterRegistry meterRegistry,
+                                     String name, Long maximumSize, Duration ttl) {
+        var configuration = new CaffeineConfiguration<Object, Object>()
+                .setNativeStatisticsEnabled(true);
+        if (maximumSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+
+        var cache = cacheManager.createCache(name, configuration);
+        Cache<?, ?> nativeCache = cache.unwrap(Cache.class);
+        CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, name);
+    }
+}
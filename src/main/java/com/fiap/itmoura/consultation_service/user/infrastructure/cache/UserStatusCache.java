@@ -0,0 +1,74 @@
+package com.fiap.itmoura.consultation_service.user.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Situação atual (ativo, email e papel) de cada usuário autenticado por JWT, com TTL curto.
+ * Um usuário desativado ou com o email ou o papel alterado deixa de ser aceito no máximo após o TTL;
+ * no nó que fez a alteração, imediatamente. A carga usa uma projeção fora do cache de
+ * segundo nível: pela entidade, uma alteração feita em outro nó só apareceria depois do
+ * TTL da região {@code users}.
+ */
+@Component
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, Optional<UserStatus>> cache;
+
+    public UserStatusCache(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${user.status-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${user.status-cache.ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-status");
+    }
+
+    /**
+     * Verdadeiro quando o usuário existe, está ativo e ainda tem o email e o papel do token.
+     * O email é o principal da requisição e é por ele que os serviços buscam o usuário.
+     */
+    public boolean isActiveWith(UUID id, String email, TypeUserEnum role) {
+        return cache.get(id, this::load)
+                .filter(status -> status.active() && status.email().equals(email) && status.role() == role)
+                .isPresent();
+    }
+
+    // Dentro de uma transação, invalida de novo após o commit: uma leitura concorrente pode ter guardado o estado anterior
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    private Optional<UserStatus> load(UUID id) {
+        return userRepository.findStatusById(id)
+                .map(status -> new UserStatus(Boolean.TRUE.equals(status.isActive()), status.email(), status.typeUserRole()));
+    }
+
+    private record UserStatus(boolean active, String email, TypeUserEnum role) {
+    }
+}
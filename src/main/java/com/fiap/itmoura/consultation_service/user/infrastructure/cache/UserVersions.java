@@ -0,0 +1,29 @@
+package com.fiap.itmoura.consultation_service.user.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.shared.infrastructure.version.ListingVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Versão das listagens de usuários, usada como ETag. É um contador em
+ * {@code listing_version} incrementado na transação de cada gravação de usuário, então
+ * uma alteração feita por qualquer nó muda a versão vista por todos.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserVersions {
+
+    public static final String NAME = "users";
+
+    private final ListingVersions listingVersions;
+
+    public String current() {
+        return String.valueOf(listingVersions.current(List.of(NAME)).get(NAME));
+    }
+
+    public void touch() {
+        listingVersions.touch(List.of(NAME));
+    }
+}
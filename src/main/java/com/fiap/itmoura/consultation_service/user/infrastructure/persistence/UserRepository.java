@@ -2,24 +2,49 @@ package com.fiap.itmoura.consultation_service.user.infrastructure.persistence;
 
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserCacheConfig;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<Users, UUID> {
-    
+
+    // Leituras por email e por id são as mais frequentes (login, JWT e agendamentos)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = UserCacheConfig.USERS_QUERY_REGION)
+    })
     Optional<Users> findByEmail(String email);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = UserCacheConfig.USERS_QUERY_REGION)
+    })
     Optional<Users> findByIdAndIsActiveTrue(UUID id);
+
+    // Médico e paciente de um agendamento: o mesmo par se repete nas remarcações e cancelamentos
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = UserCacheConfig.USERS_QUERY_REGION)
+    })
+    List<Users> findByIdInAndIsActiveTrue(Collection<UUID> ids);
     
+    // Validação do JWT: a entidade viria do cache de segundo nível, com TTL bem maior que o do UserStatusCache
+    @Query("SELECT new com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserStatusView(u.isActive, u.email, u.typeUserRole) FROM users u WHERE u.id = :id")
+    Optional<UserStatusView> findStatusById(UUID id);
+
     boolean existsByEmail(String email);
     
     Page<Users> findByIsActiveTrue(Pageable pageable);
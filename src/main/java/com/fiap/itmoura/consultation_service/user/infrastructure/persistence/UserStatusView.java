@@ -0,0 +1,10 @@
+package com.fiap.itmoura.consultation_service.user.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+
+/**
+ * Colunas que decidem se um token ainda vale. Projeção lida direto do banco: não passa
+ * pela região {@code users} do cache de segundo nível nem pelo cache de consultas.
+ */
+public record UserStatusView(Boolean isActive, String email, TypeUserEnum typeUserRole) {
+}
@@ -1,9 +1,24 @@
 package com.fiap.itmoura.consultation_service.consultation.application;
 
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSeriesRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationUpdateRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.AvailabilityResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationBatchItemResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationPageResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationArchiveService;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationAvailabilityService;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationExportService;
 import com.fiap.itmoura.consultation_service.consultation.application.usecases.ConsultationService;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationRecurrenceEnum;
 import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersion;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersions;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveFilter;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationExportFilter;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
 import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +27,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -21,6 +44,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +53,18 @@ class ConsultationControllerTest {
     @Mock
     private ConsultationService consultationService;
 
+    @Mock
+    private ConsultationAvailabilityService consultationAvailabilityService;
+
+    @Mock
+    private ConsultationExportService consultationExportService;
+
+    @Mock
+    private ConsultationArchiveService consultationArchiveService;
+
+    @Mock
+    private ConsultationVersions consultationVersions;
+
     @InjectMocks
     private ConsultationController consultationController;
 
@@ -39,6 +75,8 @@ class ConsultationControllerTest {
     @BeforeEach
     void setUp() {
         consultationId = UUID.randomUUID();
+        lenient().when(consultationVersions.current()).thenReturn(new ConsultationVersion(1, 1));
+        lenient().when(consultationVersions.current(any(LocalDate.class))).thenReturn(new ConsultationVersion(1, 1));
         
         consultationRequest = new ConsultationRequest(
                 UUID.randomUUID(),
@@ -81,50 +119,222 @@ class ConsultationControllerTest {
 
     @Test
     void shouldFindAllConsultations() {
-        when(consultationService.findAll()).thenReturn(List.of(consultationResponse));
+        when(consultationService.findAll(null, 20)).thenReturn(new ConsultationPageResponse(List.of(consultationResponse), null));
 
-        List<ConsultationResponse> result = consultationController.findAll();
+        ConsultationPageResponse result = consultationController.findAll(null, 20, webRequest(null));
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(consultationResponse.getId(), result.get(0).getId());
-        verify(consultationService).findAll();
+        assertEquals(1, result.content().size());
+        assertEquals(consultationResponse.getId(), result.content().get(0).getId());
+        verify(consultationService).findAll(null, 20);
     }
 
     @Test
     void shouldFindAllConsultationsByDate() {
         LocalDate date = LocalDate.now();
-        when(consultationService.findAllByDate(date)).thenReturn(List.of(consultationResponse));
+        when(consultationService.findAllByDate(date, new ConsultationVersion(1, 1))).thenReturn(List.of(consultationResponse));
 
-        List<ConsultationResponse> result = consultationController.findAllByDate(date);
+        List<ConsultationResponse> result = consultationController.findAllByDate(date, webRequest(null));
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(consultationResponse.getId(), result.get(0).getId());
-        verify(consultationService).findAllByDate(date);
+        verify(consultationService).findAllByDate(date, new ConsultationVersion(1, 1));
+        // A mesma leitura da versão serve à ETag e à agenda
+        verify(consultationVersions, times(1)).current(date);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedBeforeQueryingWhenAgendaIsUnchanged() {
+        LocalDate date = LocalDate.now();
+        var first = webRequest(null);
+        consultationController.findAllByDate(date, first);
+        var etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        var second = webRequest(etag);
+        List<ConsultationResponse> result = consultationController.findAllByDate(date, second);
+
+        assertNull(result);
+        assertEquals(304, second.getResponse().getStatus());
+        verify(consultationService, times(1)).findAllByDate(eq(date), any());
+    }
+
+    @Test
+    void shouldChangeAgendaETagOnlyWhenTheDateVersionChanges() {
+        LocalDate date = LocalDate.now();
+        // Versão lida do banco: muda quando qualquer nó altera uma consulta da data
+        var v1 = new ConsultationVersion(1, 1);
+        when(consultationVersions.current(date)).thenReturn(v1, v1, new ConsultationVersion(2, 1));
+        var first = webRequest(null);
+        consultationController.findAllByDate(date, first);
+        var etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        var unchanged = webRequest(etag);
+        consultationController.findAllByDate(date, unchanged);
+        assertEquals(304, unchanged.getResponse().getStatus());
+
+        var sameDay = webRequest(etag);
+        consultationController.findAllByDate(date, sameDay);
+        assertEquals(200, sameDay.getResponse().getStatus());
+        assertNotEquals(etag, sameDay.getResponse().getHeader(HttpHeaders.ETAG));
+        verify(consultationService, times(2)).findAllByDate(eq(date), any());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedListing() {
+        var first = webRequest(null);
+        consultationController.findAll(null, 20, first);
+
+        var second = webRequest(first.getResponse().getHeader(HttpHeaders.ETAG));
+        var result = consultationController.findAll(null, 20, second);
+
+        assertNull(result);
+        assertEquals(304, second.getResponse().getStatus());
+        verify(consultationService, times(1)).findAll(null, 20);
+    }
+
+    @Test
+    void shouldNotReuseListingETagAcrossCursorsOrSizes() {
+        var first = webRequest(null);
+        consultationController.findAll(null, 20, first);
+        var etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        var nextPage = webRequest(etag);
+        consultationController.findAll("cursor-2", 20, nextPage);
+        var biggerPage = webRequest(etag);
+        consultationController.findAll(null, 50, biggerPage);
+
+        assertEquals(200, nextPage.getResponse().getStatus());
+        assertEquals(200, biggerPage.getResponse().getStatus());
+        assertNotEquals(etag, nextPage.getResponse().getHeader(HttpHeaders.ETAG));
+        assertNotEquals(etag, biggerPage.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldFindConsultationById() {
+        when(consultationService.findById(consultationId)).thenReturn(consultationResponse);
+
+        ConsultationResponse result = consultationController.findById(consultationId);
+
+        assertEquals(consultationResponse, result);
+        verify(consultationService).findById(consultationId);
     }
 
     @Test
     void shouldCreateConsultation() {
-        when(consultationService.create(any(ConsultationRequest.class))).thenReturn(consultationResponse);
+        when(consultationService.create(any(ConsultationRequest.class), eq("retry-1"))).thenReturn(consultationResponse);
 
-        ConsultationResponse result = consultationController.create(consultationRequest);
+        ConsultationResponse result = consultationController.create(consultationRequest, "retry-1");
 
         assertNotNull(result);
         assertEquals(consultationResponse.getId(), result.getId());
-        verify(consultationService).create(any(ConsultationRequest.class));
+        verify(consultationService).create(any(ConsultationRequest.class), eq("retry-1"));
+    }
+
+    @Test
+    void shouldSearchConsultations() {
+        var search = new ConsultationSearchRequest(UUID.randomUUID(), null, LocalDate.now(), ConsultationStatusEnum.SCHEDULED);
+        var pageable = PageRequest.of(0, 20);
+        when(consultationService.search(search, pageable)).thenReturn(new PageImpl<>(List.of(consultationResponse)));
+
+        Page<ConsultationResponse> result = consultationController.search(search, pageable);
+
+        assertEquals(1, result.getContent().size());
+        verify(consultationService).search(search, pageable);
+    }
+
+    @Test
+    void shouldStreamExportAsNdjson() throws Exception {
+        var startDate = LocalDate.now();
+        var endDate = startDate.plusDays(7);
+
+        var response = consultationController.export(startDate, endDate, ConsultationStatusEnum.SCHEDULED);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        verify(consultationExportService).export(
+                eq(ConsultationExportFilter.of(startDate, endDate, ConsultationStatusEnum.SCHEDULED)), any());
+    }
+
+    @Test
+    void shouldRejectExportWithInvertedRangeBeforeStreaming() {
+        var startDate = LocalDate.now();
+
+        assertThrows(BadRequestException.class, () -> consultationController.export(startDate, startDate.minusDays(1), null));
+        verifyNoInteractions(consultationExportService);
+    }
+
+    @Test
+    void shouldFindArchivedConsultations() {
+        var startDate = LocalDate.now().minusYears(1);
+        var pageable = PageRequest.of(0, 50);
+        when(consultationArchiveService.findArchived(any(), eq(pageable))).thenReturn(List.of());
+
+        var result = consultationController.findArchived(startDate, startDate.plusMonths(1), null, null, pageable);
+
+        assertTrue(result.isEmpty());
+        verify(consultationArchiveService).findArchived(
+                ConsultationArchiveFilter.of(startDate, startDate.plusMonths(1), null, null), pageable);
+    }
+
+    @Test
+    void shouldFindAvailability() {
+        var medicId = UUID.randomUUID();
+        var date = LocalDate.now().plusDays(1);
+        var availability = new AvailabilityResponse(medicId, date, List.of());
+        when(consultationAvailabilityService.findAvailability(medicId, date, LocalTime.of(0, 30))).thenReturn(availability);
+
+        AvailabilityResponse result = consultationController.findAvailability(medicId, date, LocalTime.of(0, 30));
+
+        assertEquals(availability, result);
+        verify(consultationAvailabilityService).findAvailability(medicId, date, LocalTime.of(0, 30));
+    }
+
+    @Test
+    void shouldCreateConsultationBatch() {
+        var batch = List.of(ConsultationBatchItemResponse.created(0, consultationResponse));
+        when(consultationService.createBatch(List.of(consultationRequest))).thenReturn(batch);
+
+        List<ConsultationBatchItemResponse> result = consultationController.createBatch(List.of(consultationRequest));
+
+        assertEquals(batch, result);
+        verify(consultationService).createBatch(List.of(consultationRequest));
+    }
+
+    @Test
+    void shouldCreateSeries() {
+        var seriesRequest = new ConsultationSeriesRequest(consultationRequest.medicId(), consultationRequest.patientId(),
+                consultationRequest.startDate(), consultationRequest.timeDuration(), null, ConsultationRecurrenceEnum.WEEKLY, 2, null);
+        var series = List.of(ConsultationBatchItemResponse.created(0, consultationResponse),
+                ConsultationBatchItemResponse.conflict(1, "Esse médico possui uma consulta nessa data e horario"));
+        when(consultationService.createSeries(seriesRequest)).thenReturn(series);
+
+        List<ConsultationBatchItemResponse> result = consultationController.createSeries(seriesRequest);
+
+        assertEquals(series, result);
+        verify(consultationService).createSeries(seriesRequest);
+    }
+
+    @Test
+    void shouldReplaceConsultation() {
+        when(consultationService.replace(consultationId, consultationRequest)).thenReturn(consultationResponse);
+
+        ConsultationResponse result = consultationController.replace(consultationId, consultationRequest);
+
+        assertEquals(consultationResponse, result);
+        verify(consultationService).replace(consultationId, consultationRequest);
     }
 
     @Test
     void shouldUpdateConsultation() {
-        when(consultationService.update(eq(consultationId), any(ConsultationRequest.class)))
-                .thenReturn(consultationResponse);
+        var updateRequest = new ConsultationUpdateRequest(null, null, null, null, "Nova descrição");
+        when(consultationService.update(consultationId, updateRequest)).thenReturn(consultationResponse);
 
-        ConsultationResponse result = consultationController.update(consultationId, consultationRequest);
+        ConsultationResponse result = consultationController.update(consultationId, updateRequest);
 
         assertNotNull(result);
         assertEquals(consultationResponse.getId(), result.getId());
-        verify(consultationService).update(eq(consultationId), any(ConsultationRequest.class));
+        verify(consultationService).update(consultationId, updateRequest);
     }
 
     @Test
@@ -146,4 +356,12 @@ class ConsultationControllerTest {
 
         verify(consultationService).cancel(consultationId);
     }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        var request = new MockHttpServletRequest("GET", "/api/consultations");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
@@ -0,0 +1,233 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationChangeKafkaRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationKafkaRequest;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersions;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicScheduleIndex;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.OptimisticLockRetry;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.producer.ConsultationKafkaProducer;
+import com.fiap.itmoura.consultation_service.shared.infrastructure.version.ListingVersions;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Com o aspecto do repositório ativo, uma tentativa desfeita por conflito de versão
+ * não pode publicar evento nem mexer no índice; só a tentativa que faz commit publica.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({ConsultationSaveAspect.class, ConsultationEventPublisher.class, MedicScheduleIndex.class,
+        ConsultationVersions.class, ListingVersions.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConsultationSaveAspectTest {
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MedicScheduleIndex medicScheduleIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ConsultationEventPublisher consultationEventPublisher;
+
+    @Autowired
+    private ConsultationVersions consultationVersions;
+
+    @MockitoBean
+    private ConsultationKafkaProducer producer;
+
+    private OptimisticLockRetry optimisticLockRetry;
+    private Consultation consultation;
+
+    @BeforeEach
+    void setUp() {
+        optimisticLockRetry = new OptimisticLockRetry(new SimpleMeterRegistry(), transactionManager, 3,
+                Duration.ofMillis(1), Duration.ofMillis(2));
+
+        var medic = userRepository.save(user("medic@example.com", TypeUserEnum.MEDIC));
+        var patient = userRepository.save(user("patient@example.com", TypeUserEnum.PATIENT));
+        var startDate = LocalDateTime.now().plusDays(1).withNano(0);
+        consultation = consultationRepository.save(Consultation.create(medic, patient, startDate, startDate.plusHours(1), ""));
+        clearInvocations(producer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        consultationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldPublishOnlyTheAttemptThatCommits() throws Exception {
+        var attempts = new AtomicInteger();
+
+        optimisticLockRetry.inTransaction("cancel", () -> {
+            var current = consultationRepository.findById(consultation.getId()).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                // Outra requisição grava a mesma linha entre a leitura e o commit desta tentativa
+                concurrentDescriptionChange();
+            } else {
+                // A tentativa anterior foi desfeita sem anunciar nada nem tirar a consulta do índice
+                verifyNoInteractions(producer);
+                assertTrue(isInIndex());
+            }
+            current.setStatus(ConsultationStatusEnum.CANCELLED);
+            return consultationRepository.save(current);
+        });
+
+        assertEquals(2, attempts.get());
+        var sent = ArgumentCaptor.forClass(ConsultationKafkaRequest.class);
+        verify(producer, times(1)).sendKafkaMessage(sent.capture());
+        assertEquals(ConsultationStatusEnum.CANCELLED, sent.getValue().status());
+        assertFalse(isInIndex());
+    }
+
+    @Test
+    void shouldLeaveIndexUntouchedWhenTheTransactionRollsBack() {
+        var transaction = new TransactionTemplate(transactionManager);
+        var version = consultationVersions.current(consultation.getStartDate().toLocalDate());
+
+        transaction.executeWithoutResult(status -> {
+            var current = consultationRepository.findById(consultation.getId()).orElseThrow();
+            current.setStatus(ConsultationStatusEnum.CANCELLED);
+            consultationRepository.save(current);
+            status.setRollbackOnly();
+        });
+
+        verifyNoInteractions(producer);
+        assertTrue(isInIndex());
+        assertEquals(version, consultationVersions.current(consultation.getStartDate().toLocalDate()));
+    }
+
+    @Test
+    void shouldBumpTheListingVersionsWithTheCommit() {
+        var date = consultation.getStartDate().toLocalDate();
+        var version = consultationVersions.current(date);
+        var global = consultationVersions.current();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            var current = consultationRepository.findById(consultation.getId()).orElseThrow();
+            current.setStatus(ConsultationStatusEnum.CANCELLED);
+            consultationRepository.save(current);
+        });
+
+        assertNotEquals(version, consultationVersions.current(date));
+        assertNotEquals(global, consultationVersions.current());
+    }
+
+    @Test
+    void shouldBumpBothDatesWhenAConsultationMovesToAnotherDay() {
+        var previousDate = consultation.getStartDate().toLocalDate();
+        var newStart = consultation.getStartDate().plusDays(1);
+        var previousVersion = consultationVersions.current(previousDate);
+        var newVersion = consultationVersions.current(newStart.toLocalDate());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            var current = consultationRepository.findById(consultation.getId()).orElseThrow();
+            current.setStartDate(newStart);
+            current.setFinalDate(newStart.plusHours(1));
+            try {
+                consultationEventPublisher.publishChanges(current, previousDate, new ConsultationChangeKafkaRequest(
+                        current.getId(), current.getVersion(), null, null, newStart, newStart.plusHours(1), null));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertNotEquals(previousVersion, consultationVersions.current(previousDate));
+        assertNotEquals(newVersion, consultationVersions.current(newStart.toLocalDate()));
+    }
+
+    @Test
+    void shouldSendOnlyTheChangeWhenCompatibilityIsDisabled() throws Exception {
+        ReflectionTestUtils.setField(consultationEventPublisher, "fullUpdateEvents", false);
+        try {
+            publishDescriptionChange();
+        } finally {
+            ReflectionTestUtils.setField(consultationEventPublisher, "fullUpdateEvents", true);
+        }
+
+        verify(producer).sendChangeMessage(argThat(change -> "Retorno".equals(change.description())));
+        verify(producer, never()).sendKafkaMessage(any());
+    }
+
+    @Test
+    void shouldAlsoSendFullEventAfterCommitByDefault() throws Exception {
+        publishDescriptionChange();
+
+        var full = ArgumentCaptor.forClass(ConsultationKafkaRequest.class);
+        var inOrder = inOrder(producer);
+        inOrder.verify(producer).sendKafkaMessage(full.capture());
+        inOrder.verify(producer).sendChangeMessage(argThat(change -> "Retorno".equals(change.description())));
+        assertEquals("Retorno", full.getValue().description());
+    }
+
+    private void publishDescriptionChange() {
+        var transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            var current = consultationRepository.findById(consultation.getId()).orElseThrow();
+            current.setDescription("Retorno");
+            try {
+                consultationEventPublisher.publishChanges(current, current.getStartDate().toLocalDate(), new ConsultationChangeKafkaRequest(
+                        current.getId(), current.getVersion(), null, null, null, null, "Retorno"));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+            verifyNoInteractions(producer);
+        });
+    }
+
+    private void concurrentDescriptionChange() {
+        var newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        newTransaction.executeWithoutResult(status -> {
+            var other = consultationRepository.findById(consultation.getId()).orElseThrow();
+            other.setDescription("alterada");
+            consultationRepository.save(other);
+        });
+        clearInvocations(producer);
+    }
+
+    private boolean isInIndex() {
+        return medicScheduleIndex.findConflict(consultation.getMedic().getId(), consultation.getStartDate(),
+                consultation.getFinalDate(), UUID.randomUUID()).isPresent();
+    }
+}
@@ -0,0 +1,166 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.JobCheckpoint;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationSnapshotCache;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersions;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.JobCheckpointLock;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ArchivedConsultationView;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveFilter;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationArchiveRepository.ArchiveCandidate;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultationArchiveServiceImplTest {
+
+    @Mock
+    private ConsultationArchiveRepository consultationArchiveRepository;
+
+    @Mock
+    private ConsultationSnapshotCache consultationSnapshotCache;
+
+    @Mock
+    private ConsultationVersions consultationVersions;
+
+    @Mock
+    private JobCheckpointLock jobCheckpointLock;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsultationArchiveServiceImpl archiveService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        archiveService = new ConsultationArchiveServiceImpl(consultationArchiveRepository, consultationSnapshotCache,
+                consultationVersions, jobCheckpointLock, transactionManager, meterRegistry, Duration.ofDays(180), 2);
+    }
+
+    @Test
+    void shouldMoveChunksUntilAPartialOneInSeparateTransactions() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        var checkpoint = givenCheckpoint();
+        var day = LocalDate.now().minusYears(1);
+        when(consultationArchiveRepository.findArchivable(any(), any(), eq(2)))
+                .thenReturn(candidates(day, 2))
+                .thenReturn(candidates(day, 2))
+                .thenReturn(candidates(day.plusDays(1), 1));
+
+        var archived = archiveService.archive();
+
+        assertEquals(5, archived);
+        verify(consultationArchiveRepository, times(3)).moveToArchive(anyList(), any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(consultationSnapshotCache, times(5)).invalidate(any());
+        verify(consultationVersions, times(2)).touch(Set.of(day));
+        verify(consultationVersions).touch(Set.of(day.plusDays(1)));
+        assertEquals(5.0, meterRegistry.counter("consultation.archive.moved").count());
+        assertEquals(day.plusDays(1).atTime(9, 0), checkpoint.getPosition());
+    }
+
+    @Test
+    void shouldSeedAndLockTheJobRowBeforeEachChunk() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        givenCheckpoint();
+        when(consultationArchiveRepository.findArchivable(any(), any(), eq(2)))
+                .thenReturn(candidates(LocalDate.now().minusYears(1), 2))
+                .thenReturn(List.of());
+        var inOrder = inOrder(jobCheckpointLock, transactionManager, consultationArchiveRepository);
+
+        archiveService.archive();
+
+        // A linha é criada fora da transação do lote; o lock vem antes da leitura dos candidatos
+        inOrder.verify(jobCheckpointLock).seed(ConsultationArchiveServiceImpl.JOB_NAME);
+        for (int i = 0; i < 2; i++) {
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(jobCheckpointLock).lock(ConsultationArchiveServiceImpl.JOB_NAME);
+            inOrder.verify(consultationArchiveRepository).findArchivable(any(), any(), eq(2));
+        }
+    }
+
+    @Test
+    void shouldUseHorizonAsCutoff() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        givenCheckpoint();
+        when(consultationArchiveRepository.findArchivable(any(), any(), anyInt())).thenReturn(List.of());
+
+        archiveService.archive();
+
+        verify(consultationArchiveRepository).findArchivable(
+                argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(179)) && cutoff.isAfter(LocalDateTime.now().minusDays(181))),
+                argThat(statuses -> statuses.contains(ConsultationStatusEnum.COMPLETED)
+                        && statuses.contains(ConsultationStatusEnum.CANCELLED)
+                        && statuses.size() == 2),
+                eq(2));
+        verifyNoInteractions(consultationSnapshotCache);
+    }
+
+    @Test
+    void shouldFindArchivedPage() {
+        var filter = ConsultationArchiveFilter.of(LocalDate.now().minusYears(1), LocalDate.now().minusMonths(11), null, null);
+        var view = new ArchivedConsultationView(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                filter.from(), filter.from().plusHours(1), ConsultationStatusEnum.COMPLETED, "Arquivo", filter.from(), LocalDateTime.now());
+        when(consultationArchiveRepository.find(filter, 20, 10)).thenReturn(List.of(view));
+
+        var result = archiveService.findArchived(filter, PageRequest.of(2, 10));
+
+        assertEquals(1, result.size());
+        assertEquals(view.id(), result.getFirst().id());
+        assertEquals(ConsultationStatusEnum.COMPLETED, result.getFirst().status());
+    }
+
+    @Test
+    void shouldRejectArchivePageAboveLimit() {
+        var filter = ConsultationArchiveFilter.of(LocalDate.now().minusYears(1), LocalDate.now().minusMonths(11), null, null);
+
+        assertThrows(BadRequestException.class, () -> archiveService.findArchived(filter, PageRequest.of(0, 500)));
+        verifyNoInteractions(consultationArchiveRepository);
+    }
+
+    @Test
+    void shouldRejectMissingOrTooWideArchiveRange() {
+        var start = LocalDate.now().minusYears(2);
+
+        assertThrows(BadRequestException.class, () -> ConsultationArchiveFilter.of(null, start, null, null));
+        assertThrows(BadRequestException.class, () -> ConsultationArchiveFilter.of(start, start.minusDays(1), null, null));
+        assertThrows(BadRequestException.class, () -> ConsultationArchiveFilter.of(start, start.plusDays(400), null, null));
+    }
+
+    private JobCheckpoint givenCheckpoint() {
+        var checkpoint = JobCheckpoint.start(ConsultationArchiveServiceImpl.JOB_NAME);
+        when(jobCheckpointLock.lock(ConsultationArchiveServiceImpl.JOB_NAME)).thenReturn(checkpoint);
+        return checkpoint;
+    }
+
+    private static List<ArchiveCandidate> candidates(LocalDate day, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ArchiveCandidate(UUID.randomUUID(), day.atTime(9 + i, 0)))
+                .toList();
+    }
+}
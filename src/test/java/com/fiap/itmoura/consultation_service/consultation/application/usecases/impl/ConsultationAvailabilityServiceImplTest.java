@@ -0,0 +1,120 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.FreeSlot;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicSlotCalendar;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.application.service.UserService;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultationAvailabilityServiceImplTest {
+
+    @Mock
+    private MedicSlotCalendar medicSlotCalendar;
+
+    @Mock
+    private UserService userService;
+
+    private ConsultationAvailabilityServiceImpl availabilityService;
+
+    private Users medic;
+    private LocalDate tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        availabilityService = new ConsultationAvailabilityServiceImpl(
+                medicSlotCalendar, userService, LocalTime.of(8, 0), LocalTime.of(18, 0));
+
+        medic = Users.builder()
+                .id(UUID.randomUUID())
+                .name("Dr. Test")
+                .email("medic@example.com")
+                .typeUserRole(TypeUserEnum.MEDIC)
+                .isActive(true)
+                .build();
+
+        tomorrow = LocalDate.now().plusDays(1);
+    }
+
+    @Test
+    void shouldSearchFreeSlotsWithinWorkingHours() {
+        var freeSlot = new FreeSlot(tomorrow.atTime(8, 0), tomorrow.atTime(18, 0));
+        when(userService.findActiveUsersByIds(List.of(medic.getId()))).thenReturn(Map.of(medic.getId(), medic));
+        when(medicSlotCalendar.findFreeSlots(medic.getId(), tomorrow.atTime(8, 0), tomorrow.atTime(18, 0), Duration.ofMinutes(30)))
+                .thenReturn(List.of(freeSlot));
+
+        var result = availabilityService.findAvailability(medic.getId(), tomorrow, LocalTime.of(0, 30));
+
+        assertEquals(medic.getId(), result.medicId());
+        assertEquals(tomorrow, result.date());
+        assertEquals(1, result.freeSlots().size());
+        assertEquals(freeSlot.startDate(), result.freeSlots().get(0).startDate());
+    }
+
+    @Test
+    void shouldReturnNoFreeSlotsForPastDate() {
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic));
+
+        var result = availabilityService.findAvailability(medic.getId(), LocalDate.now().minusDays(1), LocalTime.of(0, 30));
+
+        assertTrue(result.freeSlots().isEmpty());
+        verifyNoInteractions(medicSlotCalendar);
+    }
+
+    @Test
+    void shouldRejectUserThatIsNotMedic() {
+        var patient = Users.builder().id(UUID.randomUUID()).typeUserRole(TypeUserEnum.PATIENT).isActive(true).build();
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(patient.getId(), patient));
+
+        assertThrows(BadRequestException.class,
+                () -> availabilityService.findAvailability(patient.getId(), tomorrow, LocalTime.of(0, 30)));
+    }
+
+    @Test
+    void shouldRejectZeroDuration() {
+        assertThrows(BadRequestException.class,
+                () -> availabilityService.findAvailability(medic.getId(), tomorrow, LocalTime.MIDNIGHT));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void shouldSearchEveryMedicAndDayOfRange() {
+        var otherMedic = Users.builder().id(UUID.randomUUID()).typeUserRole(TypeUserEnum.MEDIC).isActive(true).build();
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, otherMedic.getId(), otherMedic));
+        when(medicSlotCalendar.findFreeSlots(any(), any(), any(), eq(Duration.ofHours(1)))).thenReturn(List.of());
+
+        var result = availabilityService.findAvailability(
+                List.of(medic.getId(), otherMedic.getId()), tomorrow, tomorrow.plusDays(2), LocalTime.of(1, 0));
+
+        assertEquals(6, result.size());
+        assertEquals(List.of(medic.getId(), medic.getId(), medic.getId(), otherMedic.getId(), otherMedic.getId(), otherMedic.getId()),
+                result.stream().map(availability -> availability.medicId()).toList());
+        assertEquals(List.of(tomorrow, tomorrow.plusDays(1), tomorrow.plusDays(2)),
+                result.subList(0, 3).stream().map(availability -> availability.date()).toList());
+        verify(userService, times(1)).findActiveUsersByIds(any());
+    }
+
+    @Test
+    void shouldRejectRangeLongerThanLimit() {
+        assertThrows(BadRequestException.class, () -> availabilityService.findAvailability(
+                List.of(medic.getId()), tomorrow, tomorrow.plusDays(31), LocalTime.of(1, 0)));
+    }
+}
@@ -0,0 +1,161 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationEventPublisher;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.JobCheckpointLock;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.JobCheckpointRepository;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ConsultationCompletionServiceImplTest {
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private ConsultationEventPublisher consultationEventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private ConsultationCompletionServiceImpl completionService;
+    private Users medic;
+    private Users patient;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        consultationEventPublisher = mock(ConsultationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        completionService = new ConsultationCompletionServiceImpl(consultationRepository, jobCheckpointRepository,
+                consultationEventPublisher, entityManager, new JobCheckpointLock(jobCheckpointRepository), transactionManager, meterRegistry, 2);
+
+        medic = testEntityManager.persist(user("medic@example.com", TypeUserEnum.MEDIC));
+        patient = testEntityManager.persist(user("patient@example.com", TypeUserEnum.PATIENT));
+        now = LocalDateTime.now().withNano(0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCompleteFinishedActiveConsultationsInChunks() throws Exception {
+        var finished = List.of(
+                persist(now.minusHours(10), ConsultationStatusEnum.SCHEDULED),
+                persist(now.minusHours(8), ConsultationStatusEnum.CONFIRMED),
+                persist(now.minusHours(6), ConsultationStatusEnum.SCHEDULED),
+                persist(now.minusHours(4), ConsultationStatusEnum.SCHEDULED),
+                persist(now.minusHours(2), ConsultationStatusEnum.CONFIRMED));
+        var cancelled = persist(now.minusHours(3), ConsultationStatusEnum.CANCELLED);
+        var upcoming = persist(now.plusHours(2), ConsultationStatusEnum.SCHEDULED);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        var completed = completionService.completeFinished();
+        testEntityManager.clear();
+
+        assertEquals(5, completed);
+        finished.forEach(consultation -> assertEquals(ConsultationStatusEnum.COMPLETED, status(consultation)));
+        assertEquals(ConsultationStatusEnum.CANCELLED, status(cancelled));
+        assertEquals(ConsultationStatusEnum.SCHEDULED, status(upcoming));
+
+        ArgumentCaptor<Collection<Consultation>> published = ArgumentCaptor.forClass(Collection.class);
+        verify(consultationEventPublisher, times(3)).publishAll(published.capture());
+        assertEquals(List.of(2, 2, 1), published.getAllValues().stream().map(Collection::size).toList());
+        assertTrue(published.getAllValues().stream().flatMap(Collection::stream)
+                .allMatch(consultation -> consultation.getStatus() == ConsultationStatusEnum.COMPLETED));
+        assertEquals(5.0, meterRegistry.counter("consultation.completion.completed").count());
+    }
+
+    @Test
+    void shouldResumeFromCheckpoint() throws Exception {
+        persist(now.minusHours(5), ConsultationStatusEnum.SCHEDULED);
+        var last = persist(now.minusHours(4), ConsultationStatusEnum.SCHEDULED);
+        testEntityManager.flush();
+        completionService.completeFinished();
+
+        var checkpoint = jobCheckpointRepository.findById(ConsultationCompletionServiceImpl.JOB_NAME).orElseThrow();
+        assertEquals(last.getFinalDate(), checkpoint.getPosition());
+        assertEquals(last.getId(), checkpoint.getLastId());
+
+        var later = persist(now.minusHours(1), ConsultationStatusEnum.SCHEDULED);
+        testEntityManager.flush();
+        clearInvocations(consultationEventPublisher);
+
+        assertEquals(1, completionService.completeFinished());
+        verify(consultationEventPublisher).publishAll(argThat(chunk -> chunk.size() == 1
+                && chunk.iterator().next().getId().equals(later.getId())));
+        assertEquals(0, completionService.completeFinished());
+    }
+
+    @Test
+    void shouldNotPublishConsultationCancelledBetweenReadAndUpdate() throws Exception {
+        var finished = persist(now.minusHours(5), ConsultationStatusEnum.SCHEDULED);
+        var cancelledMeanwhile = persist(now.minusHours(4), ConsultationStatusEnum.CONFIRMED);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Cancela uma das consultas logo depois da leitura do lote, antes do UPDATE em massa
+        var repository = mock(ConsultationRepository.class, AdditionalAnswers.delegatesTo(consultationRepository));
+        doAnswer(invocation -> {
+            var chunk = consultationRepository.findFinishedAfter(invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2), invocation.getArgument(3));
+            entityManager.createQuery("UPDATE Consultation c SET c.status = :status WHERE c.id = :id")
+                    .setParameter("status", ConsultationStatusEnum.CANCELLED)
+                    .setParameter("id", cancelledMeanwhile.getId())
+                    .executeUpdate();
+            return chunk;
+        }).when(repository).findFinishedAfter(any(), any(), any(), any());
+        completionService = new ConsultationCompletionServiceImpl(repository, jobCheckpointRepository,
+                consultationEventPublisher, entityManager, new JobCheckpointLock(jobCheckpointRepository), transactionManager, meterRegistry, 2);
+
+        assertEquals(1, completionService.completeFinished());
+        testEntityManager.clear();
+
+        assertEquals(ConsultationStatusEnum.COMPLETED, status(finished));
+        assertEquals(ConsultationStatusEnum.CANCELLED, status(cancelledMeanwhile));
+        verify(consultationEventPublisher).publishAll(argThat(chunk -> chunk.size() == 1
+                && chunk.iterator().next().getId().equals(finished.getId())));
+        assertEquals(1.0, meterRegistry.counter("consultation.completion.completed").count());
+    }
+
+    private ConsultationStatusEnum status(Consultation consultation) {
+        return consultationRepository.findById(consultation.getId()).orElseThrow().getStatus();
+    }
+
+    private Consultation persist(LocalDateTime finalDate, ConsultationStatusEnum status) {
+        var consultation = Consultation.create(medic, patient, finalDate.minusHours(1), finalDate, "Conclusão");
+        consultation.setStatus(status);
+        return testEntityManager.persist(consultation);
+    }
+}
@@ -0,0 +1,84 @@
+package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationExportFilter;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationExportQuery;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultationExportServiceImplTest {
+
+    @Mock
+    private ConsultationExportQuery consultationExportQuery;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private ConsultationExportServiceImpl exportService;
+
+    private Users medic;
+    private Users patient;
+    private ConsultationExportFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ConsultationExportServiceImpl(consultationExportQuery, objectMapper);
+
+        medic = Users.builder().id(UUID.randomUUID()).name("Dr. Test").typeUserRole(TypeUserEnum.MEDIC).build();
+        patient = Users.builder().id(UUID.randomUUID()).name("Patient Test").typeUserRole(TypeUserEnum.PATIENT).build();
+        filter = ConsultationExportFilter.of(null, null, null);
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLineAndDetachEachConsultation() throws Exception {
+        var first = consultation("Primeira");
+        var second = consultation("Segunda");
+        var closed = new AtomicBoolean();
+        when(consultationExportQuery.stream(filter)).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        var output = new ByteArrayOutputStream();
+
+        var exported = exportService.export(filter, output);
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exported);
+        assertEquals(2, lines.length);
+        assertEquals(first.getId().toString(), objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("Segunda", objectMapper.readTree(lines[1]).get("description").asText());
+        verify(consultationExportQuery).detach(first);
+        verify(consultationExportQuery).detach(second);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void shouldWriteNothingWhenThereAreNoConsultations() throws Exception {
+        when(consultationExportQuery.stream(filter)).thenReturn(Stream.empty());
+        var output = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.export(filter, output));
+        assertEquals(0, output.size());
+    }
+
+    private Consultation consultation(String description) {
+        var start = LocalDateTime.now().plusDays(1).withNano(0);
+        var consultation = Consultation.create(medic, patient, start, start.plusMinutes(30), description);
+        consultation.setId(UUID.randomUUID());
+        return consultation;
+    }
+}
@@ -1,34 +1,74 @@
 package com.fiap.itmoura.consultation_service.consultation.application.usecases.impl;
 
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationChangeKafkaRequest;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSeriesRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationUpdateRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationBatchItemResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationPageResponse;
 import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.aspect.ConsultationEventPublisher;
 import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationRecurrenceEnum;
 import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationSnapshotCache;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.ConsultationVersion;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.cache.DailyAgendaCache;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.idempotency.IdempotencyStore;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicScheduleIndex;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicSlotCalendar;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.ScheduledSlot;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.MedicBookingLocks;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.OptimisticLockRetry;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationCursor;
 import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView;
 import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
 import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestException;
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.application.service.UserService;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +80,34 @@ class ConsultationServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private MedicScheduleIndex medicScheduleIndex;
+
+    @Mock
+    private MedicSlotCalendar medicSlotCalendar;
+
+    @Spy
+    private MedicBookingLocks medicBookingLocks = new MedicBookingLocks(new SimpleMeterRegistry(), 16);
+
+    @Mock
+    private ConsultationSnapshotCache consultationSnapshotCache;
+
+    @Mock
+    private DailyAgendaCache dailyAgendaCache;
+
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(
+            new SimpleMeterRegistry(), mock(PlatformTransactionManager.class), 3, Duration.ofMillis(1), Duration.ofMillis(2));
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Mock
+    private ConsultationEventPublisher consultationEventPublisher;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -96,43 +164,140 @@ class ConsultationServiceImplTest {
     }
 
     @Test
-    void shouldFindAllConsultations() {
-        when(consultationRepository.findAll()).thenReturn(List.of(consultation));
+    void shouldFindFirstPageOfConsultations() {
+        when(consultationRepository.findFirstPage(Limit.of(21))).thenReturn(List.of(view(consultation)));
 
-        List<ConsultationResponse> result = consultationService.findAll();
+        ConsultationPageResponse result = consultationService.findAll(null, null);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(consultationRepository).findAll();
+        assertEquals(1, result.content().size());
+        assertNull(result.nextCursor());
+        verify(consultationRepository).findFirstPage(Limit.of(21));
+        verify(consultationRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldReturnCursorOfLastItemWhenThereIsNextPage() {
+        var next = Consultation.create(medic, patient, consultation.getStartDate().plusHours(1), consultation.getFinalDate().plusHours(1), "Próxima");
+        next.setId(UUID.randomUUID());
+        when(consultationRepository.findFirstPage(Limit.of(2))).thenReturn(List.of(view(consultation), view(next)));
+
+        ConsultationPageResponse result = consultationService.findAll(null, 1);
+
+        assertEquals(1, result.content().size());
+        assertEquals(ConsultationCursor.after(view(consultation)), ConsultationCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void shouldContinueFromCursor() {
+        var cursor = ConsultationCursor.after(view(consultation));
+        when(consultationRepository.findPageAfter(cursor.startDate(), cursor.id(), Limit.of(11))).thenReturn(List.of());
+
+        ConsultationPageResponse result = consultationService.findAll(cursor.encode(), 10);
+
+        assertTrue(result.content().isEmpty());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void shouldRejectInvalidCursorOrPageSize() {
+        assertThrows(BadRequestException.class, () -> consultationService.findAll("não-é-um-cursor", 10));
+        assertThrows(BadRequestException.class, () -> consultationService.findAll(null, 0));
+        assertThrows(BadRequestException.class, () -> consultationService.findAll(null, 101));
     }
 
     @Test
     void shouldFindAllByDate() {
-        LocalDate date = LocalDate.now();
+        LocalDate date = LocalDate.now().plusDays(10);
         LocalDateTime startDate = date.atStartOfDay();
         LocalDateTime finalDate = date.atTime(LocalTime.MAX);
         
-        when(consultationRepository.findAllByDate(startDate, finalDate)).thenReturn(List.of(consultation));
+        when(consultationRepository.findAllByDate(startDate, finalDate)).thenReturn(List.of(view(consultation)));
 
-        List<ConsultationResponse> result = consultationService.findAllByDate(date);
+        List<ConsultationResponse> result = consultationService.findAllByDate(date, new ConsultationVersion(1, 1));
 
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(consultationRepository).findAllByDate(startDate, finalDate);
     }
 
+    @Test
+    void shouldServeCachedAgendaWithoutHittingDatabase() {
+        LocalDate date = LocalDate.now();
+        var agenda = List.of(ConsultationResponse.fromView(view(consultation)));
+        var version = new ConsultationVersion(1, 1);
+        when(dailyAgendaCache.find(date, version)).thenReturn(Optional.of(agenda));
+
+        List<ConsultationResponse> result = consultationService.findAllByDate(date, version);
+
+        assertSame(agenda, result);
+        verifyNoInteractions(consultationRepository);
+    }
+
+    @Test
+    void shouldLoadFindByIdThroughSnapshotCache() {
+        givenSnapshotCacheMiss();
+        when(consultationRepository.findViewById(consultationId)).thenReturn(Optional.of(view(consultation)));
+
+        var result = consultationService.findById(consultationId);
+
+        assertEquals(consultationId, result.getId());
+        verify(consultationSnapshotCache).get(eq(consultationId), any());
+        verify(consultationRepository, times(1)).findViewById(consultationId);
+    }
+
+    @Test
+    void shouldThrowWhenFindByIdDoesNotExist() {
+        givenSnapshotCacheMiss();
+        when(consultationRepository.findViewById(consultationId)).thenReturn(Optional.empty());
+
+        assertThrows(BadRequestException.class, () -> consultationService.findById(consultationId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSearchWithDefaultSortByStartDate() {
+        var search = new ConsultationSearchRequest(medic.getId(), null, null, null);
+        when(consultationRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(consultation)));
+
+        Page<ConsultationResponse> result = consultationService.search(search, PageRequest.of(0, 20));
+
+        assertEquals(1, result.getTotalElements());
+        verify(consultationRepository).findAll(any(Specification.class), eq(PageRequest.of(0, 20, Sort.by("startDate", "id"))));
+    }
+
+    @Test
+    void shouldRejectSearchPageAboveLimit() {
+        assertThrows(BadRequestException.class,
+                () -> consultationService.search(new ConsultationSearchRequest(null, null, null, null), PageRequest.of(0, 101)));
+    }
+
     @Test
     void shouldCreateConsultation() {
-        when(userService.findByIdUsers(medic.getId())).thenReturn(medic);
-        when(userService.findByIdUsers(patient.getId())).thenReturn(patient);
-        when(consultationRepository.findConflictingConsultation(any(), any(), any())).thenReturn(Optional.empty());
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId(), patient.getId())))
+                .thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any())).thenReturn(Optional.empty());
         when(consultationRepository.save(any(Consultation.class))).thenReturn(consultation);
 
         ConsultationResponse result = consultationService.create(consultationRequest);
 
         assertNotNull(result);
-        verify(userService).findByIdUsers(medic.getId());
-        verify(userService).findByIdUsers(patient.getId());
+        verify(userService, times(1)).findRequiredActiveUsers(Set.of(medic.getId(), patient.getId()));
+        verify(userService, never()).findByIdUsers(any());
+        verify(consultationRepository).save(any(Consultation.class));
+    }
+
+    @Test
+    void shouldSkipScheduleIndexWhenSlotCalendarIsFree() {
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId(), patient.getId())))
+                .thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(medicSlotCalendar.isFree(eq(medic.getId()), any(), any())).thenReturn(true);
+        when(consultationRepository.save(any(Consultation.class))).thenReturn(consultation);
+
+        consultationService.create(consultationRequest);
+
+        verify(medicScheduleIndex, never()).findConflict(any(), any(), any(), any());
         verify(consultationRepository).save(any(Consultation.class));
     }
 
@@ -159,8 +324,8 @@ class ConsultationServiceImplTest {
                 .isActive(true)
                 .build();
 
-        when(userService.findByIdUsers(medic.getId())).thenReturn(nonMedic);
-        when(userService.findByIdUsers(patient.getId())).thenReturn(patient);
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId(), patient.getId())))
+                .thenReturn(Map.of(medic.getId(), nonMedic, patient.getId(), patient));
 
         assertThrows(BadRequestException.class, () -> consultationService.create(consultationRequest));
     }
@@ -175,19 +340,75 @@ class ConsultationServiceImplTest {
                 "Test consultation"
         );
 
-        when(userService.findByIdUsers(medic.getId())).thenReturn(medic);
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId()))).thenReturn(Map.of(medic.getId(), medic));
 
         assertThrows(BadRequestException.class, () -> consultationService.create(sameUserRequest));
     }
 
     @Test
     void shouldThrowExceptionWhenMedicHasConflictingConsultation() {
-        when(userService.findByIdUsers(medic.getId())).thenReturn(medic);
-        when(userService.findByIdUsers(patient.getId())).thenReturn(patient);
-        when(consultationRepository.findConflictingConsultation(any(), any(), any()))
-                .thenReturn(Optional.of(consultation));
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId(), patient.getId())))
+                .thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any()))
+                .thenReturn(Optional.of(new ScheduledSlot(
+                        consultationId,
+                        medic.getId(),
+                        consultation.getStartDate(),
+                        consultation.getFinalDate()
+                )));
 
         assertThrows(ConflictRequestException.class, () -> consultationService.create(consultationRequest));
+        verify(consultationRepository, never()).save(any(Consultation.class));
+    }
+
+    @Test
+    void shouldThrowConflictWhenDatabaseRejectsOverlappingConsultation() {
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId(), patient.getId())))
+                .thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(consultationRepository.save(any(Consultation.class)))
+                .thenThrow(new DataIntegrityViolationException("violates exclusion constraint \"consultation_medic_no_overlap\""));
+
+        assertThrows(ConflictRequestException.class, () -> consultationService.create(consultationRequest));
+    }
+
+    @Test
+    void shouldPropagateOtherDatabaseErrorsOnCreate() {
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId(), patient.getId())))
+                .thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(consultationRepository.save(any(Consultation.class)))
+                .thenThrow(new DataIntegrityViolationException("null value in column \"medic_id\""));
+
+        assertThrows(DataIntegrityViolationException.class, () -> consultationService.create(consultationRequest));
+    }
+
+    @Test
+    void shouldCreateThroughIdempotencyStoreWhenKeyIsPresent() {
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn(medic.getEmail());
+        var stored = ConsultationResponse.fromEntity(consultation);
+        when(idempotencyStore.execute(eq(medic.getEmail()), eq("retry-1"), eq(consultationRequest),
+                eq(ConsultationResponse.class), any())).thenReturn(stored);
+
+        var result = consultationService.create(consultationRequest, "retry-1");
+
+        assertSame(stored, result);
+        verifyNoInteractions(consultationRepository, medicScheduleIndex);
+    }
+
+    @Test
+    void shouldBypassIdempotencyStoreWithoutKey() {
+        when(userService.findRequiredActiveUsers(Set.of(medic.getId(), patient.getId())))
+                .thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(consultationRepository.save(any(Consultation.class))).thenReturn(consultation);
+
+        consultationService.create(consultationRequest, " ");
+
+        verifyNoInteractions(idempotencyStore);
+        verify(consultationRepository).save(any(Consultation.class));
     }
 
     @Test
@@ -205,6 +426,172 @@ class ConsultationServiceImplTest {
         verify(consultationRepository).save(any(Consultation.class));
     }
 
+    @Test
+    void shouldUpdateOnlyDescriptionInPlace() throws Exception {
+        var previousStart = consultation.getStartDate();
+        when(medicScheduleIndex.findMedicOf(consultationId)).thenReturn(Optional.of(medic.getId()));
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        var result = consultationService.update(consultationId,
+                new ConsultationUpdateRequest(null, null, null, null, "Retorno"));
+
+        assertEquals("Retorno", result.getDescription());
+        assertEquals(previousStart, consultation.getStartDate());
+        verify(consultationRepository, times(1)).findById(consultationId);
+        verify(medicBookingLocks).withLock(eq(medic.getId()), any());
+        var change = ArgumentCaptor.forClass(ConsultationChangeKafkaRequest.class);
+        // Flush antes de publicar: o conflito de versão cai no retry e o evento leva a versão nova
+        var inOrder = inOrder(consultationRepository, consultationEventPublisher);
+        inOrder.verify(consultationRepository).flush();
+        inOrder.verify(consultationEventPublisher).publishChanges(eq(consultation), eq(previousStart.toLocalDate()), change.capture());
+        assertEquals(consultationId, change.getValue().id());
+        assertEquals("Retorno", change.getValue().description());
+        assertNull(change.getValue().startDate());
+        assertNull(change.getValue().finalDate());
+        assertNull(change.getValue().medicId());
+        verify(consultationRepository, never()).save(any());
+        verify(userService, never()).findRequiredActiveUsers(any());
+        verify(medicScheduleIndex, never()).findConflict(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldClearAbsentDescriptionWhenReplacing() throws Exception {
+        var previousStart = consultation.getStartDate();
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        consultationService.replace(consultationId,
+                new ConsultationRequest(medic.getId(), patient.getId(), previousStart, LocalTime.of(1, 0), null));
+
+        assertNull(consultation.getDescription());
+        assertEquals(previousStart, consultation.getStartDate());
+        verify(medicBookingLocks).withLock(eq(medic.getId()), any());
+        verify(medicScheduleIndex, never()).findMedicOf(any());
+        verify(consultationEventPublisher).publishChanges(eq(consultation), any(), any());
+    }
+
+    @Test
+    void shouldKeepAbsentDescriptionWhenPatching() {
+        when(medicScheduleIndex.findMedicOf(consultationId)).thenReturn(Optional.of(medic.getId()));
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        consultationService.update(consultationId,
+                new ConsultationUpdateRequest(medic.getId(), patient.getId(), consultation.getStartDate(), LocalTime.of(1, 0), null));
+
+        assertEquals("Test consultation", consultation.getDescription());
+    }
+
+    @Test
+    void shouldKeepDurationWhenOnlyStartDateChanges() throws Exception {
+        var newStart = consultation.getStartDate().plusDays(1);
+        var duration = Duration.between(consultation.getStartDate(), consultation.getFinalDate());
+        when(medicScheduleIndex.findMedicOf(consultationId)).thenReturn(Optional.of(medic.getId()));
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        consultationService.update(consultationId, new ConsultationUpdateRequest(null, null, newStart, null, null));
+
+        assertEquals(newStart, consultation.getStartDate());
+        assertEquals(newStart.plus(duration), consultation.getFinalDate());
+        var change = ArgumentCaptor.forClass(ConsultationChangeKafkaRequest.class);
+        verify(consultationEventPublisher).publishChanges(eq(consultation), any(), change.capture());
+        assertEquals(newStart, change.getValue().startDate());
+        assertEquals(newStart.plus(duration), change.getValue().finalDate());
+        assertNull(change.getValue().description());
+        verify(medicScheduleIndex).findConflict(medic.getId(), newStart, newStart.plus(duration), consultationId);
+    }
+
+    @Test
+    void shouldRejectUpdateThatConflictsWithMedicSchedule() throws Exception {
+        var newStart = consultation.getStartDate().plusHours(3);
+        when(medicScheduleIndex.findMedicOf(consultationId)).thenReturn(Optional.of(medic.getId()));
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any()))
+                .thenReturn(Optional.of(new ScheduledSlot(UUID.randomUUID(), medic.getId(), newStart, newStart.plusHours(1))));
+
+        assertThrows(ConflictRequestException.class, () -> consultationService.update(consultationId,
+                new ConsultationUpdateRequest(null, null, newStart, null, null)));
+        verify(consultationEventPublisher, never()).publishChanges(any(), any(), any());
+    }
+
+    @Test
+    void shouldRelockUnderTheLoadedMedicWhenTheIndexIsStale() throws Exception {
+        var previousMedicId = UUID.randomUUID();
+        when(medicScheduleIndex.findMedicOf(consultationId)).thenReturn(Optional.of(previousMedicId));
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        var result = consultationService.update(consultationId,
+                new ConsultationUpdateRequest(null, null, null, null, "Retorno"));
+
+        assertEquals("Retorno", result.getDescription());
+        var inOrder = inOrder(medicBookingLocks);
+        inOrder.verify(medicBookingLocks).withLock(eq(previousMedicId), any());
+        inOrder.verify(medicBookingLocks).withLock(eq(medic.getId()), any());
+        verify(consultationEventPublisher, times(1)).publishChanges(eq(consultation), any(), any());
+    }
+
+    @Test
+    void shouldNotPublishWhenUpdateChangesNothing() throws Exception {
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        var result = consultationService.update(consultationId, new ConsultationUpdateRequest(
+                medic.getId(), patient.getId(), consultation.getStartDate(), null, consultation.getDescription()));
+
+        assertEquals(consultationId, result.getId());
+        verify(consultationEventPublisher, never()).publishChanges(any(), any(), any());
+        verify(userService, never()).findRequiredActiveUsers(any());
+    }
+
+    @Test
+    void shouldResolveNewMedicAndPatientInOneLookupOnUpdate() throws Exception {
+        var newMedic = Users.builder().id(UUID.randomUUID()).typeUserRole(TypeUserEnum.MEDIC).isActive(true).build();
+        var newPatient = Users.builder().id(UUID.randomUUID()).typeUserRole(TypeUserEnum.PATIENT).isActive(true).build();
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+        when(userService.findRequiredActiveUsers(Set.of(newMedic.getId(), newPatient.getId())))
+                .thenReturn(Map.of(newMedic.getId(), newMedic, newPatient.getId(), newPatient));
+        when(medicScheduleIndex.findConflict(any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        consultationService.update(consultationId, new ConsultationUpdateRequest(newMedic.getId(), newPatient.getId(), null, null, null));
+
+        assertSame(newMedic, consultation.getMedic());
+        assertSame(newPatient, consultation.getPatient());
+        verify(medicBookingLocks).withLock(eq(newMedic.getId()), any());
+        verify(medicScheduleIndex, never()).findMedicOf(any());
+        verify(userService, times(1)).findRequiredActiveUsers(any());
+        verify(userService, never()).findByIdUsers(any());
+    }
+
+    @Test
+    void shouldRetryConfirmAfterOptimisticLockConflict() {
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn(patient.getEmail());
+        when(userService.findByEmailUsers(patient.getEmail())).thenReturn(patient);
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+        when(consultationRepository.save(any(Consultation.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Consultation.class, consultationId))
+                .thenReturn(consultation);
+
+        ConsultationResponse result = consultationService.confirm(consultationId);
+
+        assertEquals(ConsultationStatusEnum.CONFIRMED, result.getStatus());
+        verify(consultationRepository, times(2)).findById(consultationId);
+        verify(userService).findByEmailUsers(patient.getEmail());
+    }
+
+    @Test
+    void shouldThrowConflictWhenCancelKeepsLosingTheRace() {
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn(patient.getEmail());
+        when(userService.findByEmailUsers(patient.getEmail())).thenReturn(patient);
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+        when(consultationRepository.save(any(Consultation.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Consultation.class, consultationId));
+
+        assertThrows(ConflictRequestException.class, () -> consultationService.cancel(consultationId));
+        verify(consultationRepository, times(3)).save(any(Consultation.class));
+    }
+
     @Test
     void shouldThrowExceptionWhenNonPatientTriesToConfirm() {
         SecurityContextHolder.setContext(securityContext);
@@ -248,4 +635,245 @@ class ConsultationServiceImplTest {
 
         assertThrows(BadRequestException.class, () -> consultationService.confirm(consultationId));
     }
+
+    @Test
+    void shouldNotConfirmCompletedConsultation() {
+        consultation.setStatus(ConsultationStatusEnum.COMPLETED);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn(patient.getEmail());
+        when(userService.findByEmailUsers(patient.getEmail())).thenReturn(patient);
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        assertThrows(BadRequestException.class, () -> consultationService.confirm(consultationId));
+        assertEquals(ConsultationStatusEnum.COMPLETED, consultation.getStatus());
+        verify(consultationRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldNotCancelCompletedConsultation() {
+        consultation.setStatus(ConsultationStatusEnum.COMPLETED);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn(patient.getEmail());
+        when(userService.findByEmailUsers(patient.getEmail())).thenReturn(patient);
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        assertThrows(BadRequestException.class, () -> consultationService.cancel(consultationId));
+        assertEquals(ConsultationStatusEnum.COMPLETED, consultation.getStatus());
+        verify(consultationRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldNotUpdateCompletedConsultation() throws Exception {
+        consultation.setStatus(ConsultationStatusEnum.COMPLETED);
+        var previousStart = consultation.getStartDate();
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(consultation));
+
+        assertThrows(BadRequestException.class, () -> consultationService.update(consultationId,
+                new ConsultationUpdateRequest(null, null, previousStart.plusDays(1), null, null)));
+        assertEquals(previousStart, consultation.getStartDate());
+        verify(consultationEventPublisher, never()).publishChanges(any(), any(), any());
+    }
+
+    @Test
+    void shouldCreateBatchWithSingleUserLookupAndSingleSave() {
+        var startDate = LocalDateTime.now().plusDays(2).withNano(0);
+        var requests = List.of(
+                new ConsultationRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(0, 30), "Primeira"),
+                new ConsultationRequest(medic.getId(), patient.getId(), startDate.plusMinutes(30), LocalTime.of(0, 30), "Segunda"));
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+
+        var result = consultationService.createBatch(requests);
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(item -> item.status() == ConsultationBatchItemResponse.Status.CREATED));
+        verify(userService, times(1)).findActiveUsersByIds(any());
+        // Uma busca por médico cobrindo a janela do lote, sem passar pelo índice local
+        verify(consultationRepository, times(1)).findActiveSlotsOfMedicBetween(medic.getId(), startDate, startDate.plusHours(1));
+        verify(medicScheduleIndex, never()).findConflict(any(), any(), any(), any());
+        verify(consultationRepository, times(1)).saveAll(anyList());
+        verify(consultationRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldReportPerItemResultsInBatch() {
+        var startDate = LocalDateTime.now().plusDays(2).withNano(0);
+        var unknownPatient = UUID.randomUUID();
+        var requests = List.of(
+                new ConsultationRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(1, 0), "Aceita"),
+                new ConsultationRequest(medic.getId(), patient.getId(), startDate.plusMinutes(30), LocalTime.of(1, 0), "Conflita com o lote"),
+                new ConsultationRequest(medic.getId(), unknownPatient, startDate.plusHours(3), LocalTime.of(1, 0), "Paciente inexistente"),
+                new ConsultationRequest(medic.getId(), patient.getId(), LocalDateTime.now().minusDays(1), LocalTime.of(1, 0), "Passado"),
+                new ConsultationRequest(medic.getId(), patient.getId(), startDate.plusHours(5), LocalTime.of(1, 0), "Conflita com a agenda"));
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(consultationRepository.findActiveSlotsOfMedicBetween(medic.getId(), startDate, startDate.plusHours(6))).thenReturn(List.of(
+                new ScheduledSlot(UUID.randomUUID(), medic.getId(), startDate.plusHours(5), startDate.plusHours(6))));
+
+        var result = consultationService.createBatch(requests);
+
+        assertEquals(List.of(
+                ConsultationBatchItemResponse.Status.CREATED,
+                ConsultationBatchItemResponse.Status.CONFLICT,
+                ConsultationBatchItemResponse.Status.INVALID,
+                ConsultationBatchItemResponse.Status.INVALID,
+                ConsultationBatchItemResponse.Status.CONFLICT), result.stream().map(ConsultationBatchItemResponse::status).toList());
+        assertEquals(2, result.get(2).index());
+        assertNotNull(result.get(0).consultation());
+        verify(consultationRepository).saveAll(argThat(saved -> ((List<?>) saved).size() == 1));
+    }
+
+    @Test
+    void shouldCreateWeeklySeriesReportingConflictingOccurrences() {
+        var startDate = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        var request = new ConsultationSeriesRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(0, 45),
+                "Acompanhamento", ConsultationRecurrenceEnum.WEEKLY, 4, null);
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(consultationRepository.findActiveSlotsOfMedicBetween(medic.getId(), startDate, startDate.plusWeeks(3).plusMinutes(45))).thenReturn(List.of(
+                new ScheduledSlot(UUID.randomUUID(), medic.getId(), startDate.plusDays(2), startDate.plusDays(2).plusHours(1)),
+                new ScheduledSlot(UUID.randomUUID(), medic.getId(), startDate.plusWeeks(2).plusMinutes(30), startDate.plusWeeks(2).plusHours(2))));
+
+        var result = consultationService.createSeries(request);
+
+        assertEquals(List.of(
+                ConsultationBatchItemResponse.Status.CREATED,
+                ConsultationBatchItemResponse.Status.CREATED,
+                ConsultationBatchItemResponse.Status.CONFLICT,
+                ConsultationBatchItemResponse.Status.CREATED), result.stream().map(ConsultationBatchItemResponse::status).toList());
+        assertEquals(startDate.plusWeeks(3), result.get(3).consultation().getStartDate());
+        assertEquals(startDate.plusWeeks(3).plusMinutes(45), result.get(3).consultation().getFinalDate());
+        verify(userService, times(1)).findActiveUsersByIds(any());
+        verify(consultationRepository, times(1)).findActiveSlotsOfMedicBetween(any(), any(), any());
+        verify(medicScheduleIndex, never()).findBooked(any(), any(), any());
+        verify(medicScheduleIndex, never()).findConflict(any(), any(), any(), any());
+        verify(consultationRepository, times(1)).saveAll(argThat(saved -> ((List<?>) saved).size() == 3));
+    }
+
+    @Test
+    void shouldReportOccurrenceBookedByAnotherNodeWhileSavingSeries() {
+        var startDate = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        var request = new ConsultationSeriesRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(1, 0),
+                "Acompanhamento", ConsultationRecurrenceEnum.WEEKLY, 3, null);
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(consultationRepository.findActiveSlotsOfMedicBetween(any(), any(), any())).thenReturn(List.of());
+        when(consultationRepository.saveAll(anyList())).thenThrow(overlapViolation());
+        when(consultationRepository.save(any(Consultation.class))).thenAnswer(invocation -> {
+            Consultation saved = invocation.getArgument(0);
+            if (saved.getStartDate().equals(startDate.plusWeeks(1))) {
+                throw overlapViolation();
+            }
+            return saved;
+        });
+
+        var result = consultationService.createSeries(request);
+
+        assertEquals(List.of(
+                ConsultationBatchItemResponse.Status.CREATED,
+                ConsultationBatchItemResponse.Status.CONFLICT,
+                ConsultationBatchItemResponse.Status.CREATED), result.stream().map(ConsultationBatchItemResponse::status).toList());
+        assertEquals(1, result.get(1).index());
+        assertEquals(startDate.plusWeeks(2), result.get(2).consultation().getStartDate());
+    }
+
+    @Test
+    void shouldExpandBiweeklySeriesUntilInclusiveDate() {
+        var startDate = LocalDateTime.now().plusDays(1).withHour(14).withMinute(0).withSecond(0).withNano(0);
+        var request = new ConsultationSeriesRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(1, 0),
+                null, ConsultationRecurrenceEnum.BIWEEKLY, null, startDate.toLocalDate().plusWeeks(6));
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(consultationRepository.findActiveSlotsOfMedicBetween(any(), any(), any())).thenReturn(List.of());
+
+        var result = consultationService.createSeries(request);
+
+        assertEquals(List.of(startDate, startDate.plusWeeks(2), startDate.plusWeeks(4), startDate.plusWeeks(6)),
+                result.stream().map(item -> item.consultation().getStartDate()).toList());
+    }
+
+    @Test
+    void shouldRejectSeriesWithBothCountAndUntil() {
+        var startDate = LocalDateTime.now().plusDays(1);
+        var request = new ConsultationSeriesRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(1, 0),
+                null, ConsultationRecurrenceEnum.WEEKLY, 4, startDate.toLocalDate().plusWeeks(4));
+
+        assertThrows(BadRequestException.class, () -> consultationService.createSeries(request));
+        verifyNoInteractions(userService, consultationRepository);
+    }
+
+    @Test
+    void shouldRejectSeriesAboveMaximumOccurrences() {
+        var startDate = LocalDateTime.now().plusDays(1);
+        var request = new ConsultationSeriesRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(1, 0),
+                null, ConsultationRecurrenceEnum.WEEKLY, null, startDate.toLocalDate().plusYears(3));
+
+        assertThrows(BadRequestException.class, () -> consultationService.createSeries(request));
+        verifyNoInteractions(userService, consultationRepository);
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() {
+        assertThrows(BadRequestException.class, () -> consultationService.createBatch(List.of()));
+        verifyNoInteractions(userService, consultationRepository);
+    }
+
+    @Test
+    void shouldReportOnlyTheItemTheDatabaseRejectsInBatch() {
+        var startDate = LocalDateTime.now().plusDays(2).withNano(0);
+        var requests = List.of(
+                new ConsultationRequest(medic.getId(), patient.getId(), startDate, LocalTime.of(0, 30), "Livre"),
+                new ConsultationRequest(medic.getId(), patient.getId(), startDate.plusHours(1), LocalTime.of(0, 30), "Gravada por outro nó"));
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(consultationRepository.saveAll(anyList())).thenThrow(overlapViolation());
+        when(consultationRepository.save(any(Consultation.class))).thenAnswer(invocation -> {
+            Consultation saved = invocation.getArgument(0);
+            if (saved.getDescription().equals("Gravada por outro nó")) {
+                throw overlapViolation();
+            }
+            return saved;
+        });
+
+        var result = consultationService.createBatch(requests);
+
+        assertEquals(List.of(
+                ConsultationBatchItemResponse.Status.CREATED,
+                ConsultationBatchItemResponse.Status.CONFLICT), result.stream().map(ConsultationBatchItemResponse::status).toList());
+        assertEquals("Livre", result.get(0).consultation().getDescription());
+        assertEquals(1, result.get(1).index());
+        verify(consultationRepository, times(2)).save(any(Consultation.class));
+    }
+
+    @Test
+    void shouldRetryItemsOfRejectedBatchAsNewRows() {
+        var requests = List.of(consultationRequest);
+        when(userService.findActiveUsersByIds(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(consultationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            // Simula o persist desfeito: id e versão ficam na entidade
+            List<Consultation> batch = invocation.getArgument(0);
+            batch.forEach(item -> {
+                item.setId(UUID.randomUUID());
+                item.setVersion(0L);
+            });
+            throw overlapViolation();
+        });
+        var captor = ArgumentCaptor.forClass(Consultation.class);
+        when(consultationRepository.save(captor.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        consultationService.createBatch(requests);
+
+        assertNull(captor.getValue().getId());
+        assertNull(captor.getValue().getVersion());
+    }
+
+    private void givenSnapshotCacheMiss() {
+        when(consultationSnapshotCache.get(eq(consultationId), any())).thenAnswer(invocation ->
+                invocation.<Function<UUID, ConsultationResponse>>getArgument(1).apply(consultationId));
+    }
+
+    private static DataIntegrityViolationException overlapViolation() {
+        return new DataIntegrityViolationException(
+                "could not execute statement", new RuntimeException("violates exclusion constraint \"consultation_medic_no_overlap\""));
+    }
+
+    private static ConsultationView view(Consultation consultation) {
+        return ConsultationView.of(consultation);
+    }
 }
@@ -0,0 +1,179 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConsultationSnapshotCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 10, 10, 0);
+    private static final LocalDate DAY = START.toLocalDate();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsultationRepository consultationRepository;
+    private ConsultationVersions consultationVersions;
+    private ConsultationSnapshotCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consultationRepository = mock(ConsultationRepository.class);
+        consultationVersions = mock(ConsultationVersions.class);
+        when(consultationRepository.findStartDateById(any())).thenReturn(Optional.of(START));
+        when(consultationVersions.current(DAY)).thenReturn(new ConsultationVersion(1, 1));
+        cache = new ConsultationSnapshotCache(meterRegistry, consultationRepository, consultationVersions, 2, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldLoadOnceAndServeFollowingReadsFromCache() {
+        var id = UUID.randomUUID();
+
+        var first = cache.get(id, this::load);
+        var second = cache.get(id, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "consultations").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "consultations").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void shouldReloadWhenAnotherNodeWroteTheDay() {
+        var id = UUID.randomUUID();
+        cache.get(id, this::load);
+
+        // Nenhum listener local roda: só a versão do dia denuncia a gravação
+        when(consultationVersions.current(DAY)).thenReturn(new ConsultationVersion(2, 1));
+        cache.get(id, this::load);
+        cache.get(id, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReloadWhenAUserChanged() {
+        var id = UUID.randomUUID();
+        cache.get(id, this::load);
+
+        when(consultationVersions.current(DAY)).thenReturn(new ConsultationVersion(1, 2));
+        cache.get(id, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReadTheVersionBeforeLoading() {
+        var id = UUID.randomUUID();
+        var inOrder = inOrder(consultationRepository, consultationVersions);
+
+        cache.get(id, key -> {
+            inOrder.verify(consultationRepository).findStartDateById(id);
+            inOrder.verify(consultationVersions).current(DAY);
+            return load(key);
+        });
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheConsultationMovedToAnotherDayWhileLoading() {
+        var id = UUID.randomUUID();
+        var moved = START.plusDays(1);
+        when(consultationVersions.current(moved.toLocalDate())).thenReturn(new ConsultationVersion(1, 1));
+
+        // A data lida primeiro ainda é a antiga; a resposta já vem no dia novo
+        cache.get(id, key -> loadAt(key, moved));
+        when(consultationRepository.findStartDateById(id)).thenReturn(Optional.of(moved));
+        cache.get(id, key -> loadAt(key, moved));
+        cache.get(id, key -> loadAt(key, moved));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldInvalidateWhenConsultationIsSaved() {
+        var id = UUID.randomUUID();
+        cache.get(id, this::load);
+
+        cache.onConsultationSaved(consultation(id));
+        cache.get(id, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheFailedLoads() {
+        var id = UUID.randomUUID();
+
+        assertThrows(IllegalStateException.class, () -> cache.get(id, key -> {
+            throw new IllegalStateException("não encontrada");
+        }));
+        cache.get(id, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldLeaveMissingConsultationToTheLoader() {
+        var id = UUID.randomUUID();
+        when(consultationRepository.findStartDateById(id)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> cache.get(id, key -> {
+            throw new IllegalStateException("não encontrada");
+        }));
+        verify(consultationVersions, never()).current(any(LocalDate.class));
+    }
+
+    @Test
+    void shouldEvictBeyondMaximumSize() {
+        for (int i = 0; i < 10; i++) {
+            cache.get(UUID.randomUUID(), this::load);
+        }
+
+        assertTrue(cache.size() <= 2, "size=" + cache.size());
+        assertTrue(meterRegistry.get("cache.evictions").tag("cache", "consultations").functionCounter().count() > 0);
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() throws InterruptedException {
+        var shortLived = new ConsultationSnapshotCache(meterRegistry, consultationRepository, consultationVersions, 10, Duration.ofMillis(50));
+        var id = UUID.randomUUID();
+        shortLived.get(id, this::load);
+
+        Thread.sleep(120);
+        shortLived.get(id, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private ConsultationResponse load(UUID id) {
+        return loadAt(id, START);
+    }
+
+    private ConsultationResponse loadAt(UUID id, LocalDateTime startDate) {
+        loads.incrementAndGet();
+        return ConsultationResponse.builder().id(id).startDate(startDate).build();
+    }
+
+    private static Consultation consultation(UUID id) {
+        var consultation = new Consultation();
+        consultation.setId(id);
+        return consultation;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.shared.infrastructure.version.ListingVersions;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * As versões são linhas de {@code listing_version}: sobem só com o commit de quem grava,
+ * só para as datas tocadas, e uma gravação de outro nó aparece na próxima leitura.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ConsultationVersions.class, UserVersions.class, ListingVersions.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConsultationVersionsTest {
+
+    @Autowired
+    private ConsultationVersions versions;
+
+    @Autowired
+    private UserVersions userVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private TransactionTemplate transaction;
+    private LocalDate day;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        day = LocalDate.now().plusDays(3);
+    }
+
+    @Test
+    void shouldChangeOnlyTheVersionOfTheTouchedDate() {
+        var before = versions.current(day);
+        var otherDay = versions.current(day.plusDays(1));
+        var global = versions.current();
+
+        transaction.executeWithoutResult(status -> versions.touch(List.of(day)));
+
+        assertNotEquals(before, versions.current(day));
+        assertEquals(otherDay, versions.current(day.plusDays(1)));
+        assertNotEquals(global, versions.current());
+    }
+
+    @Test
+    void shouldReturnTheRevisionEachDateHasAfterTheCommit() {
+        var revisions = transaction.execute(status -> versions.touch(List.of(day, day.plusDays(1))));
+
+        assertEquals(versions.current(day).revision(), revisions.get(day));
+        assertEquals(versions.current(day.plusDays(1)).revision(), revisions.get(day.plusDays(1)));
+    }
+
+    @Test
+    void shouldKeepTheVersionWhenTheWriteRollsBack() {
+        var before = versions.current(day);
+
+        transaction.executeWithoutResult(status -> {
+            versions.touch(List.of(day));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before, versions.current(day));
+    }
+
+    @Test
+    void shouldSeeTheIncrementInsideTheWritingTransaction() {
+        transaction.executeWithoutResult(status -> {
+            var before = versions.current(day);
+            versions.touch(List.of(day));
+            assertNotEquals(before, versions.current(day));
+        });
+    }
+
+    @Test
+    void shouldSeeVersionsWrittenByAnotherNode() {
+        transaction.executeWithoutResult(status -> versions.touch(List.of(day)));
+        var before = versions.current(day);
+
+        new JdbcTemplate(dataSource).update("UPDATE listing_version SET revision = revision + 1 WHERE name = ?",
+                "consultation:" + day);
+
+        assertNotEquals(before, versions.current(day));
+    }
+
+    @Test
+    void shouldChangeWhenAUserIsWritten() {
+        var before = versions.current(day);
+        var global = versions.current();
+
+        transaction.executeWithoutResult(status -> userVersions.touch());
+
+        assertNotEquals(before, versions.current(day));
+        assertNotEquals(global, versions.current());
+    }
+
+    @Test
+    void shouldKeepTheVersionWhileNothingChanges() {
+        assertEquals(versions.current(day), versions.current(day));
+        assertEquals(versions.current(), versions.current());
+    }
+}
@@ -0,0 +1,195 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationView;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DailyAgendaCacheTest {
+
+    private static final ConsultationVersion LOADED = new ConsultationVersion(1, 1);
+
+    private ConsultationRepository consultationRepository;
+    private ConsultationVersions consultationVersions;
+    private DailyAgendaCache cache;
+    private Users medic;
+    private Users patient;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        consultationRepository = mock(ConsultationRepository.class);
+        consultationVersions = mock(ConsultationVersions.class);
+        when(consultationRepository.findAllByDate(any(), any())).thenReturn(List.of());
+        when(consultationVersions.current(any(LocalDate.class))).thenReturn(LOADED);
+        cache = new DailyAgendaCache(consultationRepository, consultationVersions);
+        medic = user(TypeUserEnum.MEDIC);
+        patient = user(TypeUserEnum.PATIENT);
+        today = LocalDate.of(2030, 3, 10);
+    }
+
+    @Test
+    void shouldWarmTodayAndTomorrowAndServeUnchangedDaysFromMemory() {
+        var existing = consultation(today.atTime(10, 0));
+        givenDay(today, existing);
+
+        cache.rollOver(today);
+        clearInvocations(consultationRepository, consultationVersions);
+
+        assertEquals(List.of(existing.getId()), ids(today, LOADED));
+        assertTrue(cache.find(today.plusDays(1), LOADED).orElseThrow().isEmpty());
+        assertTrue(cache.find(today.plusDays(2), LOADED).isEmpty());
+        verifyNoInteractions(consultationRepository, consultationVersions);
+    }
+
+    @Test
+    void shouldApplySavedConsultationInOrderWithoutReloading() {
+        var late = consultation(today.atTime(15, 0));
+        givenDay(today, late);
+        cache.rollOver(today);
+        clearInvocations(consultationRepository, consultationVersions);
+
+        var early = consultation(today.atTime(9, 0));
+        cache.onConsultationSaved(early, Map.of(today, 2L));
+
+        // A revisão do commit segue a do dia: a versão nova da ETag já é servida da memória
+        assertEquals(List.of(early.getId(), late.getId()), ids(today, LOADED.withRevision(2)));
+        verifyNoInteractions(consultationRepository, consultationVersions);
+    }
+
+    @Test
+    void shouldMoveRescheduledConsultationBetweenCachedDays() {
+        var moving = consultation(today.atTime(10, 0));
+        givenDay(today, moving);
+        cache.rollOver(today);
+        clearInvocations(consultationRepository);
+
+        moving.setStartDate(today.plusDays(1).atTime(11, 0));
+        moving.setFinalDate(today.plusDays(1).atTime(12, 0));
+        cache.onConsultationSaved(moving, Map.of(today, 2L, today.plusDays(1), 2L));
+
+        assertTrue(cache.find(today, LOADED.withRevision(2)).orElseThrow().isEmpty());
+        assertEquals(List.of(moving.getId()), ids(today.plusDays(1), LOADED.withRevision(2)));
+        verifyNoInteractions(consultationRepository);
+    }
+
+    @Test
+    void shouldReplaceCancelledConsultationInPlace() {
+        var cancelled = consultation(today.atTime(10, 0));
+        givenDay(today, cancelled);
+        cache.rollOver(today);
+
+        cancelled.setStatus(ConsultationStatusEnum.CANCELLED);
+        cache.onConsultationSaved(cancelled, Map.of(today, 2L));
+
+        var agenda = cache.find(today, LOADED.withRevision(2)).orElseThrow();
+        assertEquals(1, agenda.size());
+        assertEquals(ConsultationStatusEnum.CANCELLED, agenda.getFirst().getStatus());
+    }
+
+    @Test
+    void shouldReloadOnlyTheDayWhoseVersionMovedAhead() {
+        cache.rollOver(today);
+        // Consulta gravada por outro nó: só a versão lida para a ETag denuncia a mudança
+        var elsewhere = consultation(today.atTime(10, 0));
+        givenDay(today, elsewhere);
+        clearInvocations(consultationRepository, consultationVersions);
+
+        var newer = LOADED.withRevision(2);
+        assertEquals(List.of(elsewhere.getId()), ids(today, newer));
+        assertEquals(List.of(elsewhere.getId()), ids(today, newer));
+        assertTrue(cache.find(today.plusDays(1), LOADED).orElseThrow().isEmpty());
+        verify(consultationRepository, times(1)).findAllByDate(any(), any());
+        verifyNoInteractions(consultationVersions);
+    }
+
+    @Test
+    void shouldReloadWhenAUserChanged() {
+        cache.rollOver(today);
+        clearInvocations(consultationRepository);
+
+        cache.find(today, new ConsultationVersion(1, 2));
+
+        verify(consultationRepository, times(1)).findAllByDate(today.atStartOfDay(), today.atTime(LocalTime.MAX));
+    }
+
+    @Test
+    void shouldKeepOldVersionWhenAnotherNodeCommittedInBetween() {
+        cache.rollOver(today);
+        clearInvocations(consultationRepository);
+
+        // Revisão 3 depois da 1: a 2 veio de outro nó e não está na lista
+        cache.onConsultationSaved(consultation(today.atTime(10, 0)), Map.of(today, 3L));
+        cache.find(today, LOADED.withRevision(3));
+
+        verify(consultationRepository, times(1)).findAllByDate(today.atStartOfDay(), today.atTime(LocalTime.MAX));
+    }
+
+    @Test
+    void shouldServeAgendaAheadOfAnOlderRequestVersion() {
+        cache.rollOver(today);
+        cache.onConsultationSaved(consultation(today.atTime(10, 0)), Map.of(today, 2L));
+        clearInvocations(consultationRepository);
+
+        // Versão lida antes do commit deste nó: a lista já é mais nova e é servida assim mesmo
+        assertEquals(1, cache.find(today, LOADED).orElseThrow().size());
+        verifyNoInteractions(consultationRepository);
+    }
+
+    @Test
+    void shouldReadVersionBeforeLoadingTheDay() {
+        var inOrder = inOrder(consultationVersions, consultationRepository);
+
+        cache.rollOver(today);
+
+        inOrder.verify(consultationVersions).current(today);
+        inOrder.verify(consultationRepository).findAllByDate(today.atStartOfDay(), today.atTime(LocalTime.MAX));
+    }
+
+    @Test
+    void shouldRollOverAtMidnightLoadingOnlyTheNewDay() {
+        var tomorrow = consultation(today.plusDays(1).atTime(9, 0));
+        givenDay(today.plusDays(1), tomorrow);
+        cache.rollOver(today);
+        clearInvocations(consultationRepository);
+
+        cache.rollOver(today.plusDays(1));
+
+        assertTrue(cache.find(today, LOADED).isEmpty());
+        assertEquals(List.of(tomorrow.getId()), ids(today.plusDays(1), LOADED));
+        assertTrue(cache.find(today.plusDays(2), LOADED).isPresent());
+        verify(consultationRepository, times(1)).findAllByDate(any(), any());
+    }
+
+    private void givenDay(LocalDate day, Consultation... consultations) {
+        when(consultationRepository.findAllByDate(day.atStartOfDay(), day.atTime(LocalTime.MAX)))
+                .thenReturn(List.of(consultations).stream().map(ConsultationView::of).toList());
+    }
+
+    private List<UUID> ids(LocalDate date, ConsultationVersion version) {
+        return cache.find(date, version).orElseThrow().stream().map(ConsultationResponse::getId).toList();
+    }
+
+    private Consultation consultation(LocalDateTime startDate) {
+        var consultation = Consultation.create(medic, patient, startDate, startDate.plusHours(1), "Agenda");
+        consultation.setId(UUID.randomUUID());
+        return consultation;
+    }
+}
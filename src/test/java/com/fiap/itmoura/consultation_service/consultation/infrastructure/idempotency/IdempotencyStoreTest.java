@@ -0,0 +1,263 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.IdempotencyRecordRepository;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestException;
+import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem transação de teste: a reserva da chave precisa ser commitada para valer entre chamadas
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyStoreTest {
+
+    private static final String USER = "medic@example.com";
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore idempotencyStore;
+    private ConsultationRequest request;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyStore = newStore(Duration.ofSeconds(5));
+        request = new ConsultationRequest(UUID.randomUUID(), UUID.randomUUID(),
+                LocalDateTime.now().plusDays(1).withNano(0), LocalTime.of(0, 30), "Retorno");
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void shouldReplayStoredResponseWithoutRunningAgain() {
+        var first = idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+        var second = idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+        assertEquals(1, executions.get());
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.counter("consultation.idempotency.replayed", "source", "memory").count());
+    }
+
+    @Test
+    void shouldReplayFromDatabaseOnAnotherNode() {
+        var first = idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+        var otherNode = newStore(Duration.ofSeconds(5));
+        var replayed = otherNode.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getId(), replayed.getId());
+        assertEquals(first.getStartDate(), replayed.getStartDate());
+        assertEquals(first.getMedic().lastUpdate(), replayed.getMedic().lastUpdate());
+        assertNull(replayed.getMedic().password());
+        assertEquals(1.0, meterRegistry.counter("consultation.idempotency.replayed", "source", "database").count());
+    }
+
+    @Test
+    void shouldRejectSameKeyWithDifferentRequest() {
+        idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+        var changed = new ConsultationRequest(request.medicId(), request.patientId(),
+                request.startDate().plusHours(1), request.timeDuration(), request.description());
+
+        assertThrows(BadRequestException.class, () ->
+                idempotencyStore.execute(USER, "key-1", changed, ConsultationResponse.class, this::createConsultation));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldScopeKeysByUser() {
+        idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+        idempotencyStore.execute("nurse@example.com", "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldCollapseConcurrentDuplicatesIntoSingleExecution() throws Exception {
+        var threads = 8;
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ConsultationResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, () -> {
+                        sleep(100);
+                        return createConsultation();
+                    });
+                }));
+            }
+            start.countDown();
+
+            var ids = new ArrayList<UUID>();
+            for (var future : futures) {
+                ids.add(future.get(10, TimeUnit.SECONDS).getId());
+            }
+
+            assertEquals(1, executions.get());
+            assertEquals(1, ids.stream().distinct().count());
+            assertTrue(meterRegistry.counter("consultation.idempotency.collapsed").count() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReleaseKeyWhenExecutionFails() {
+        assertThrows(ConflictRequestException.class, () ->
+                idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, () -> {
+                    executions.incrementAndGet();
+                    throw new ConflictRequestException("Esse médico possui uma consulta nessa data e horario");
+                }));
+
+        var response = idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+        assertNotNull(response);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldRejectWhileAnotherNodeIsStillRunning() {
+        var otherNode = newStore(Duration.ofMillis(200));
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> idempotencyStore.execute(USER, "key-1", request, ConsultationResponse.class, () -> {
+                holding.countDown();
+                await(release);
+                return createConsultation();
+            }));
+            await(holding);
+
+            assertThrows(ConflictRequestException.class, () ->
+                    otherNode.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation));
+            assertEquals(0, executions.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldTakeOverClaimWhoseLeaseExpired() throws Exception {
+        // Nó que reservou a chave e travou no meio da execução, sem gravar nem liberar
+        var stuckNode = newStore(Duration.ofSeconds(5), Duration.ofMillis(50));
+        var otherNode = newStore(Duration.ofSeconds(5), Duration.ofMillis(50));
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var stuck = executor.submit(() -> stuckNode.execute(USER, "key-1", request, ConsultationResponse.class, () -> {
+                holding.countDown();
+                await(release);
+                return createConsultation();
+            }));
+            await(holding);
+
+            var response = otherNode.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+            assertNotNull(response);
+            assertEquals(1, executions.get());
+
+            // O nó travado perdeu a reserva: a resposta gravada continua a de quem assumiu
+            release.countDown();
+            stuck.get(5, TimeUnit.SECONDS);
+            var replayed = newStore(Duration.ofSeconds(5))
+                    .execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+            assertEquals(response.getId(), replayed.getId());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKeepCompletedResponseBeyondTheLease() throws Exception {
+        var store = newStore(Duration.ofSeconds(5), Duration.ofMillis(50));
+        var first = store.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+        Thread.sleep(150);
+        var otherNode = newStore(Duration.ofSeconds(5), Duration.ofMillis(50));
+        var second = otherNode.execute(USER, "key-1", request, ConsultationResponse.class, this::createConsultation);
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, executions.get());
+        assertTrue(repository.findAll().getFirst().getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(30)));
+    }
+
+    private IdempotencyStore newStore(Duration waitTimeout) {
+        return newStore(waitTimeout, Duration.ofSeconds(30));
+    }
+
+    private IdempotencyStore newStore(Duration waitTimeout, Duration lease) {
+        return new IdempotencyStore(repository, new ObjectMapper().findAndRegisterModules(), meterRegistry,
+                100, Duration.ofHours(1), lease, waitTimeout, Duration.ofMillis(10));
+    }
+
+    private ConsultationResponse createConsultation() {
+        executions.incrementAndGet();
+        var now = LocalDateTime.now().withNano(0);
+        return ConsultationResponse.builder()
+                .id(UUID.randomUUID())
+                .medic(new UserDTO(request.medicId(), "Dr. Test", USER, "hash", TypeUserEnum.MEDIC, now, now))
+                .patient(new UserDTO(request.patientId(), "Patient", "patient@example.com", "hash", TypeUserEnum.PATIENT, now, now))
+                .startDate(request.startDate())
+                .finalDate(request.startDate().plusMinutes(30))
+                .status(ConsultationStatusEnum.SCHEDULED)
+                .description(request.description())
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
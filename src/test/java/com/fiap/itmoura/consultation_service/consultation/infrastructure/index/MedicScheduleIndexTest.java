@@ -0,0 +1,198 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MedicScheduleIndexTest {
+
+    @Mock
+    private ConsultationRepository consultationRepository;
+
+    @InjectMocks
+    private MedicScheduleIndex medicScheduleIndex;
+
+    private Users medic;
+    private Users patient;
+    private LocalDateTime baseDate;
+
+    @BeforeEach
+    void setUp() {
+        medic = Users.builder()
+                .id(UUID.randomUUID())
+                .name("Dr. Test")
+                .email("medic@example.com")
+                .typeUserRole(TypeUserEnum.MEDIC)
+                .isActive(true)
+                .build();
+
+        patient = Users.builder()
+                .id(UUID.randomUUID())
+                .name("Patient Test")
+                .email("patient@example.com")
+                .typeUserRole(TypeUserEnum.PATIENT)
+                .isActive(true)
+                .build();
+
+        baseDate = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void shouldLoadActiveSlotsOnRebuild() {
+        var slot = new ScheduledSlot(UUID.randomUUID(), medic.getId(), baseDate, baseDate.plusHours(1));
+        when(consultationRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(slot));
+
+        medicScheduleIndex.rebuild();
+
+        assertEquals(1, medicScheduleIndex.size());
+        assertEquals(slot, medicScheduleIndex.findConflict(medic.getId(), baseDate.plusMinutes(30), baseDate.plusMinutes(90), null).orElseThrow());
+    }
+
+    @Test
+    void shouldDetectOverlappingConsultation() {
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate, baseDate.plusHours(1)));
+
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate.minusMinutes(30), baseDate.plusMinutes(1), null).isPresent());
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate.plusMinutes(59), baseDate.plusHours(2), null).isPresent());
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate.minusHours(1), baseDate.plusHours(2), null).isPresent());
+    }
+
+    @Test
+    void shouldNotConflictWithAdjacentConsultations() {
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate, baseDate.plusHours(1)));
+
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate.minusHours(1), baseDate, null).isEmpty());
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate.plusHours(1), baseDate.plusHours(2), null).isEmpty());
+    }
+
+    @Test
+    void shouldFindLongConsultationStartedWellBeforeRequestedSlot() {
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate, baseDate.plusHours(4)));
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate.plusHours(1), baseDate.plusMinutes(70)));
+
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate.plusHours(3), baseDate.plusMinutes(200), null).isPresent());
+    }
+
+    @Test
+    void shouldIgnoreConsultationBeingUpdated() {
+        var saved = consultation(baseDate, baseDate.plusHours(1));
+        medicScheduleIndex.onConsultationSaved(saved);
+
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate, baseDate.plusHours(1), saved.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldRemoveSlotWhenConsultationIsCancelled() {
+        var saved = consultation(baseDate, baseDate.plusHours(1));
+        medicScheduleIndex.onConsultationSaved(saved);
+
+        saved.setStatus(ConsultationStatusEnum.CANCELLED);
+        medicScheduleIndex.onConsultationSaved(saved);
+
+        assertEquals(0, medicScheduleIndex.size());
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate, baseDate.plusHours(1), null).isEmpty());
+    }
+
+    @Test
+    void shouldMoveSlotWhenConsultationIsRescheduled() {
+        var saved = consultation(baseDate, baseDate.plusHours(1));
+        medicScheduleIndex.onConsultationSaved(saved);
+
+        saved.setStartDate(baseDate.plusHours(3));
+        saved.setFinalDate(baseDate.plusHours(4));
+        medicScheduleIndex.onConsultationSaved(saved);
+
+        assertEquals(1, medicScheduleIndex.size());
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate, baseDate.plusHours(1), null).isEmpty());
+        assertTrue(medicScheduleIndex.findConflict(medic.getId(), baseDate.plusHours(3), baseDate.plusHours(4), null).isPresent());
+    }
+
+    @Test
+    void shouldKnowTheMedicOfActiveConsultationsOnly() {
+        var saved = consultation(baseDate, baseDate.plusHours(1));
+        medicScheduleIndex.onConsultationSaved(saved);
+
+        assertEquals(medic.getId(), medicScheduleIndex.findMedicOf(saved.getId()).orElseThrow());
+
+        saved.setStatus(ConsultationStatusEnum.CANCELLED);
+        medicScheduleIndex.onConsultationSaved(saved);
+
+        assertTrue(medicScheduleIndex.findMedicOf(saved.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldKeepSchedulesSeparatedByMedic() {
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate, baseDate.plusHours(1)));
+
+        assertTrue(medicScheduleIndex.findConflict(UUID.randomUUID(), baseDate, baseDate.plusHours(1), null).isEmpty());
+    }
+
+    @Test
+    void shouldFindBookedSlotsTouchingRangeInStartOrder() {
+        var early = consultation(baseDate.minusHours(3), baseDate.minusHours(2));
+        var longOne = consultation(baseDate.minusHours(2), baseDate.plusHours(1));
+        var inside = consultation(baseDate.plusHours(2), baseDate.plusHours(3));
+        var after = consultation(baseDate.plusHours(5), baseDate.plusHours(6));
+        List.of(after, inside, longOne, early).forEach(medicScheduleIndex::onConsultationSaved);
+
+        var booked = medicScheduleIndex.findBooked(medic.getId(), baseDate, baseDate.plusHours(5));
+
+        assertEquals(List.of(longOne.getId(), inside.getId()), booked.stream().map(ScheduledSlot::consultationId).toList());
+    }
+
+    @Test
+    void shouldComputeFreeSlotsBetweenBookings() {
+        var opening = baseDate.withHour(8);
+        var closing = baseDate.withHour(18);
+        // 07:30-08:30 invade a abertura; 10:00-11:00 e 10:30-11:30 se sobrepõem; 11:30-11:50 deixa 11:50-12:00 livre
+        medicScheduleIndex.onConsultationSaved(consultation(opening.minusMinutes(30), opening.plusMinutes(30)));
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate, baseDate.plusHours(1)));
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate.plusMinutes(30), baseDate.plusMinutes(90)));
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate.plusMinutes(90), baseDate.plusMinutes(110)));
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate.plusHours(2), baseDate.plusHours(3)));
+
+        var freeSlots = medicScheduleIndex.findFreeSlots(medic.getId(), opening, closing, Duration.ofMinutes(30));
+
+        assertEquals(List.of(
+                new FreeSlot(opening.plusMinutes(30), baseDate),
+                new FreeSlot(baseDate.plusHours(3), closing)), freeSlots);
+    }
+
+    @Test
+    void shouldReturnWholeWindowWhenMedicHasNoBookings() {
+        var freeSlots = medicScheduleIndex.findFreeSlots(medic.getId(), baseDate, baseDate.plusHours(8), Duration.ofHours(1));
+
+        assertEquals(List.of(new FreeSlot(baseDate, baseDate.plusHours(8))), freeSlots);
+    }
+
+    @Test
+    void shouldReturnNoFreeSlotsWhenDayIsFullyBooked() {
+        medicScheduleIndex.onConsultationSaved(consultation(baseDate, baseDate.plusHours(8)));
+
+        assertTrue(medicScheduleIndex.findFreeSlots(medic.getId(), baseDate, baseDate.plusHours(8), Duration.ofMinutes(5)).isEmpty());
+    }
+
+    private Consultation consultation(LocalDateTime startDate, LocalDateTime finalDate) {
+        var consultation = Consultation.create(medic, patient, startDate, finalDate, "Test consultation");
+        consultation.setId(UUID.randomUUID());
+        return consultation;
+    }
+}
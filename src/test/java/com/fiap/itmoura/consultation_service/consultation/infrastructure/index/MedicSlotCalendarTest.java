@@ -0,0 +1,189 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.index;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MedicSlotCalendarTest {
+
+    @Mock
+    private ConsultationRepository consultationRepository;
+
+    @InjectMocks
+    private MedicSlotCalendar medicSlotCalendar;
+
+    private Users medic;
+    private Users patient;
+    private LocalDateTime baseDate;
+
+    @BeforeEach
+    void setUp() {
+        medic = Users.builder()
+                .id(UUID.randomUUID())
+                .name("Dr. Test")
+                .email("medic@example.com")
+                .typeUserRole(TypeUserEnum.MEDIC)
+                .isActive(true)
+                .build();
+
+        patient = Users.builder()
+                .id(UUID.randomUUID())
+                .name("Patient Test")
+                .email("patient@example.com")
+                .typeUserRole(TypeUserEnum.PATIENT)
+                .isActive(true)
+                .build();
+
+        baseDate = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void shouldLoadActiveSlotsOnRebuild() {
+        var slot = new ScheduledSlot(UUID.randomUUID(), medic.getId(), baseDate, baseDate.plusHours(1));
+        when(consultationRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(slot));
+
+        medicSlotCalendar.rebuild();
+
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), baseDate.plusMinutes(30), baseDate.plusMinutes(45)));
+        assertEquals(1, medicSlotCalendar.daysTracked());
+    }
+
+    @Test
+    void shouldReportOverlapsAndAcceptAdjacentIntervals() {
+        medicSlotCalendar.onConsultationSaved(consultation(baseDate, baseDate.plusHours(1)));
+
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), baseDate.minusMinutes(30), baseDate.plusMinutes(5)));
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), baseDate.plusMinutes(55), baseDate.plusHours(2)));
+        assertTrue(medicSlotCalendar.isFree(medic.getId(), baseDate.minusHours(1), baseDate));
+        assertTrue(medicSlotCalendar.isFree(medic.getId(), baseDate.plusHours(1), baseDate.plusHours(2)));
+        assertTrue(medicSlotCalendar.isFree(UUID.randomUUID(), baseDate, baseDate.plusHours(1)));
+    }
+
+    @Test
+    void shouldNeverReportFreeForUnalignedOverlap() {
+        // 10:03-10:07 ocupa os slots das 10:00 e das 10:05
+        medicSlotCalendar.onConsultationSaved(consultation(baseDate.plusMinutes(3), baseDate.plusMinutes(7)));
+
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), baseDate.plusMinutes(6), baseDate.plusMinutes(8)));
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), baseDate.plusMinutes(1), baseDate.plusMinutes(2)));
+        assertTrue(medicSlotCalendar.isFree(medic.getId(), baseDate.plusMinutes(10), baseDate.plusMinutes(20)));
+    }
+
+    @Test
+    void shouldKeepSharedSlotOccupiedWhenOneConsultationLeaves() {
+        var first = consultation(baseDate, baseDate.plusMinutes(7));
+        var second = consultation(baseDate.plusMinutes(7), baseDate.plusMinutes(20));
+        medicSlotCalendar.onConsultationSaved(first);
+        medicSlotCalendar.onConsultationSaved(second);
+
+        first.setStatus(ConsultationStatusEnum.CANCELLED);
+        medicSlotCalendar.onConsultationSaved(first);
+
+        assertTrue(medicSlotCalendar.isFree(medic.getId(), baseDate, baseDate.plusMinutes(5)));
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), baseDate.plusMinutes(5), baseDate.plusMinutes(6)));
+    }
+
+    @Test
+    void shouldMoveConsultationWhenRescheduled() {
+        var consultation = consultation(baseDate, baseDate.plusHours(1));
+        medicSlotCalendar.onConsultationSaved(consultation);
+
+        consultation.setStartDate(baseDate.plusHours(3));
+        consultation.setFinalDate(baseDate.plusHours(4));
+        medicSlotCalendar.onConsultationSaved(consultation);
+
+        assertTrue(medicSlotCalendar.isFree(medic.getId(), baseDate, baseDate.plusHours(1)));
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), baseDate.plusHours(3), baseDate.plusHours(4)));
+    }
+
+    @Test
+    void shouldFindFreeSlotsBetweenConsultations() {
+        medicSlotCalendar.onConsultationSaved(consultation(baseDate.plusHours(1), baseDate.plusHours(2)));
+        medicSlotCalendar.onConsultationSaved(consultation(baseDate.plusHours(2).plusMinutes(15), baseDate.plusHours(3)));
+
+        var freeSlots = medicSlotCalendar.findFreeSlots(medic.getId(), baseDate, baseDate.plusHours(4), Duration.ofMinutes(30));
+
+        assertEquals(List.of(
+                new FreeSlot(baseDate, baseDate.plusHours(1)),
+                new FreeSlot(baseDate.plusHours(3), baseDate.plusHours(4))
+        ), freeSlots);
+    }
+
+    @Test
+    void shouldMatchScheduleIndexForAlignedConsultations() {
+        var index = new MedicScheduleIndex(consultationRepository);
+        for (int i = 0; i < 10; i++) {
+            var consultation = consultation(baseDate.plusMinutes(45L * i), baseDate.plusMinutes(45L * i + 20));
+            medicSlotCalendar.onConsultationSaved(consultation);
+            index.onConsultationSaved(consultation);
+        }
+
+        var from = baseDate.minusHours(2);
+        var to = baseDate.plusHours(10);
+        assertEquals(index.findFreeSlots(medic.getId(), from, to, Duration.ofMinutes(15)),
+                medicSlotCalendar.findFreeSlots(medic.getId(), from, to, Duration.ofMinutes(15)));
+    }
+
+    @Test
+    void shouldRoundSearchBoundsInward() {
+        var freeSlots = medicSlotCalendar.findFreeSlots(medic.getId(), baseDate.plusMinutes(2), baseDate.plusMinutes(58), Duration.ofMinutes(5));
+
+        assertEquals(List.of(new FreeSlot(baseDate.plusMinutes(5), baseDate.plusMinutes(55))), freeSlots);
+    }
+
+    @Test
+    void shouldSplitConsultationAcrossMidnight() {
+        var midnight = baseDate.toLocalDate().plusDays(1).atStartOfDay();
+        medicSlotCalendar.onConsultationSaved(consultation(midnight.minusMinutes(30), midnight.plusMinutes(30)));
+
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), midnight.minusMinutes(5), midnight));
+        assertFalse(medicSlotCalendar.isFree(medic.getId(), midnight, midnight.plusMinutes(5)));
+        assertTrue(medicSlotCalendar.isFree(medic.getId(), midnight.plusMinutes(30), midnight.plusHours(1)));
+        assertEquals(2, medicSlotCalendar.daysTracked());
+    }
+
+    @Test
+    void shouldMergeFreeRunsAcrossMidnight() {
+        var midnight = baseDate.toLocalDate().plusDays(1).atStartOfDay();
+        medicSlotCalendar.onConsultationSaved(consultation(midnight.minusHours(2), midnight.minusHours(1)));
+
+        var freeSlots = medicSlotCalendar.findFreeSlots(medic.getId(), midnight.minusHours(2), midnight.plusHours(1), Duration.ofMinutes(5));
+
+        assertEquals(List.of(new FreeSlot(midnight.minusHours(1), midnight.plusHours(1))), freeSlots);
+    }
+
+    @Test
+    void shouldDropPastDaysOnRollover() {
+        var consultation = consultation(baseDate, baseDate.plusHours(1));
+        medicSlotCalendar.onConsultationSaved(consultation);
+
+        medicSlotCalendar.pruneBefore(baseDate.toLocalDate().plusDays(1));
+
+        assertEquals(0, medicSlotCalendar.daysTracked());
+        assertTrue(medicSlotCalendar.isFree(medic.getId(), baseDate, baseDate.plusHours(1)));
+    }
+
+    private Consultation consultation(LocalDateTime startDate, LocalDateTime finalDate) {
+        var consultation = Consultation.create(medic, patient, startDate, finalDate, "Test consultation");
+        consultation.setId(UUID.randomUUID());
+        return consultation;
+    }
+}
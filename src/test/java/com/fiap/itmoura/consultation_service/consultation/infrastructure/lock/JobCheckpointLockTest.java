@@ -0,0 +1,68 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.lock;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.JobCheckpoint;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.JobCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class JobCheckpointLockTest {
+
+    private static final String JOB_NAME = "test-job";
+
+    @Autowired
+    private JobCheckpointRepository repository;
+
+    private JobCheckpointLock lock;
+
+    @BeforeEach
+    void setUp() {
+        lock = new JobCheckpointLock(repository);
+    }
+
+    @Test
+    void shouldSeedTheRowSoTheFirstRunHasSomethingToLock() {
+        assertThrows(IllegalStateException.class, () -> lock.lock(JOB_NAME));
+
+        lock.seed(JOB_NAME);
+
+        var checkpoint = lock.lock(JOB_NAME);
+        assertEquals(JobCheckpoint.start(JOB_NAME).getPosition(), checkpoint.getPosition());
+        assertEquals(new UUID(0, 0), checkpoint.getLastId());
+    }
+
+    @Test
+    void shouldKeepTheProgressOfAnExistingRow() {
+        lock.seed(JOB_NAME);
+        var position = LocalDateTime.now().withNano(0);
+        var lastId = UUID.randomUUID();
+        lock.lock(JOB_NAME).advance(position, lastId);
+        repository.flush();
+
+        lock.seed(JOB_NAME);
+
+        var checkpoint = lock.lock(JOB_NAME);
+        assertEquals(position, checkpoint.getPosition());
+        assertEquals(lastId, checkpoint.getLastId());
+    }
+
+    @Test
+    void shouldRejectASecondInsertOfTheSameJob() {
+        var start = JobCheckpoint.start(JOB_NAME);
+        repository.seed(JOB_NAME, start.getPosition(), start.getLastId(), start.getUpdatedAt());
+
+        // É o que o nó que perde a corrida recebe; seed trata e segue com a linha do outro
+        assertThrows(DataIntegrityViolationException.class,
+                () -> repository.seed(JOB_NAME, start.getPosition(), start.getLastId(), start.getUpdatedAt()));
+    }
+}
@@ -0,0 +1,220 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.lock;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.usecases.impl.ConsultationServiceImpl;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicScheduleIndex;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.index.MedicSlotCalendar;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestException;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.application.service.UserService;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MedicBookingLocksTest {
+
+    private static final int THREADS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ConsultationRepository consultationRepository;
+
+    @Mock
+    private UserService userService;
+
+    // Nunca livre: toda verificação chega ao índice
+    @Mock
+    private MedicSlotCalendar medicSlotCalendar;
+
+    @Spy
+    private MedicScheduleIndex medicScheduleIndex = new MedicScheduleIndex(mock(ConsultationRepository.class));
+
+    @Spy
+    private MedicBookingLocks medicBookingLocks = new MedicBookingLocks(meterRegistry, 64);
+
+    @InjectMocks
+    private ConsultationServiceImpl consultationService;
+
+    @Test
+    void shouldNeverDoubleBookTheSameSlotUnderConcurrency() throws Exception {
+        var medic = user(TypeUserEnum.MEDIC);
+        var patient = user(TypeUserEnum.PATIENT);
+        when(userService.findRequiredActiveUsers(any())).thenReturn(Map.of(medic.getId(), medic, patient.getId(), patient));
+        when(consultationRepository.save(any(Consultation.class))).thenAnswer(invocation -> {
+            Consultation consultation = invocation.getArgument(0);
+            // Simula a ida ao banco entre a verificação e a gravação
+            Thread.yield();
+            consultation.setId(UUID.randomUUID());
+            medicScheduleIndex.onConsultationSaved(consultation);
+            return consultation;
+        });
+
+        var request = new ConsultationRequest(medic.getId(), patient.getId(),
+                LocalDateTime.now().plusDays(1).withNano(0), LocalTime.of(1, 0), "Stress");
+        var created = new AtomicInteger();
+        var conflicts = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            tasks.add(() -> {
+                start.await();
+                try {
+                    consultationService.create(request);
+                    created.incrementAndGet();
+                } catch (ConflictRequestException ex) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        runAll(tasks, start);
+
+        assertEquals(1, created.get());
+        assertEquals(THREADS * 4 - 1, conflicts.get());
+        assertEquals(1, medicScheduleIndex.size());
+        verify(consultationRepository, times(1)).save(any(Consultation.class));
+    }
+
+    @Test
+    void shouldNotBlockBookingsOfMedicsInOtherStripes() throws Exception {
+        var medicA = user(TypeUserEnum.MEDIC);
+        var medicB = user(TypeUserEnum.MEDIC);
+        while (medicBookingLocks.stripeIndex(medicB.getId()) == medicBookingLocks.stripeIndex(medicA.getId())) {
+            medicB = user(TypeUserEnum.MEDIC);
+        }
+
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> medicBookingLocks.withLock(medicA.getId(), () -> {
+                holding.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            var acquired = medicBookingLocks.withLock(medicB.getId(), () -> true);
+
+            assertTrue(acquired);
+            assertEquals(0.0, meterRegistry.counter("consultation.booking.lock.contended").count());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldHoldLocksOfDifferentMedicsAtTheSameTime() throws Exception {
+        var medics = new ArrayList<Users>();
+        var usedStripes = new ArrayList<Integer>();
+        while (medics.size() < THREADS) {
+            var medic = user(TypeUserEnum.MEDIC);
+            if (!usedStripes.contains(medicBookingLocks.stripeIndex(medic.getId()))) {
+                usedStripes.add(medicBookingLocks.stripeIndex(medic.getId()));
+                medics.add(medic);
+            }
+        }
+
+        // Cada thread só sai do lock quando todas estão dentro do seu: exige que os locks coexistam
+        var allInside = new CountDownLatch(THREADS);
+        var overlapped = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (var medic : medics) {
+            tasks.add(() -> {
+                start.await();
+                medicBookingLocks.withLock(medic.getId(), () -> {
+                    allInside.countDown();
+                    if (await(allInside)) {
+                        overlapped.incrementAndGet();
+                    }
+                    return null;
+                });
+                return null;
+            });
+        }
+
+        runAll(tasks, start);
+
+        assertEquals(THREADS, overlapped.get());
+    }
+
+    @Test
+    void shouldSerializeTheSameMedic() throws Exception {
+        var medic = user(TypeUserEnum.MEDIC);
+        var inside = new AtomicInteger();
+        var maxInside = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                start.await();
+                for (int i = 0; i < 10; i++) {
+                    medicBookingLocks.withLock(medic.getId(), () -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        Thread.yield();
+                        inside.decrementAndGet();
+                        return null;
+                    });
+                }
+                return null;
+            });
+        }
+
+        runAll(tasks, start);
+
+        assertEquals(1, maxInside.get());
+        assertEquals(THREADS * 10L, meterRegistry.timer("consultation.booking.lock.wait").count());
+    }
+
+    private void runAll(List<Callable<Void>> tasks, CountDownLatch start) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            var futures = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.lock;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem transação de teste: cada tentativa precisa commitar de verdade para as threads se enxergarem
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OptimisticLockRetryTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticLockRetry optimisticLockRetry;
+    private UUID consultationId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticLockRetry = new OptimisticLockRetry(meterRegistry, transactionManager, 50,
+                Duration.ofMillis(1), Duration.ofMillis(20));
+
+        var medic = userRepository.save(user("medic@example.com", TypeUserEnum.MEDIC));
+        var patient = userRepository.save(user("patient@example.com", TypeUserEnum.PATIENT));
+        var startDate = LocalDateTime.now().plusDays(1).withNano(0);
+        consultationId = consultationRepository.save(
+                Consultation.create(medic, patient, startDate, startDate.plusHours(1), "")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        consultationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldNotLoseUpdatesUnderContention() throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> {
+                optimisticLockRetry.inTransaction("append", () -> {
+                    var consultation = consultationRepository.findById(consultationId).orElseThrow();
+                    // Alarga a janela entre leitura e escrita para forçar a disputa
+                    sleep(5);
+                    consultation.setDescription(consultation.getDescription() + "x");
+                    return consultationRepository.save(consultation);
+                });
+                return null;
+            });
+        }
+
+        runAll(tasks);
+
+        var consultation = consultationRepository.findById(consultationId).orElseThrow();
+        assertEquals("x".repeat(THREADS), consultation.getDescription());
+        assertEquals(THREADS, consultation.getVersion());
+        assertTrue(meterRegistry.counter("consultation.optimistic-lock.retries", "operation", "append").count() > 0);
+        assertNull(meterRegistry.find("consultation.optimistic-lock.exhausted").counter());
+    }
+
+    @Test
+    void shouldNeverLeaveConfirmedAfterConcurrentCancel() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            setStatus(ConsultationStatusEnum.SCHEDULED);
+
+            List<Callable<Void>> tasks = List.of(
+                    () -> transition(ConsultationStatusEnum.CONFIRMED),
+                    () -> transition(ConsultationStatusEnum.CANCELLED));
+            try {
+                runAll(tasks);
+            } catch (ExecutionException e) {
+                // Confirmar depois do cancelamento é rejeitado; qualquer outra falha é erro
+                assertInstanceOf(BadRequestException.class, e.getCause());
+            }
+
+            assertEquals(ConsultationStatusEnum.CANCELLED,
+                    consultationRepository.findById(consultationId).orElseThrow().getStatus());
+        }
+    }
+
+    private Void transition(ConsultationStatusEnum target) {
+        optimisticLockRetry.inTransaction(target.name(), () -> {
+            var consultation = consultationRepository.findById(consultationId).orElseThrow();
+            if (target == ConsultationStatusEnum.CONFIRMED && consultation.getStatus() == ConsultationStatusEnum.CANCELLED) {
+                throw new BadRequestException("Não é possível confirmar uma consulta cancelada");
+            }
+            sleep(5);
+            consultation.setStatus(target);
+            return consultationRepository.save(consultation);
+        });
+        return null;
+    }
+
+    private void setStatus(ConsultationStatusEnum status) {
+        var consultation = consultationRepository.findById(consultationId).orElseThrow();
+        consultation.setStatus(status);
+        consultationRepository.save(consultation);
+    }
+
+    private void runAll(List<Callable<Void>> tasks) throws Exception {
+        var executor = Executors.newFixedThreadPool(tasks.size());
+        var start = new CountDownLatch(1);
+        try {
+            var futures = tasks.stream()
+                    .map(task -> executor.submit(() -> {
+                        start.await();
+                        return task.call();
+                    }))
+                    .toList();
+            start.countDown();
+            ExecutionException failure = null;
+            for (var future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
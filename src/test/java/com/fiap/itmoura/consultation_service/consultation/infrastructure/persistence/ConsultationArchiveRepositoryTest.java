@@ -0,0 +1,147 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ConsultationArchiveRepository.class)
+class ConsultationArchiveRepositoryTest {
+
+    private static final Set<ConsultationStatusEnum> CLOSED = EnumSet.of(ConsultationStatusEnum.COMPLETED, ConsultationStatusEnum.CANCELLED);
+
+    @Autowired
+    private ConsultationArchiveRepository consultationArchiveRepository;
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Users medic;
+    private Users otherMedic;
+    private Users patient;
+    private LocalDateTime old;
+    private LocalDateTime cutoff;
+
+    @BeforeEach
+    void setUp() {
+        consultationArchiveRepository.run();
+
+        medic = entityManager.persist(user("medic@example.com", TypeUserEnum.MEDIC));
+        otherMedic = entityManager.persist(user("other@example.com", TypeUserEnum.MEDIC));
+        patient = entityManager.persist(user("patient@example.com", TypeUserEnum.PATIENT));
+        old = LocalDate.now().minusYears(1).atTime(9, 0);
+        cutoff = LocalDateTime.now().minusDays(180);
+    }
+
+    @Test
+    void shouldSelectOnlyClosedConsultationsOlderThanCutoffInChunks() {
+        persist(medic, old, ConsultationStatusEnum.COMPLETED);
+        persist(medic, old.plusDays(1), ConsultationStatusEnum.CANCELLED);
+        persist(medic, old.plusDays(2), ConsultationStatusEnum.COMPLETED);
+        persist(medic, old.plusDays(3), ConsultationStatusEnum.SCHEDULED);
+        persist(medic, LocalDateTime.now().minusDays(1), ConsultationStatusEnum.COMPLETED);
+        entityManager.flush();
+
+        var firstChunk = consultationArchiveRepository.findArchivable(cutoff, CLOSED, 2);
+        var all = consultationArchiveRepository.findArchivable(cutoff, CLOSED, 10);
+
+        assertEquals(2, firstChunk.size());
+        assertEquals(old, firstChunk.getFirst().startDate());
+        assertEquals(3, all.size());
+    }
+
+    @Test
+    void shouldMoveRowsFromHotTableToArchive() {
+        var completed = persist(medic, old, ConsultationStatusEnum.COMPLETED);
+        var cancelled = persist(otherMedic, old.plusMonths(1), ConsultationStatusEnum.CANCELLED);
+        var active = persist(medic, old.plusDays(3), ConsultationStatusEnum.SCHEDULED);
+        entityManager.flush();
+        var archivedAt = LocalDateTime.now().withNano(0);
+
+        var candidates = consultationArchiveRepository.findArchivable(cutoff, CLOSED, 10);
+        var moved = consultationArchiveRepository.moveToArchive(candidates, archivedAt);
+        entityManager.clear();
+
+        assertEquals(2, moved);
+        assertTrue(consultationRepository.findById(completed.getId()).isEmpty());
+        assertTrue(consultationRepository.findById(cancelled.getId()).isEmpty());
+        assertTrue(consultationRepository.findById(active.getId()).isPresent());
+
+        var archived = consultationArchiveRepository.find(
+                ConsultationArchiveFilter.of(old.toLocalDate(), old.toLocalDate().plusMonths(2), null, null), 0, 10);
+        assertEquals(2, archived.size());
+        assertEquals(completed.getId(), archived.getFirst().id());
+        assertEquals(ConsultationStatusEnum.COMPLETED, archived.getFirst().status());
+        assertEquals(medic.getId(), archived.getFirst().medicId());
+        assertEquals(archivedAt, archived.getFirst().archivedAt());
+    }
+
+    @Test
+    void shouldFilterArchiveByMedicAndPage() {
+        persist(medic, old, ConsultationStatusEnum.COMPLETED);
+        persist(medic, old.plusDays(1), ConsultationStatusEnum.COMPLETED);
+        persist(otherMedic, old.plusDays(2), ConsultationStatusEnum.COMPLETED);
+        entityManager.flush();
+        consultationArchiveRepository.moveToArchive(consultationArchiveRepository.findArchivable(cutoff, CLOSED, 10), LocalDateTime.now());
+
+        var range = ConsultationArchiveFilter.of(old.toLocalDate(), old.toLocalDate().plusDays(5), medic.getId(), null);
+
+        assertEquals(2, consultationArchiveRepository.find(range, 0, 10).size());
+        assertEquals(1, consultationArchiveRepository.find(range, 1, 10).size());
+        assertEquals(old.plusDays(1), consultationArchiveRepository.find(range, 1, 10).getFirst().startDate());
+    }
+
+    @Test
+    void shouldDoNothingForEmptyChunk() {
+        assertEquals(0, consultationArchiveRepository.moveToArchive(List.of(), LocalDateTime.now()));
+    }
+
+    // O lote do teste nunca faz commit: se fosse desfeito, o próximo lote ainda precisaria criar a partição
+    @Test
+    void shouldNotRememberPartitionBeforeChunkCommits() {
+        var jdbcTemplate = mock(JdbcTemplate.class);
+        var namedTemplate = mock(NamedParameterJdbcTemplate.class);
+        when(namedTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+        var repository = new ConsultationArchiveRepository(namedTemplate);
+        ReflectionTestUtils.setField(repository, "partitioned", true);
+        var month = YearMonth.from(old);
+
+        repository.ensurePartitions(List.of(month));
+        repository.ensurePartitions(List.of(month));
+
+        verify(jdbcTemplate, times(2)).execute(contains("PARTITION OF"));
+    }
+
+    private Consultation persist(Users medic, LocalDateTime startDate, ConsultationStatusEnum status) {
+        var consultation = Consultation.create(medic, patient, startDate, startDate.plusHours(1), "Arquivo");
+        consultation.setStatus(status);
+        return entityManager.persist(consultation);
+    }
+}
@@ -0,0 +1,84 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ConsultationExportQuery.class)
+class ConsultationExportQueryTest {
+
+    @Autowired
+    private ConsultationExportQuery consultationExportQuery;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private LocalDate firstDay;
+
+    @BeforeEach
+    void setUp() {
+        var medic = entityManager.persist(user("medic@example.com", TypeUserEnum.MEDIC));
+        var patient = entityManager.persist(user("patient@example.com", TypeUserEnum.PATIENT));
+
+        firstDay = LocalDate.now().plusDays(1);
+        for (int day = 0; day < 3; day++) {
+            var start = firstDay.plusDays(day).atTime(10, 0);
+            var consultation = Consultation.create(medic, patient, start, start.plusMinutes(30), "Dia " + day);
+            if (day == 1) {
+                consultation.setStatus(ConsultationStatusEnum.CANCELLED);
+            }
+            entityManager.persist(consultation);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldStreamEverythingOrderedByStartDateWithoutFilters() {
+        try (var stream = consultationExportQuery.stream(ConsultationExportFilter.of(null, null, null))) {
+            assertEquals(List.of("Dia 0", "Dia 1", "Dia 2"), stream.map(Consultation::getDescription).toList());
+        }
+    }
+
+    @Test
+    void shouldApplyInclusiveDateRangeAndStatus() {
+        try (var stream = consultationExportQuery.stream(ConsultationExportFilter.of(firstDay.plusDays(1), firstDay.plusDays(2), null))) {
+            assertEquals(List.of("Dia 1", "Dia 2"), stream.map(Consultation::getDescription).toList());
+        }
+        try (var stream = consultationExportQuery.stream(ConsultationExportFilter.of(null, null, ConsultationStatusEnum.SCHEDULED))) {
+            assertEquals(List.of("Dia 0", "Dia 2"), stream.map(Consultation::getDescription).toList());
+        }
+    }
+
+    @Test
+    void shouldDetachExportedConsultations() {
+        try (var stream = consultationExportQuery.stream(ConsultationExportFilter.of(null, null, null))) {
+            stream.forEach(consultation -> {
+                consultationExportQuery.detach(consultation);
+                assertFalse(entityManager.getEntityManager().contains(consultation));
+                assertFalse(entityManager.getEntityManager().contains(consultation.getMedic()));
+            });
+        }
+    }
+
+    @Test
+    void shouldRejectInvertedRange() {
+        assertThrows(BadRequestException.class, () -> ConsultationExportFilter.of(firstDay.plusDays(1), firstDay, null));
+    }
+}
@@ -0,0 +1,125 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.application.dto.response.ConsultationResponse;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Garante que as leituras de consultas carregam médico e paciente na mesma query:
+ * o número de statements não cresce com a quantidade de linhas.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ConsultationFetchPlanTest {
+
+    private static final int MEDICS = 4;
+    private static final int CONSULTATIONS_PER_MEDIC = 5;
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private LocalDate day;
+    private Consultation first;
+
+    @BeforeEach
+    void setUp() {
+        day = LocalDate.now().plusDays(1);
+        for (int m = 0; m < MEDICS; m++) {
+            var medic = entityManager.persist(user("medic" + m + "@example.com", TypeUserEnum.MEDIC));
+            for (int i = 0; i < CONSULTATIONS_PER_MEDIC; i++) {
+                // Um paciente diferente por consulta, o pior caso para N+1
+                var patient = entityManager.persist(user("patient" + m + "-" + i + "@example.com", TypeUserEnum.PATIENT));
+                var start = day.atTime(8 + i, 0);
+                var consultation = entityManager.persist(Consultation.create(medic, patient, start, start.plusMinutes(30), "Consulta"));
+                if (first == null) {
+                    first = consultation;
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldListADayWithASingleStatementAndNoManagedEntities() {
+        var responses = consultationRepository.findAllByDate(day.atStartOfDay(), day.plusDays(1).atStartOfDay())
+                .stream()
+                .map(ConsultationResponse::fromView)
+                .toList();
+
+        assertEquals(MEDICS * CONSULTATIONS_PER_MEDIC, responses.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(responses.stream().allMatch(response -> response.getMedic().password() == null));
+    }
+
+    @Test
+    void shouldListAKeysetPageWithASingleStatementAndNoManagedEntities() {
+        var responses = consultationRepository.findFirstPage(Limit.of(10))
+                .stream()
+                .map(ConsultationResponse::fromView)
+                .toList();
+
+        assertEquals(10, responses.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void shouldSearchWithContentAndCountStatementsOnly() {
+        var page = consultationRepository.findAll(
+                ConsultationSpecifications.matching(new ConsultationSearchRequest(null, null, day, null)),
+                PageRequest.of(0, 5));
+
+        page.map(ConsultationResponse::fromEntity);
+        assertEquals(MEDICS * CONSULTATIONS_PER_MEDIC, page.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldLoadParticipantsWithFindById() {
+        var consultation = consultationRepository.findById(first.getId()).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(consultation.getMedic()));
+        assertTrue(Hibernate.isInitialized(consultation.getPatient()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldKeepParticipantsLazyByDefault() {
+        var consultations = consultationRepository.findAll(
+                ConsultationSpecifications.matching(new ConsultationSearchRequest(null, null, day, null)));
+
+        assertFalse(consultations.isEmpty());
+        assertTrue(consultations.stream().noneMatch(consultation -> Hibernate.isInitialized(consultation.getPatient())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,75 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ConsultationKeysetPaginationTest {
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<UUID> expectedOrder;
+
+    @BeforeEach
+    void setUp() {
+        var medic = entityManager.persist(user("medic@example.com", TypeUserEnum.MEDIC));
+        var patient = entityManager.persist(user("patient@example.com", TypeUserEnum.PATIENT));
+
+        // Várias consultas com a mesma data de início: o id desempata a ordenação
+        var startDate = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < 7; i++) {
+            var start = startDate.plusHours(i / 3);
+            entityManager.persist(Consultation.create(medic, patient, start, start.plusMinutes(30), "Consulta " + i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        expectedOrder = jdbcTemplate.queryForList("SELECT id FROM consultation ORDER BY start_date, id", UUID.class);
+    }
+
+    @Test
+    void shouldWalkAllPagesInOrderWithoutGapsOrDuplicates() {
+        var visited = new ArrayList<UUID>();
+
+        var page = consultationRepository.findFirstPage(Limit.of(3));
+        while (!page.isEmpty()) {
+            page.forEach(consultation -> visited.add(consultation.id()));
+            var cursor = ConsultationCursor.decode(ConsultationCursor.after(page.getLast()).encode());
+            page = consultationRepository.findPageAfter(cursor.startDate(), cursor.id(), Limit.of(3));
+        }
+
+        assertEquals(expectedOrder, visited);
+    }
+
+    @Test
+    void shouldCreateKeysetIndex() {
+        var indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE UPPER(table_name) = 'CONSULTATION'", String.class);
+
+        assertTrue(indexes.stream().anyMatch(name -> name.equalsIgnoreCase("idx_consultation_start_date_id")), indexes.toString());
+    }
+}
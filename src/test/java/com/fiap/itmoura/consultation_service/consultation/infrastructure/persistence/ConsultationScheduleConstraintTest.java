@@ -0,0 +1,127 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ConsultationScheduleConstraint.class)
+class ConsultationScheduleConstraintTest {
+
+    @Autowired
+    private ConsultationScheduleConstraint consultationScheduleConstraint;
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Users medic;
+    private Users patient;
+    private LocalDateTime startDate;
+
+    @BeforeEach
+    void setUp() {
+        consultationScheduleConstraint.run();
+
+        medic = entityManager.persist(Users.builder()
+                .name("Dr. Test")
+                .email("medic@example.com")
+                .password("password123")
+                .typeUserRole(TypeUserEnum.MEDIC)
+                .isActive(true)
+                .build());
+
+        patient = entityManager.persist(Users.builder()
+                .name("Patient Test")
+                .email("patient@example.com")
+                .password("password123")
+                .typeUserRole(TypeUserEnum.PATIENT)
+                .isActive(true)
+                .build());
+
+        startDate = LocalDateTime.now().plusDays(1).withNano(0);
+        consultationRepository.saveAndFlush(Consultation.create(medic, patient, startDate, startDate.plusHours(1), "Primeira"));
+    }
+
+    @Test
+    void shouldRejectOverlappingActiveConsultation() {
+        var overlapping = Consultation.create(medic, patient, startDate.plusMinutes(30), startDate.plusMinutes(90), "Sobreposta");
+
+        var exception = assertThrows(Exception.class, () -> consultationRepository.saveAndFlush(overlapping));
+
+        assertTrue(ConsultationScheduleConstraint.isViolatedBy(exception));
+    }
+
+    @Test
+    void shouldAcceptAdjacentConsultation() {
+        var adjacent = Consultation.create(medic, patient, startDate.plusHours(1), startDate.plusHours(2), "Seguinte");
+
+        assertDoesNotThrow(() -> consultationRepository.saveAndFlush(adjacent));
+    }
+
+    @Test
+    void shouldAcceptOverlapWithCancelledConsultation() {
+        var cancelled = Consultation.create(medic, patient, startDate.plusMinutes(30), startDate.plusMinutes(90), "Cancelada");
+        cancelled.setStatus(ConsultationStatusEnum.CANCELLED);
+
+        assertDoesNotThrow(() -> consultationRepository.saveAndFlush(cancelled));
+    }
+
+    @Test
+    void shouldAcceptOverlapForAnotherMedic() {
+        var otherMedic = entityManager.persist(Users.builder()
+                .name("Dr. Other")
+                .email("other@example.com")
+                .password("password123")
+                .typeUserRole(TypeUserEnum.MEDIC)
+                .isActive(true)
+                .build());
+
+        var consultation = Consultation.create(otherMedic, patient, startDate, startDate.plusHours(1), "Outro médico");
+
+        assertDoesNotThrow(() -> consultationRepository.saveAndFlush(consultation));
+    }
+
+    @Test
+    void shouldFailStartupWhenConstraintCannotBeInstalled() {
+        var constraint = new ConsultationScheduleConstraint(failingJdbcTemplate(), true);
+
+        assertThrows(IllegalStateException.class, () -> constraint.run());
+    }
+
+    @Test
+    void shouldStartWithoutConstraintWhenExplicitlyNotRequired() {
+        var constraint = new ConsultationScheduleConstraint(failingJdbcTemplate(), false);
+
+        assertDoesNotThrow(() -> constraint.run());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JdbcTemplate failingJdbcTemplate() {
+        var jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+        doThrow(new DataAccessResourceFailureException("permissão negada")).when(jdbcTemplate).execute(anyString());
+        return jdbcTemplate;
+    }
+}
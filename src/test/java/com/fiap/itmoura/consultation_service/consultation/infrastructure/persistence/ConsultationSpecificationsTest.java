@@ -0,0 +1,139 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationSearchRequest;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationSpecificationsTest$CapturingStatementInspector")
+@ActiveProfiles("test")
+class ConsultationSpecificationsTest {
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Users medic;
+    private Users otherMedic;
+    private Users patient;
+    private LocalDate firstDay;
+
+    @BeforeEach
+    void setUp() {
+        medic = entityManager.persist(user("medic@example.com", TypeUserEnum.MEDIC));
+        otherMedic = entityManager.persist(user("other@example.com", TypeUserEnum.MEDIC));
+        patient = entityManager.persist(user("patient@example.com", TypeUserEnum.PATIENT));
+
+        firstDay = LocalDate.now().plusDays(1);
+        persist(medic, firstDay.atTime(9, 0), ConsultationStatusEnum.SCHEDULED, "A");
+        persist(medic, firstDay.atTime(23, 30), ConsultationStatusEnum.CANCELLED, "B");
+        persist(medic, firstDay.plusDays(1).atTime(0, 0), ConsultationStatusEnum.SCHEDULED, "C");
+        persist(otherMedic, firstDay.atTime(10, 0), ConsultationStatusEnum.CONFIRMED, "D");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldReturnEverythingWhenNoCriteriaIsInformed() {
+        assertEquals(List.of("A", "D", "B", "C"), search(new ConsultationSearchRequest(null, null, null, null)));
+    }
+
+    @Test
+    void shouldCombineOnlyInformedCriteria() {
+        assertEquals(List.of("A", "B", "C"), search(new ConsultationSearchRequest(medic.getId(), null, null, null)));
+        assertEquals(List.of("A", "B"), search(new ConsultationSearchRequest(medic.getId(), null, firstDay, null)));
+        assertEquals(List.of("A"), search(new ConsultationSearchRequest(medic.getId(), patient.getId(), firstDay, ConsultationStatusEnum.SCHEDULED)));
+        assertEquals(List.of("D"), search(new ConsultationSearchRequest(null, null, null, ConsultationStatusEnum.CONFIRMED)));
+    }
+
+    @Test
+    void shouldPaginateWithTotalCount() {
+        var page = consultationRepository.findAll(
+                ConsultationSpecifications.matching(new ConsultationSearchRequest(null, patient.getId(), null, null)),
+                PageRequest.of(1, 3, Sort.by("startDate", "id")));
+
+        assertEquals(4, page.getTotalElements());
+        assertEquals(List.of("C"), page.map(Consultation::getDescription).getContent());
+    }
+
+    // Regressão de plano: o SQL gerado para cada critério principal deve ser resolvido pelo índice composto correspondente
+    @Test
+    void shouldUseCompositeIndexForEachSearchCriteria() {
+        var from = firstDay.atStartOfDay();
+        var to = firstDay.plusDays(1).atStartOfDay();
+
+        assertPlanUses("idx_consultation_medic_start_date",
+                new ConsultationSearchRequest(medic.getId(), null, firstDay, null), medic.getId(), from, to);
+        assertPlanUses("idx_consultation_patient_start_date",
+                new ConsultationSearchRequest(null, patient.getId(), firstDay, null), patient.getId(), from, to);
+        assertPlanUses("idx_consultation_status_start_date",
+                new ConsultationSearchRequest(null, null, firstDay, ConsultationStatusEnum.SCHEDULED), "SCHEDULED", from, to);
+    }
+
+    // Parâmetros na ordem em que matching(...) adiciona os predicados
+    private void assertPlanUses(String index, ConsultationSearchRequest request, Object... parameters) {
+        var sql = generatedSql(request);
+        var plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+
+        assertTrue(plan.toLowerCase().contains(index), sql + "\n" + plan);
+    }
+
+    private String generatedSql(ConsultationSearchRequest request) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        search(request);
+        return CapturingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase().contains("from consultation"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<String> search(ConsultationSearchRequest request) {
+        return consultationRepository.findAll(ConsultationSpecifications.matching(request), Sort.by("startDate", "id"))
+                .stream()
+                .map(Consultation::getDescription)
+                .toList();
+    }
+
+    private void persist(Users consultationMedic, LocalDateTime start, ConsultationStatusEnum status, String description) {
+        var consultation = Consultation.create(consultationMedic, patient, start, start.plusMinutes(30), description);
+        consultation.setStatus(status);
+        entityManager.persist(consultation);
+    }
+
+    /** Guarda o SQL que o Hibernate envia ao banco, para o teste de plano usar a consulta real. */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
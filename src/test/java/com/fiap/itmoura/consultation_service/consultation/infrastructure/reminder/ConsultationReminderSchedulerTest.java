@@ -0,0 +1,293 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.reminder;
+
+import com.fiap.itmoura.consultation_service.consultation.application.dto.request.ConsultationReminderKafkaRequest;
+import com.fiap.itmoura.consultation_service.consultation.domain.Consultation;
+import com.fiap.itmoura.consultation_service.consultation.domain.JobCheckpoint;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationReminderTypeEnum;
+import com.fiap.itmoura.consultation_service.consultation.domain.enums.ConsultationStatusEnum;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.lock.JobCheckpointLock;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationReminderClaimRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.ConsultationRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.persistence.JobCheckpointRepository;
+import com.fiap.itmoura.consultation_service.consultation.infrastructure.producer.ConsultationKafkaProducer;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.KafkaException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Sem transação de teste: reservas e checkpoint são commitados como entre nós diferentes
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConsultationReminderSchedulerTest {
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private ConsultationReminderClaimRepository claimRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private ConsultationKafkaProducer producer;
+    private SimpleMeterRegistry meterRegistry;
+    private ConsultationReminderScheduler scheduler;
+    private Users medic;
+    private Users patient;
+
+    @BeforeEach
+    void setUp() {
+        producer = mock(ConsultationKafkaProducer.class);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = newScheduler(producer);
+        scheduler.bindTo(meterRegistry);
+        medic = userRepository.save(user("medic@example.com", TypeUserEnum.MEDIC));
+        patient = userRepository.save(user("patient@example.com", TypeUserEnum.PATIENT));
+    }
+
+    @AfterEach
+    void tearDown() {
+        consultationRepository.deleteAll();
+        userRepository.deleteAll();
+        jobCheckpointRepository.deleteAll();
+        claimRepository.deleteAll();
+    }
+
+    @Test
+    void shouldRebuildDayAndHourRemindersFromActiveConsultations() {
+        persist(LocalDateTime.now().plusDays(2));
+        persist(LocalDateTime.now().plusHours(3));
+
+        scheduler.rebuild();
+
+        // 24h e 1h da primeira; só 1h da segunda, cujo lembrete de 24h já passou
+        assertEquals(3, scheduler.pending());
+        assertEquals(3.0, meterRegistry.get("consultation.reminder.pending").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendDueRemindersInOneBatchKeyedByConsultationAndType() throws Exception {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        var consultation = persist(startDate);
+        scheduler.onConsultationSaved(consultation);
+
+        scheduler.tick(millis(startDate.minusHours(24)));
+
+        ArgumentCaptor<List<ConsultationReminderKafkaRequest>> sent = ArgumentCaptor.forClass(List.class);
+        verify(producer).sendReminders(sent.capture());
+        assertEquals(1, sent.getValue().size());
+        var reminder = sent.getValue().getFirst();
+        assertEquals(ConsultationReminderTypeEnum.DAY_BEFORE, reminder.type());
+        assertEquals(consultation.getId(), reminder.id());
+        assertEquals(consultation.getId() + ":DAY_BEFORE", reminder.key());
+        assertEquals(medic.getEmail(), reminder.medicId().email());
+        assertEquals(1, scheduler.pending());
+
+        scheduler.tick(millis(startDate.minusHours(1)));
+
+        verify(producer, times(2)).sendReminders(sent.capture());
+        assertEquals(1, sent.getValue().size());
+        assertEquals(ConsultationReminderTypeEnum.HOUR_BEFORE, sent.getValue().getFirst().type());
+        assertEquals(0, scheduler.pending());
+        assertEquals(2.0, meterRegistry.counter("consultation.reminder.sent").count());
+    }
+
+    @Test
+    void shouldNotSendTheSameReminderFromAnotherNode() throws Exception {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        var consultation = persist(startDate);
+        var otherProducer = mock(ConsultationKafkaProducer.class);
+        var otherNode = newScheduler(otherProducer);
+        scheduler.onConsultationSaved(consultation);
+        otherNode.onConsultationSaved(consultation);
+
+        scheduler.tick(millis(startDate.minusHours(24)));
+        otherNode.tick(millis(startDate.minusHours(24)));
+
+        verify(producer).sendReminders(any());
+        verifyNoInteractions(otherProducer);
+        assertEquals(1, claimRepository.count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendAgainOnTheNextTickWhenKafkaFails() throws Exception {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        var consultation = persist(startDate);
+        scheduler.onConsultationSaved(consultation);
+        doThrow(new KafkaException("broker indisponível")).doNothing().when(producer).sendReminders(any());
+
+        scheduler.tick(millis(startDate.minusHours(24)));
+
+        // A reserva é desfeita: outro nó, ou este no próximo tick, ainda pode enviar
+        assertEquals(0, claimRepository.count());
+        assertEquals(2, scheduler.pending());
+
+        scheduler.tick(millis(startDate.minusHours(24).plusMinutes(1)));
+
+        ArgumentCaptor<List<ConsultationReminderKafkaRequest>> sent = ArgumentCaptor.forClass(List.class);
+        verify(producer, times(2)).sendReminders(sent.capture());
+        assertEquals(ConsultationReminderTypeEnum.DAY_BEFORE, sent.getValue().getFirst().type());
+        assertEquals(1, claimRepository.count());
+        assertEquals(1.0, meterRegistry.counter("consultation.reminder.sent").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendRemindersThatCameDueWhileDown() throws Exception {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        var consultation = persist(startDate);
+        // Último tick 30h antes da consulta; o serviço volta 20h antes, depois do horário do lembrete de 24h
+        givenLastTick(startDate.minusHours(30));
+
+        scheduler.rebuild(millis(startDate.minusHours(20)));
+        scheduler.tick(millis(startDate.minusHours(20)));
+
+        ArgumentCaptor<List<ConsultationReminderKafkaRequest>> sent = ArgumentCaptor.forClass(List.class);
+        verify(producer).sendReminders(sent.capture());
+        assertEquals(consultation.getId(), sent.getValue().getFirst().id());
+        assertEquals(ConsultationReminderTypeEnum.DAY_BEFORE, sent.getValue().getFirst().type());
+    }
+
+    @Test
+    void shouldNotSendMissedRemindersOfConsultationsAlreadyStarted() {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        persist(startDate);
+        givenLastTick(startDate.minusHours(30));
+
+        scheduler.rebuild(millis(startDate.plusMinutes(10)));
+        scheduler.tick(millis(startDate.plusMinutes(10)));
+
+        verifyNoInteractions(producer);
+    }
+
+    @Test
+    void shouldNotCatchUpRemindersThatCameDueBeforeTheLastTick() {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        persist(startDate);
+        // O lembrete de 24h venceu com algum nó no ar; se não saiu, foi por regra, não por queda
+        givenLastTick(startDate.minusHours(20));
+
+        scheduler.rebuild(millis(startDate.minusHours(19)));
+        scheduler.tick(millis(startDate.minusHours(19)));
+
+        verifyNoInteractions(producer);
+        assertEquals(1, scheduler.pending());
+    }
+
+    @Test
+    void shouldRecordEachTickAsTheStartOfTheNextCatchUp() {
+        var now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        scheduler.rebuild(millis(now));
+
+        scheduler.tick(millis(now.plusMinutes(5)));
+        scheduler.tick(millis(now.plusMinutes(3)));
+
+        var checkpoint = jobCheckpointRepository.findById(ConsultationReminderScheduler.JOB_NAME).orElseThrow();
+        assertEquals(now.plusMinutes(5), checkpoint.getPosition());
+    }
+
+    @Test
+    void shouldMoveRemindersWhenConsultationIsRescheduled() {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        var consultation = consultation(startDate);
+        scheduler.onConsultationSaved(consultation);
+
+        consultation.setStartDate(startDate.plusDays(1));
+        scheduler.onConsultationSaved(consultation);
+        scheduler.tick(millis(startDate.minusHours(1)));
+
+        assertEquals(2, scheduler.pending());
+        verifyNoInteractions(producer);
+    }
+
+    @Test
+    void shouldCancelRemindersWhenConsultationIsCancelled() {
+        var consultation = consultation(LocalDateTime.now().plusDays(2));
+        scheduler.onConsultationSaved(consultation);
+
+        consultation.setStatus(ConsultationStatusEnum.CANCELLED);
+        scheduler.onConsultationSaved(consultation);
+
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void shouldSkipTimerOfConsultationRescheduledOnAnotherNode() {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        var consultation = persist(startDate);
+        scheduler.onConsultationSaved(consultation);
+        // Gravado sem passar por este nó: a roda local ainda tem o horário antigo
+        consultation.setStartDate(startDate.plusDays(1));
+        consultation.setFinalDate(startDate.plusDays(1).plusHours(1));
+        consultationRepository.save(consultation);
+
+        scheduler.tick(millis(startDate.minusHours(24)));
+
+        verifyNoInteractions(producer);
+        assertEquals(0, claimRepository.count());
+    }
+
+    @Test
+    void shouldSkipRemindersOfConsultationsNoLongerActive() {
+        var startDate = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        var consultation = persist(startDate);
+        scheduler.onConsultationSaved(consultation);
+        consultation.setStatus(ConsultationStatusEnum.CANCELLED);
+        consultationRepository.save(consultation);
+
+        scheduler.tick(millis(startDate.minusHours(24)));
+
+        verifyNoInteractions(producer);
+    }
+
+    private ConsultationReminderScheduler newScheduler(ConsultationKafkaProducer kafkaProducer) {
+        return new ConsultationReminderScheduler(consultationRepository, claimRepository, jobCheckpointRepository,
+                new JobCheckpointLock(jobCheckpointRepository), kafkaProducer, meterRegistry, 60_000);
+    }
+
+    private void givenLastTick(LocalDateTime position) {
+        jobCheckpointRepository.save(new JobCheckpoint(ConsultationReminderScheduler.JOB_NAME,
+                position, new UUID(0, 0), LocalDateTime.now()));
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private Consultation persist(LocalDateTime startDate) {
+        return consultationRepository.save(Consultation.create(medic, patient, startDate, startDate.plusHours(1), "Lembrete"));
+    }
+
+    private Consultation consultation(LocalDateTime startDate) {
+        var consultation = Consultation.create(medic, patient, startDate, startDate.plusHours(1), "Lembrete");
+        consultation.setId(UUID.randomUUID());
+        return consultation;
+    }
+}
@@ -0,0 +1,102 @@
+package com.fiap.itmoura.consultation_service.consultation.infrastructure.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 60_000;
+    private static final long START = 1_900_000_000_000L;
+
+    @Test
+    void shouldFireEachTimerAtItsTickAcrossAllLevels() {
+        var wheel = new HierarchicalTimingWheel<Long>(TICK, START);
+        var random = new Random(42);
+        Map<Long, List<Long>> expectedByTick = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Até ~200 dias à frente: cobre os quatro níveis
+            var deadline = START + TICK + (long) (random.nextDouble() * TICK * 64 * 64 * 64 * 1.2);
+            wheel.schedule(deadline, deadline);
+            expectedByTick.computeIfAbsent(deadline / TICK, tick -> new ArrayList<>()).add(deadline);
+        }
+
+        var fired = 0;
+        var lastTick = expectedByTick.keySet().stream().max(Long::compare).orElseThrow();
+        for (var tick = START / TICK + 1; tick <= lastTick; tick++) {
+            var expired = wheel.advanceTo(tick * TICK);
+            var expected = expectedByTick.getOrDefault(tick, List.of());
+            assertEquals(expected.size(), expired.size(), "tick " + tick);
+            for (var deadline : expired) {
+                assertEquals(tick, deadline / TICK);
+            }
+            fired += expired.size();
+        }
+
+        assertEquals(5_000, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldNotFireCancelledTimers() {
+        var wheel = new HierarchicalTimingWheel<String>(TICK, START);
+        var kept = wheel.schedule(START + 90 * TICK, "kept");
+        var cancelled = wheel.schedule(START + 90 * TICK, "cancelled");
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of("kept"), wheel.advanceTo(START + 100 * TICK));
+        assertFalse(kept.isPending());
+        assertFalse(wheel.cancel(kept));
+    }
+
+    @Test
+    void shouldFireOverdueTimersOnNextAdvance() {
+        var wheel = new HierarchicalTimingWheel<String>(TICK, START);
+
+        wheel.schedule(START - TICK, "atrasado");
+
+        assertEquals(List.of("atrasado"), wheel.advanceTo(START));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldCatchUpAfterSkippingManyTicks() {
+        var wheel = new HierarchicalTimingWheel<String>(TICK, START);
+        wheel.schedule(START + 10 * TICK, "primeiro");
+        wheel.schedule(START + 5_000 * TICK, "segundo");
+
+        assertEquals(List.of("primeiro", "segundo"), wheel.advanceTo(START + 10_000 * TICK));
+    }
+
+    @Test
+    void shouldRejectDeadlinesBeyondHorizon() {
+        var wheel = new HierarchicalTimingWheel<String>(TICK, START);
+
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(START + wheel.horizonMillis() + 2 * TICK, "longe"));
+    }
+
+    @Test
+    void shouldHandleHundredsOfThousandsOfTimers() {
+        var wheel = new HierarchicalTimingWheel<Integer>(TICK, START);
+        var timers = new ArrayList<HierarchicalTimingWheel.Timer<Integer>>();
+        for (int i = 0; i < 300_000; i++) {
+            timers.add(wheel.schedule(START + TICK * (1 + i % 40_000), i));
+        }
+        for (int i = 0; i < timers.size(); i += 2) {
+            wheel.cancel(timers.get(i));
+        }
+
+        assertEquals(150_000, wheel.size());
+        assertEquals(150_000, wheel.advanceTo(START + TICK * 40_001).size());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.fiap.itmoura.consultation_service.shared.config.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fiap.itmoura.consultation_service.shared.domain.UserDetailData;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static com.fiap.itmoura.consultation_service.shared.config.security.JWTAuthFilter.TOKEN_PASSWORD;
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTTokenProviderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JWTTokenProvider jwtTokenProvider;
+    private Users medic;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenProvider = new JWTTokenProvider(meterRegistry, 100);
+        medic = user(TypeUserEnum.MEDIC);
+    }
+
+    @Test
+    void shouldVerifySignatureOnlyOnceForRepeatedToken() {
+        var token = jwtTokenProvider.create(new UserDetailData(medic));
+
+        var first = jwtTokenProvider.verify(token).orElseThrow();
+        var second = jwtTokenProvider.verify(token).orElseThrow();
+
+        assertEquals(first, second);
+        assertEquals(medic.getId(), second.userId());
+        assertEquals(TypeUserEnum.MEDIC, second.role());
+        assertEquals(1, verifications());
+        assertEquals(1, cacheGets("hit"));
+        assertEquals(1, cacheGets("miss"));
+    }
+
+    @Test
+    void shouldKeepSeparateEntriesPerToken() {
+        var nurse = user(TypeUserEnum.NURSE);
+
+        var medicClaims = jwtTokenProvider.verify(jwtTokenProvider.create(new UserDetailData(medic))).orElseThrow();
+        var nurseClaims = jwtTokenProvider.verify(jwtTokenProvider.create(new UserDetailData(nurse))).orElseThrow();
+
+        assertEquals(medic.getEmail(), medicClaims.email());
+        assertEquals(nurse.getEmail(), nurseClaims.email());
+        assertEquals(2, verifications());
+    }
+
+    @Test
+    void shouldNotCacheRejectedTokens() {
+        var forged = JWT.create()
+                .withSubject(medic.getEmail())
+                .withClaim(JWTTokenProvider.CLAIM_USER_ID, medic.getId().toString())
+                .withClaim(JWTTokenProvider.CLAIM_ROLE, TypeUserEnum.ADMIN.name())
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512("outra-chave"));
+
+        assertTrue(jwtTokenProvider.verify(forged).isEmpty());
+        assertTrue(jwtTokenProvider.verify(forged).isEmpty());
+
+        assertEquals(2, verifications());
+        assertEquals(0, cacheGets("hit"));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        var expired = JWT.create()
+                .withSubject(medic.getEmail())
+                .withClaim(JWTTokenProvider.CLAIM_USER_ID, medic.getId().toString())
+                .withClaim(JWTTokenProvider.CLAIM_ROLE, TypeUserEnum.MEDIC.name())
+                .withExpiresAt(new Date(System.currentTimeMillis() - 60_000))
+                .sign(Algorithm.HMAC512(TOKEN_PASSWORD));
+
+        assertTrue(jwtTokenProvider.verify(expired).isEmpty());
+        assertTrue(jwtTokenProvider.verify(expired).isEmpty());
+        assertEquals(0, cacheGets("hit"));
+    }
+
+    @Test
+    void shouldNotCacheTokenWithoutExpiration() {
+        // Sem exp não há até quando manter a entrada; verifica sempre
+        var token = JWT.create()
+                .withSubject(medic.getEmail())
+                .withClaim(JWTTokenProvider.CLAIM_USER_ID, medic.getId().toString())
+                .withClaim(JWTTokenProvider.CLAIM_ROLE, TypeUserEnum.MEDIC.name())
+                .sign(Algorithm.HMAC512(TOKEN_PASSWORD));
+
+        assertTrue(jwtTokenProvider.verify(token).isPresent());
+        assertTrue(jwtTokenProvider.verify(token).isPresent());
+
+        assertEquals(2, verifications());
+        assertEquals(0, cacheGets("hit"));
+    }
+
+    private long verifications() {
+        return meterRegistry.get("security.jwt.verification").timer().count();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "jwt-verified-tokens").tag("result", result)
+                .functionCounter().count();
+    }
+}
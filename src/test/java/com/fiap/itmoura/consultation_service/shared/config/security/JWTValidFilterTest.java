@@ -0,0 +1,129 @@
+package com.fiap.itmoura.consultation_service.shared.config.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fiap.itmoura.consultation_service.shared.domain.UserDetailData;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserStatusCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+
+import static com.fiap.itmoura.consultation_service.shared.config.security.JWTAuthFilter.TOKEN_PASSWORD;
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JWTValidFilterTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserStatusCache userStatusCache;
+
+    private JWTTokenProvider jwtTokenProvider;
+    private JWTValidFilter jwtValidFilter;
+    private Users medic;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JWTTokenProvider(new SimpleMeterRegistry(), 100);
+        jwtValidFilter = new JWTValidFilter(authenticationManager, jwtTokenProvider, userStatusCache);
+        medic = user(TypeUserEnum.MEDIC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAuthenticateFromTokenClaims() throws Exception {
+        when(userStatusCache.isActiveWith(medic.getId(), medic.getEmail(), TypeUserEnum.MEDIC)).thenReturn(true);
+
+        var authentication = filter(jwtTokenProvider.create(new UserDetailData(medic)));
+
+        assertNotNull(authentication);
+        assertEquals(medic.getEmail(), authentication.getName());
+        assertEquals("ROLE_MEDIC", authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+    }
+
+    @Test
+    void shouldRejectDeactivatedOrDemotedUser() throws Exception {
+        when(userStatusCache.isActiveWith(medic.getId(), medic.getEmail(), TypeUserEnum.MEDIC)).thenReturn(false);
+
+        assertNull(filter(jwtTokenProvider.create(new UserDetailData(medic))));
+    }
+
+    @Test
+    void shouldRejectTokenIssuedBeforeEmailChange() throws Exception {
+        var token = jwtTokenProvider.create(new UserDetailData(medic));
+        // O email do token é o principal: depois da troca ele não acharia mais o usuário
+        when(userStatusCache.isActiveWith(medic.getId(), medic.getEmail(), TypeUserEnum.MEDIC)).thenReturn(false);
+
+        assertNull(filter(token));
+        verify(userStatusCache).isActiveWith(medic.getId(), medic.getEmail(), TypeUserEnum.MEDIC);
+    }
+
+    @Test
+    void shouldRejectTokenWithoutClaims() throws Exception {
+        // Tokens emitidos antes das claims precisam de um novo login
+        var legacy = JWT.create()
+                .withSubject(medic.getEmail())
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512(TOKEN_PASSWORD));
+
+        assertNull(filter(legacy));
+        verifyNoInteractions(userStatusCache);
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() throws Exception {
+        var forged = JWT.create()
+                .withSubject(medic.getEmail())
+                .withClaim(JWTTokenProvider.CLAIM_USER_ID, medic.getId().toString())
+                .withClaim(JWTTokenProvider.CLAIM_ROLE, TypeUserEnum.ADMIN.name())
+                .sign(Algorithm.HMAC512("outra-chave"));
+
+        assertNull(filter(forged));
+        verifyNoInteractions(userStatusCache);
+    }
+
+    @Test
+    void shouldIgnoreRequestsWithoutBearerToken() throws Exception {
+        var chain = new MockFilterChain();
+
+        jwtValidFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userStatusCache);
+    }
+
+    private Authentication filter(String token) throws Exception {
+        var request = new MockHttpServletRequest();
+        request.addHeader(JWTValidFilter.HEADER_AUTHORIZATION, JWTValidFilter.TOKEN_PREFIX + token);
+        var chain = new MockFilterChain();
+
+        jwtValidFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -3,6 +3,7 @@ package com.fiap.itmoura.consultation_service.user.application;
 import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.application.service.UserService;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserVersions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +14,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,6 +33,9 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserVersions userVersions;
+
     @InjectMocks
     private UserController userController;
 
@@ -37,6 +45,7 @@ class UserControllerTest {
     @BeforeEach
     void setUp() {
         testId = UUID.randomUUID();
+        lenient().when(userVersions.current()).thenReturn("v1");
         testUserDTO = new UserDTO(
                 testId,
                 "Test User",
@@ -52,7 +61,7 @@ class UserControllerTest {
     void shouldFindAllUsers() {
         when(userService.findAll()).thenReturn(List.of(testUserDTO));
 
-        List<UserDTO> result = userController.findAll();
+        List<UserDTO> result = userController.findAll(webRequest(null));
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -66,7 +75,7 @@ class UserControllerTest {
         Page<UserDTO> userPage = new PageImpl<>(List.of(testUserDTO));
         when(userService.findAllPaginated(any(Pageable.class))).thenReturn(userPage);
 
-        Page<UserDTO> result = userController.findAllPaginated(pageable);
+        Page<UserDTO> result = userController.findAllPaginated(pageable, webRequest(null));
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
@@ -143,11 +152,55 @@ class UserControllerTest {
     void shouldFindUsersByType() {
         when(userService.findByTypeUserRole(TypeUserEnum.PATIENT)).thenReturn(List.of(testUserDTO));
 
-        List<UserDTO> result = userController.findByTypeUserRole(TypeUserEnum.PATIENT);
+        List<UserDTO> result = userController.findByTypeUserRole(TypeUserEnum.PATIENT, webRequest(null));
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testUserDTO.typeUserRole(), result.get(0).typeUserRole());
         verify(userService).findByTypeUserRole(TypeUserEnum.PATIENT);
     }
+
+    @Test
+    void shouldAnswerNotModifiedUntilUsersChange() {
+        when(userService.findAll()).thenReturn(List.of(testUserDTO));
+        when(userVersions.current()).thenReturn("v1", "v1", "v2");
+        var first = webRequest(null);
+        userController.findAll(first);
+        var etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        var unchanged = webRequest(etag);
+        assertNull(userController.findAll(unchanged));
+        assertEquals(304, unchanged.getResponse().getStatus());
+
+        var changed = webRequest(etag);
+        assertNotNull(userController.findAll(changed));
+        assertEquals(200, changed.getResponse().getStatus());
+        verify(userService, times(2)).findAll();
+    }
+
+    @Test
+    void shouldNotReuseETagAcrossPagesOrRoles() {
+        when(userService.findAllPaginated(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(testUserDTO)));
+        when(userService.findByTypeUserRole(any(TypeUserEnum.class))).thenReturn(List.of(testUserDTO));
+
+        var firstPage = webRequest(null);
+        userController.findAllPaginated(PageRequest.of(0, 20), firstPage);
+        var secondPage = webRequest(firstPage.getResponse().getHeader(HttpHeaders.ETAG));
+        assertNotNull(userController.findAllPaginated(PageRequest.of(1, 20), secondPage));
+        assertEquals(200, secondPage.getResponse().getStatus());
+
+        var sameRole = webRequest(null);
+        userController.findByTypeUserRole(TypeUserEnum.PATIENT, sameRole);
+        var otherRole = webRequest(sameRole.getResponse().getHeader(HttpHeaders.ETAG));
+        assertNotNull(userController.findByTypeUserRole(TypeUserEnum.MEDIC, otherRole));
+        assertEquals(200, otherRole.getResponse().getStatus());
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        var request = new MockHttpServletRequest("GET", "/api/users");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
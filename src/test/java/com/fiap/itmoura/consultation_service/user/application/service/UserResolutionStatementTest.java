@@ -0,0 +1,98 @@
+package com.fiap.itmoura.consultation_service.user.application.service;
+
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.shared.infrastructure.version.ListingVersions;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserStatusCache;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fixa o custo em statements da resolução de médico e paciente usada no
+ * agendamento e na alteração de consultas.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({UserService.class, UserVersions.class, ListingVersions.class, UserStatusCache.class, SimpleMeterRegistry.class})
+class UserResolutionStatementTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Users medic;
+    private Users patient;
+
+    @BeforeEach
+    void setUp() {
+        medic = entityManager.persist(user("medic@example.com", TypeUserEnum.MEDIC));
+        patient = entityManager.persist(user("patient@example.com", TypeUserEnum.PATIENT));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldResolveMedicAndPatientWithASingleStatement() {
+        var users = userService.findRequiredActiveUsers(List.of(medic.getId(), patient.getId()));
+
+        assertEquals(2, users.size());
+        assertEquals(TypeUserEnum.MEDIC, users.get(medic.getId()).getTypeUserRole());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldSpendOneStatementPerUserWhenResolvedOneByOne() {
+        userService.findByIdUsers(patient.getId());
+        userService.findByIdUsers(medic.getId());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldRejectMissingUserWithASingleStatement() {
+        var missingId = UUID.randomUUID();
+
+        assertThrows(BadRequestException.class,
+                () -> userService.findRequiredActiveUsers(List.of(medic.getId(), missingId)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldNotResolveInactiveUsers() {
+        var inactive = entityManager.persist(user("inactive@example.com", TypeUserEnum.PATIENT));
+        inactive.setIsActive(false);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        assertThrows(BadRequestException.class,
+                () -> userService.findRequiredActiveUsers(List.of(medic.getId(), inactive.getId())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -5,6 +5,8 @@ import com.fiap.itmoura.consultation_service.shared.exception.ConflictRequestExc
 import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
 import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
 import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserStatusCache;
+import com.fiap.itmoura.consultation_service.user.infrastructure.cache.UserVersions;
 import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,7 +22,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +41,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserVersions userVersions;
+
+    @Mock
+    private UserStatusCache userStatusCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -110,6 +120,25 @@ class UserServiceTest {
         verify(userRepository).findByIdAndIsActiveTrue(testId);
     }
 
+    @Test
+    void shouldResolveRequiredUsersWithASingleLookup() {
+        var medic = Users.builder().id(UUID.randomUUID()).typeUserRole(TypeUserEnum.MEDIC).isActive(true).build();
+        when(userRepository.findByIdInAndIsActiveTrue(Set.of(testId, medic.getId()))).thenReturn(List.of(testUser, medic));
+
+        var result = userService.findRequiredActiveUsers(List.of(testId, medic.getId(), testId));
+
+        assertEquals(Map.of(testId, testUser, medic.getId(), medic), result);
+        verify(userRepository, times(1)).findByIdInAndIsActiveTrue(any());
+    }
+
+    @Test
+    void shouldRejectRequiredUsersWhenOneIsMissing() {
+        var missingId = UUID.randomUUID();
+        when(userRepository.findByIdInAndIsActiveTrue(Set.of(testId, missingId))).thenReturn(List.of(testUser));
+
+        assertThrows(BadRequestException.class, () -> userService.findRequiredActiveUsers(List.of(testId, missingId)));
+    }
+
     @Test
     void shouldFindUserByEmail() {
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
@@ -134,6 +163,7 @@ class UserServiceTest {
         verify(userRepository).existsByEmail(testUserDTO.email());
         verify(passwordEncoder).encode(testUserDTO.password());
         verify(userRepository).save(any(Users.class));
+        verify(userVersions).touch();
     }
 
     @Test
@@ -143,6 +173,7 @@ class UserServiceTest {
         assertThrows(ConflictRequestException.class, () -> userService.create(testUserDTO));
         verify(userRepository).existsByEmail(testUserDTO.email());
         verify(userRepository, never()).save(any(Users.class));
+        verifyNoInteractions(userVersions);
     }
 
     @Test
@@ -167,6 +198,8 @@ class UserServiceTest {
         assertNotNull(result);
         verify(userRepository).findById(testId);
         verify(userRepository).save(any(Users.class));
+        verify(userVersions).touch();
+        verify(userStatusCache).invalidate(testId);
     }
 
     @Test
@@ -178,6 +211,8 @@ class UserServiceTest {
 
         verify(userRepository).findById(testId);
         verify(userRepository).save(any(Users.class));
+        verify(userVersions).touch();
+        verify(userStatusCache).invalidate(testId);
     }
 
     @Test
@@ -190,6 +225,8 @@ class UserServiceTest {
 
         verify(userRepository).findById(testId);
         verify(userRepository).save(any(Users.class));
+        verify(userVersions).touch();
+        verify(userStatusCache).invalidate(testId);
     }
 
     @Test
@@ -202,6 +239,7 @@ class UserServiceTest {
         
         verify(passwordEncoder).matches("wrongPassword", testUser.getPassword());
         verify(userRepository, never()).save(any(Users.class));
+        verifyNoInteractions(userVersions);
     }
 
     @Test
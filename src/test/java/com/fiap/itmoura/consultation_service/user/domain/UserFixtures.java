@@ -0,0 +1,34 @@
+package com.fiap.itmoura.consultation_service.user.domain;
+
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+
+import java.util.UUID;
+
+/** Usuários ativos para os testes. */
+public final class UserFixtures {
+
+    private UserFixtures() {
+    }
+
+    /** Usuário novo, sem id, pronto para ser salvo no repositório. */
+    public static Users user(String email, TypeUserEnum type) {
+        return Users.builder()
+                .name(type.name())
+                .email(email)
+                .password("password123")
+                .typeUserRole(type)
+                .isActive(true)
+                .build();
+    }
+
+    /** Usuário já com id e email aleatórios, para testes que não passam pelo banco. */
+    public static Users user(TypeUserEnum type) {
+        return Users.builder()
+                .id(UUID.randomUUID())
+                .name(type.name())
+                .email(UUID.randomUUID() + "@example.com")
+                .typeUserRole(type)
+                .isActive(true)
+                .build();
+    }
+}
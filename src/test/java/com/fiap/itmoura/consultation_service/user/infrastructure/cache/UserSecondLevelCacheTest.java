@@ -0,0 +1,185 @@
+package com.fiap.itmoura.consultation_service.user.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.shared.exception.BadRequestException;
+import com.fiap.itmoura.consultation_service.shared.infrastructure.version.ListingVersions;
+import com.fiap.itmoura.consultation_service.user.application.domain.UserDTO;
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.application.service.UserService;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica com commits reais que leituras repetidas de usuários não vão ao banco
+ * e que alterações feitas pelo {@link UserService} não deixam dados antigos no cache.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({UserCacheConfig.class, UserService.class, UserVersions.class, ListingVersions.class, UserStatusCache.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private Users user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(Users.builder()
+                .name("Patient Test")
+                .email("patient@example.com")
+                .password("password123")
+                .typeUserRole(TypeUserEnum.PATIENT)
+                .isActive(true)
+                .build());
+        entityManagerFactory.getCache().evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldServeRepeatedReadsByIdFromTheCache() {
+        userRepository.findById(user.getId()).orElseThrow();
+        var statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        var cached = userRepository.findById(user.getId()).orElseThrow();
+
+        assertEquals("Patient Test", cached.getName());
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+        assertTrue(entityManagerFactory.getCache().contains(Users.class, user.getId()));
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsByEmailAndActiveIdFromTheQueryCache() {
+        userRepository.findByEmail(user.getEmail()).orElseThrow();
+        userRepository.findByIdAndIsActiveTrue(user.getId()).orElseThrow();
+        var statementsAfterFirstReads = statistics.getPrepareStatementCount();
+
+        userRepository.findByEmail(user.getEmail()).orElseThrow();
+        userRepository.findByIdAndIsActiveTrue(user.getId()).orElseThrow();
+
+        assertEquals(statementsAfterFirstReads, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void shouldServeRepeatedBookingLookupsFromTheQueryCache() {
+        var medic = userRepository.save(Users.builder()
+                .name("Dr. Test")
+                .email("medic@example.com")
+                .password("password123")
+                .typeUserRole(TypeUserEnum.MEDIC)
+                .isActive(true)
+                .build());
+        var ids = List.of(medic.getId(), user.getId());
+        userService.findRequiredActiveUsers(ids);
+        var statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        var users = userService.findRequiredActiveUsers(ids);
+
+        assertEquals("Dr. Test", users.get(medic.getId()).getName());
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void shouldNotServeDeactivatedUserToBookingLookup() {
+        var ids = List.of(user.getId());
+        userService.findRequiredActiveUsers(ids);
+
+        userService.delete(user.getId());
+
+        assertThrows(BadRequestException.class, () -> userService.findRequiredActiveUsers(ids));
+    }
+
+    @Test
+    void shouldNotServeStaleUserAfterUpdate() {
+        userRepository.findByEmail(user.getEmail()).orElseThrow();
+
+        userService.update(user.getId(), new UserDTO(user.getId(), "Renamed", "renamed@example.com", null, null, null, null));
+
+        assertTrue(userRepository.findByEmail("patient@example.com").isEmpty());
+        assertEquals("Renamed", userRepository.findByEmail("renamed@example.com").orElseThrow().getName());
+        assertEquals("Renamed", userRepository.findById(user.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void shouldNotServeDeactivatedUserAfterDelete() {
+        userRepository.findByIdAndIsActiveTrue(user.getId()).orElseThrow();
+
+        userService.delete(user.getId());
+
+        // O save passa pela sessão: o Hibernate grava a versão nova na região, sem remoção manual
+        assertTrue(entityManagerFactory.getCache().contains(Users.class, user.getId()));
+        assertFalse(userRepository.findById(user.getId()).orElseThrow().getIsActive());
+        assertTrue(userRepository.findByIdAndIsActiveTrue(user.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldReadUserStatusPastTheSecondLevelCache() {
+        userRepository.findById(user.getId()).orElseThrow();
+        assertTrue(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.PATIENT));
+
+        // Desativação gravada por outro nó: a região users deste processo segue com a entidade ativa
+        new JdbcTemplate(dataSource).update("UPDATE users SET is_active = false WHERE id = ?", user.getId());
+        // Equivale ao TTL curto do status vencer
+        userStatusCache.invalidate(user.getId());
+
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().getIsActive());
+        assertFalse(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.PATIENT));
+    }
+
+    @Test
+    void shouldExportCacheMetrics() {
+        userRepository.findById(user.getId()).orElseThrow();
+        userRepository.findById(user.getId()).orElseThrow();
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", UserCacheConfig.USERS_REGION).tag("result", "hit")
+                .functionCounter().count() > 0);
+        assertNotNull(meterRegistry.get("cache.evictions").tag("cache", UserCacheConfig.USERS_REGION).functionCounter());
+        assertNotNull(meterRegistry.get("cache.gets").tag("cache", UserCacheConfig.USERS_QUERY_REGION).functionCounter());
+    }
+}
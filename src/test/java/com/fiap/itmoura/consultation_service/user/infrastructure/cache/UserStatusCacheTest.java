@@ -0,0 +1,82 @@
+package com.fiap.itmoura.consultation_service.user.infrastructure.cache;
+
+import com.fiap.itmoura.consultation_service.user.application.domain.enums.TypeUserEnum;
+import com.fiap.itmoura.consultation_service.user.domain.Users;
+import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserRepository;
+import com.fiap.itmoura.consultation_service.user.infrastructure.persistence.UserStatusView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static com.fiap.itmoura.consultation_service.user.domain.UserFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatusCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserStatusCache userStatusCache;
+    private Users user;
+
+    @BeforeEach
+    void setUp() {
+        userStatusCache = new UserStatusCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        user = user(TypeUserEnum.MEDIC);
+    }
+
+    @Test
+    void shouldLoadStatusOnceWithinTtl() {
+        when(userRepository.findStatusById(user.getId())).thenAnswer(invocation -> Optional.of(status()));
+
+        assertTrue(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.MEDIC));
+        assertTrue(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.MEDIC));
+
+        verify(userRepository, times(1)).findStatusById(user.getId());
+    }
+
+    @Test
+    void shouldRejectRoleThatNoLongerMatches() {
+        when(userRepository.findStatusById(user.getId())).thenAnswer(invocation -> Optional.of(status()));
+
+        assertFalse(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.ADMIN));
+    }
+
+    @Test
+    void shouldRejectEmailThatNoLongerMatches() {
+        when(userRepository.findStatusById(user.getId())).thenAnswer(invocation -> Optional.of(status()));
+
+        assertFalse(userStatusCache.isActiveWith(user.getId(), "old@example.com", TypeUserEnum.MEDIC));
+    }
+
+    @Test
+    void shouldRejectUnknownUser() {
+        when(userRepository.findStatusById(user.getId())).thenReturn(Optional.empty());
+
+        assertFalse(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.MEDIC));
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        when(userRepository.findStatusById(user.getId())).thenAnswer(invocation -> Optional.of(status()));
+        assertTrue(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.MEDIC));
+
+        user.setIsActive(false);
+        userStatusCache.invalidate(user.getId());
+
+        assertFalse(userStatusCache.isActiveWith(user.getId(), user.getEmail(), TypeUserEnum.MEDIC));
+        verify(userRepository, times(2)).findStatusById(user.getId());
+    }
+
+    private UserStatusView status() {
+        return new UserStatusView(user.getIsActive(), user.getEmail(), user.getTypeUserRole());
+    }
+}